@@ -0,0 +1,155 @@
+package com.ragchat.chat.actuator;
+
+import com.ragchat.chat.config.VectorIndexProperties;
+import com.ragchat.chat.model.enums.VectorSource;
+import com.ragchat.chat.repository.VectorChunkRepository;
+import com.ragchat.chat.repository.VectorIndexLayout;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.springframework.ai.document.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Recall-vs-latency report for the ANN indexes ({@code GET /actuator/vectorrecall}). Stored embeddings sampled at
+ * random serve as queries; each runs once through the ANN index with the given {@code efSearch}/{@code probes} and once
+ * as an exact full-precision scan, and recall@k is the share of exact neighbours the ANN search also returned. With a
+ * reduced-precision index the ANN side includes oversampling and rescoring, so the report compares the configured
+ * storage mode against full-precision search together with the index footprint. The search is not pre-filtered by
+ * session, which is where the ANN index does the work. Every sample runs an exact scan of the source, so the
+ * parameters are clamped and the endpoint is only exposed on the management port.
+ */
+@Component
+@Endpoint(id = "vectorrecall")
+public class VectorRecallEndpoint {
+
+    public record Latency(double meanMs, double p50Ms, double p95Ms, double p99Ms) {}
+
+    /**
+     * Footprint of the ANN index: bytes per indexed vector against a full-precision {@code float4} vector, and the
+     * on-disk size of the source's index.
+     */
+    public record Memory(int indexedDimensions, int bytesPerVector, int fullPrecisionBytesPerVector, long indexBytes) {}
+
+    public record Report(
+            VectorSource source,
+            VectorIndexProperties.Type indexType,
+            VectorIndexProperties.Storage storage,
+            Memory memory,
+            int samples,
+            int k,
+            int efSearch,
+            int probes,
+            double recall,
+            Latency ann,
+            Latency exact) {}
+
+    static final int MAX_SAMPLES = 200;
+    static final int MAX_K = 100;
+    /** pgvector's upper bound for {@code hnsw.ef_search}. */
+    static final int MAX_EF_SEARCH = 1000;
+
+    private final VectorChunkRepository vectorChunkRepository;
+    private final VectorIndexProperties vectorIndexProperties;
+    private final VectorIndexLayout vectorIndexLayout;
+    private final int fullDimensions;
+
+    public VectorRecallEndpoint(
+            VectorChunkRepository vectorChunkRepository,
+            VectorIndexProperties vectorIndexProperties,
+            VectorIndexLayout vectorIndexLayout,
+            @Value("${spring.ai.vectorstore.pgvector.dimensions}") int fullDimensions) {
+        this.vectorChunkRepository = vectorChunkRepository;
+        this.vectorIndexProperties = vectorIndexProperties;
+        this.vectorIndexLayout = vectorIndexLayout;
+        this.fullDimensions = fullDimensions;
+    }
+
+    @ReadOperation
+    public Report report(
+            @Nullable VectorSource source,
+            @Nullable Integer k,
+            @Nullable Integer samples,
+            @Nullable Integer efSearch,
+            @Nullable Integer probes) {
+        VectorSource evaluated = source != null ? source : VectorSource.SESSION_DOCUMENTS;
+        int topK = clamp(k != null ? k : 5, MAX_K);
+        VectorChunkRepository.AnnTuning defaults = vectorChunkRepository.defaultTuning();
+        VectorChunkRepository.AnnTuning tuning = new VectorChunkRepository.AnnTuning(
+                clamp(efSearch != null ? efSearch : defaults.efSearch(), MAX_EF_SEARCH),
+                clamp(probes != null ? probes : defaults.probes(), vectorIndexProperties.getLists()),
+                false);
+        VectorChunkRepository.Filter filter = new VectorChunkRepository.Filter(null, null, evaluated);
+
+        List<float[]> queries =
+                vectorChunkRepository.sampleEmbeddings(evaluated, clamp(samples != null ? samples : 50, MAX_SAMPLES));
+        long[] annNanos = new long[queries.size()];
+        long[] exactNanos = new long[queries.size()];
+        int found = 0;
+        int expected = 0;
+        for (int i = 0; i < queries.size(); i++) {
+            long start = System.nanoTime();
+            List<Document> approximate = vectorChunkRepository.search(queries.get(i), filter, topK, tuning);
+            annNanos[i] = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            List<Document> exact = vectorChunkRepository.search(
+                    queries.get(i), filter, topK, VectorChunkRepository.AnnTuning.exactSearch());
+            exactNanos[i] = System.nanoTime() - start;
+
+            Set<String> approximateIds = new HashSet<>();
+            approximate.forEach(doc -> approximateIds.add(doc.getId()));
+            for (Document doc : exact) {
+                if (approximateIds.contains(doc.getId())) {
+                    found++;
+                }
+            }
+            expected += exact.size();
+        }
+
+        Memory memory = new Memory(
+                vectorIndexLayout.getIndexedDimensions(),
+                vectorIndexLayout.bytesPerIndexedVector(),
+                4 * fullDimensions,
+                vectorChunkRepository.indexSizeBytes(evaluated));
+        return new Report(
+                evaluated,
+                vectorIndexProperties.getType(),
+                vectorIndexProperties.getStorage(),
+                memory,
+                queries.size(),
+                topK,
+                tuning.efSearch(),
+                tuning.probes(),
+                expected == 0 ? 1.0 : (double) found / expected,
+                latency(annNanos),
+                latency(exactNanos));
+    }
+
+    private static int clamp(int value, int max) {
+        return Math.max(1, Math.min(value, max));
+    }
+
+    private static Latency latency(long[] nanos) {
+        if (nanos.length == 0) {
+            return new Latency(0, 0, 0, 0);
+        }
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        return new Latency(
+                Arrays.stream(sorted).average().orElse(0) / 1_000_000,
+                percentile(sorted, 0.50),
+                percentile(sorted, 0.95),
+                percentile(sorted, 0.99));
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+}
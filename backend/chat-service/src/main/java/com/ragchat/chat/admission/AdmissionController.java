@@ -0,0 +1,276 @@
+package com.ragchat.chat.admission;
+
+import com.ragchat.chat.config.OllamaAdmissionProperties;
+import com.ragchat.chat.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Adaptive concurrency limit with a bounded priority queue in front of one Ollama workload. The limit follows AIMD on
+ * observed latency: a call that completes within {@code latencyThreshold} while the limit is saturated raises it by
+ * {@code 1/limit}, so it grows by about one per round of calls, and a call that fails or runs slower multiplies it by
+ * {@code backoffRatio}. Callers over the limit wait in priority order, then arrival order. When the queue is full, a
+ * caller displaces the lowest-priority waiter if it outranks it and is rejected otherwise; a caller that waits longer
+ * than {@code maxWait} is rejected too. Rejections are {@link ServiceOverloadedException}s with a retry estimate.
+ *
+ * <p>Meters are tagged with the limiter name: {@code ollama.admission.limit}, {@code .in-flight}, {@code .queued},
+ * {@code .wait} (by priority) and {@code .rejected} (by priority).
+ */
+@Slf4j
+public class AdmissionController {
+
+    /** Rank of the work waiting for a slot; interactive chat goes before indexing, indexing before batch work. */
+    public enum Priority {
+        INTERACTIVE,
+        INDEXING,
+        BATCH
+    }
+
+    /** How a call ended, which decides how the limit moves. */
+    public enum Outcome {
+        /** Completed; the latency decides whether the limit grows or backs off. */
+        SUCCESS,
+        /** Failed or timed out; the limit backs off. */
+        DROPPED,
+        /** Ended for a reason unrelated to Ollama, e.g. a disconnected client; the limit does not move. */
+        IGNORED
+    }
+
+    private static final ThreadLocal<Priority> CURRENT_PRIORITY = ThreadLocal.withInitial(() -> Priority.INTERACTIVE);
+
+    private final String name;
+    private final OllamaAdmissionProperties.Limiter settings;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final PriorityQueue<Waiter> queue = new PriorityQueue<>(
+            Comparator.comparing(Waiter::priority).thenComparingLong(Waiter::sequence));
+    private final Map<Priority, Counter> rejected = new EnumMap<>(Priority.class);
+    private final Map<Priority, Timer> waitTimers = new EnumMap<>(Priority.class);
+
+    private double limit;
+    private int inFlight;
+    private long sequence;
+    private double averageLatencyNanos;
+
+    public AdmissionController(String name, OllamaAdmissionProperties.Limiter settings, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.settings = settings;
+        this.limit = Math.clamp(settings.getInitialLimit(), settings.getMinLimit(), settings.getMaxLimit());
+
+        Gauge.builder("ollama.admission.limit", this, c -> c.limit)
+                .description("Current adaptive concurrency limit")
+                .tag("limiter", name)
+                .register(meterRegistry);
+        Gauge.builder("ollama.admission.in-flight", this, c -> c.inFlight)
+                .description("Calls currently holding a slot")
+                .tag("limiter", name)
+                .register(meterRegistry);
+        Gauge.builder("ollama.admission.queued", this, c -> c.queue.size())
+                .description("Calls waiting for a slot")
+                .tag("limiter", name)
+                .register(meterRegistry);
+        for (Priority priority : Priority.values()) {
+            rejected.put(
+                    priority,
+                    Counter.builder("ollama.admission.rejected")
+                            .description("Calls shed because the queue was full or the wait too long")
+                            .tag("limiter", name)
+                            .tag("priority", priority.name().toLowerCase())
+                            .register(meterRegistry));
+            waitTimers.put(
+                    priority,
+                    Timer.builder("ollama.admission.wait")
+                            .description("Time spent waiting for a slot")
+                            .tag("limiter", name)
+                            .tag("priority", priority.name().toLowerCase())
+                            .register(meterRegistry));
+        }
+    }
+
+    /** Priority of Ollama calls made by the current thread; {@link Priority#INTERACTIVE} unless set. */
+    public static Priority currentPriority() {
+        return CURRENT_PRIORITY.get();
+    }
+
+    /** Runs {@code work} with its Ollama calls ranked at {@code priority}. */
+    public static void runWithPriority(Priority priority, Runnable work) {
+        Priority previous = CURRENT_PRIORITY.get();
+        CURRENT_PRIORITY.set(priority);
+        try {
+            work.run();
+        } finally {
+            CURRENT_PRIORITY.set(previous);
+        }
+    }
+
+    /**
+     * Takes a slot, waiting in the queue if the limit is reached. The returned permit must be released exactly once.
+     *
+     * @throws ServiceOverloadedException if the queue is full or the wait exceeds {@code maxWait}
+     */
+    public Permit acquire(Priority priority) {
+        long start = System.nanoTime();
+        Waiter waiter;
+        lock.lock();
+        try {
+            if (queue.isEmpty() && inFlight < currentLimit()) {
+                inFlight++;
+                return admitted(priority, start);
+            }
+            if (queue.size() >= settings.getMaxQueue()) {
+                Waiter lowest = lowestPriorityWaiter();
+                if (lowest == null || lowest.priority().compareTo(priority) <= 0) {
+                    throw reject(priority, "queue full");
+                }
+                // Interactive work displaces queued background work rather than being shed itself
+                queue.remove(lowest);
+                lowest.admission().complete(false);
+            }
+            waiter = new Waiter(priority, sequence++, new CompletableFuture<>());
+            queue.add(waiter);
+        } finally {
+            lock.unlock();
+        }
+        return await(waiter, start);
+    }
+
+    private Permit await(Waiter waiter, long start) {
+        boolean admitted;
+        try {
+            admitted = waiter.admission().get(settings.getMaxWait().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            admitted = abandon(waiter);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (abandon(waiter)) {
+                release(Outcome.IGNORED, 0);
+            }
+            throw new IllegalStateException("Interrupted while waiting for an Ollama slot", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+        if (!admitted) {
+            lock.lock();
+            try {
+                throw reject(waiter.priority(), "displaced or waited too long");
+            } finally {
+                lock.unlock();
+            }
+        }
+        return admitted(waiter.priority(), start);
+    }
+
+    /** Removes a waiter that gave up; true if it was admitted in the meantime and therefore holds a slot. */
+    private boolean abandon(Waiter waiter) {
+        lock.lock();
+        try {
+            if (queue.remove(waiter)) {
+                waiter.admission().complete(false);
+                return false;
+            }
+            return waiter.admission().getNow(false);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Permit admitted(Priority priority, long start) {
+        long now = System.nanoTime();
+        waitTimers.get(priority).record(now - start, TimeUnit.NANOSECONDS);
+        return new Permit(now);
+    }
+
+    private void release(Outcome outcome, long latencyNanos) {
+        lock.lock();
+        try {
+            boolean saturated = inFlight >= currentLimit();
+            inFlight--;
+            switch (outcome) {
+                case SUCCESS -> {
+                    if (latencyNanos > settings.getLatencyThreshold().toNanos()) {
+                        backOff();
+                    } else if (saturated) {
+                        limit = Math.min(settings.getMaxLimit(), limit + 1 / limit);
+                    }
+                    averageLatencyNanos = averageLatencyNanos == 0
+                            ? latencyNanos
+                            : 0.9 * averageLatencyNanos + 0.1 * latencyNanos;
+                }
+                case DROPPED -> backOff();
+                case IGNORED -> {}
+            }
+            while (!queue.isEmpty() && inFlight < currentLimit()) {
+                inFlight++;
+                queue.poll().admission().complete(true);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void backOff() {
+        double reduced = Math.max(settings.getMinLimit(), limit * settings.getBackoffRatio());
+        if ((int) reduced < (int) limit) {
+            log.info("Ollama {} concurrency limit lowered to {}", name, (int) reduced);
+        }
+        limit = reduced;
+    }
+
+    /** Must be called with the lock held. */
+    private ServiceOverloadedException reject(Priority priority, String reason) {
+        rejected.get(priority).increment();
+        // Time for the calls ahead of a retry to drain at the current limit
+        double seconds = averageLatencyNanos / 1e9 * (queue.size() + 1) / currentLimit();
+        Duration retryAfter = Duration.ofSeconds(Math.max(1, (long) Math.ceil(seconds)));
+        log.debug("Shed {} {} call: {}", priority, name, reason);
+        return new ServiceOverloadedException("Ollama " + name + " capacity exceeded, retry later", retryAfter);
+    }
+
+    private Waiter lowestPriorityWaiter() {
+        Waiter lowest = null;
+        for (Waiter waiter : queue) {
+            if (lowest == null
+                    || waiter.priority().compareTo(lowest.priority()) > 0
+                    || (waiter.priority() == lowest.priority() && waiter.sequence() > lowest.sequence())) {
+                lowest = waiter;
+            }
+        }
+        return lowest;
+    }
+
+    private int currentLimit() {
+        return Math.max(1, (int) limit);
+    }
+
+    private record Waiter(Priority priority, long sequence, CompletableFuture<Boolean> admission) {}
+
+    /** A slot held by one call; released once, further releases are ignored. */
+    public final class Permit {
+
+        private final long admittedAt;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(long admittedAt) {
+            this.admittedAt = admittedAt;
+        }
+
+        public void release(Outcome outcome) {
+            if (released.compareAndSet(false, true)) {
+                AdmissionController.this.release(outcome, System.nanoTime() - admittedAt);
+            }
+        }
+    }
+}
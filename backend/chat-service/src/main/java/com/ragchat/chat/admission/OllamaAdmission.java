@@ -0,0 +1,30 @@
+package com.ragchat.chat.admission;
+
+import com.ragchat.chat.config.OllamaAdmissionProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * The admission controllers in front of Ollama. Chat generation and embeddings get separate limiters: their latencies
+ * differ by orders of magnitude, so each needs its own threshold, and a chat turn that embeds its question while
+ * holding a chat slot never waits on a slot of the same limiter.
+ */
+@Component
+public class OllamaAdmission {
+
+    private final AdmissionController chat;
+    private final AdmissionController embedding;
+
+    public OllamaAdmission(OllamaAdmissionProperties properties, MeterRegistry meterRegistry) {
+        this.chat = new AdmissionController("chat", properties.getChat(), meterRegistry);
+        this.embedding = new AdmissionController("embedding", properties.getEmbedding(), meterRegistry);
+    }
+
+    public AdmissionController chat() {
+        return chat;
+    }
+
+    public AdmissionController embedding() {
+        return embedding;
+    }
+}
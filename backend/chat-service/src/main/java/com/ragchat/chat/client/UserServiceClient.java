@@ -1,9 +1,11 @@
 package com.ragchat.chat.client;
 
+import com.ragchat.chat.config.UserServiceClientProperties;
 import com.ragchat.chat.model.dto.response.ApiResponse;
 import com.ragchat.chat.model.dto.response.ErrorDetails;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import java.util.Objects;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
@@ -15,17 +17,34 @@ import org.springframework.web.client.RestTemplate;
 @Service
 public class UserServiceClient {
 
-    @Value("${user-service.url}")
-    private String userServiceUrl; // http://user-service:8081/user
-
     private final RestTemplate restTemplate;
+    private final UserServiceClientProperties properties;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
 
-    public UserServiceClient(RestTemplate restTemplate) {
+    public UserServiceClient(
+            RestTemplate restTemplate,
+            UserServiceClientProperties properties,
+            CircuitBreaker userServiceCircuitBreaker,
+            Bulkhead userServiceBulkhead) {
         this.restTemplate = restTemplate;
+        this.properties = properties;
+        this.circuitBreaker = userServiceCircuitBreaker;
+        this.bulkhead = userServiceBulkhead;
     }
 
+    /**
+     * Validates the token with user-service. Fails fast with {@code CallNotPermittedException} while the circuit is
+     * open and with {@code BulkheadFullException} when too many calls are already in flight.
+     */
     public UserValidationResponse validateToken(String token) {
-        String url = userServiceUrl + "/api/auth/validate-token";
+        return Bulkhead.decorateSupplier(
+                        bulkhead, CircuitBreaker.decorateSupplier(circuitBreaker, () -> fetchValidation(token)))
+                .get();
+    }
+
+    private UserValidationResponse fetchValidation(String token) {
+        String url = properties.getUrl() + "/api/auth/validate-token";
 
         HttpHeaders headers = new HttpHeaders();
         headers.set("Authorization", "Bearer " + token);
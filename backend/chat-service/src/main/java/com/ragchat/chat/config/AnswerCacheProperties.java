@@ -0,0 +1,87 @@
+package com.ragchat.chat.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "chat.answer-cache")
+public class AnswerCacheProperties {
+
+    /** Reuse AI answers for repeated prompts and near-duplicate questions. */
+    private boolean enabled = true;
+
+    /** Maximum number of exact-prompt answers kept in memory. */
+    private long maxEntries = 10000;
+
+    /** Time after which a cached answer is no longer served. */
+    private Duration ttl = Duration.ofHours(24);
+
+    /** Maximum cosine distance between questions for the semantic tier to reuse an answer; 0 disables the tier. */
+    private double semanticMaxDistance = 0.05;
+
+    /** Questions remembered per session for semantic lookups. */
+    private int semanticEntriesPerSession = 64;
+
+    /** Looser semantic distance accepted when the LLM is overloaded or failing (degraded mode). */
+    private double degradedMaxDistance = 0.15;
+
+    /** Generations in flight at which the LLM counts as overloaded and cached answers are served first; 0 disables. */
+    private int overloadInFlightThreshold = 0;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(long maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    public double getSemanticMaxDistance() {
+        return semanticMaxDistance;
+    }
+
+    public void setSemanticMaxDistance(double semanticMaxDistance) {
+        this.semanticMaxDistance = semanticMaxDistance;
+    }
+
+    public int getSemanticEntriesPerSession() {
+        return semanticEntriesPerSession;
+    }
+
+    public void setSemanticEntriesPerSession(int semanticEntriesPerSession) {
+        this.semanticEntriesPerSession = semanticEntriesPerSession;
+    }
+
+    public double getDegradedMaxDistance() {
+        return degradedMaxDistance;
+    }
+
+    public void setDegradedMaxDistance(double degradedMaxDistance) {
+        this.degradedMaxDistance = degradedMaxDistance;
+    }
+
+    public int getOverloadInFlightThreshold() {
+        return overloadInFlightThreshold;
+    }
+
+    public void setOverloadInFlightThreshold(int overloadInFlightThreshold) {
+        this.overloadInFlightThreshold = overloadInFlightThreshold;
+    }
+}
@@ -1,5 +1,6 @@
 package com.ragchat.chat.config;
 
+import java.time.Duration;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
@@ -9,6 +10,15 @@ public class ChatHistoryProperties {
 
     private int previousMessages = 3;
 
+    /** Newest messages kept in memory per session for prompt history and the first page of the message list. */
+    private int cacheWindow = 50;
+
+    /** Maximum number of sessions whose recent messages are kept in memory. */
+    private long cacheMaxSessions = 10000;
+
+    /** Time after loading after which a session's recent messages are reloaded, however often they are read. */
+    private Duration cacheTtl = Duration.ofMinutes(10);
+
     public int getPreviousMessages() {
         return previousMessages;
     }
@@ -16,4 +26,28 @@ public class ChatHistoryProperties {
     public void setPreviousMessages(int previousMessages) {
         this.previousMessages = previousMessages;
     }
+
+    public int getCacheWindow() {
+        return cacheWindow;
+    }
+
+    public void setCacheWindow(int cacheWindow) {
+        this.cacheWindow = cacheWindow;
+    }
+
+    public long getCacheMaxSessions() {
+        return cacheMaxSessions;
+    }
+
+    public void setCacheMaxSessions(long cacheMaxSessions) {
+        this.cacheMaxSessions = cacheMaxSessions;
+    }
+
+    public Duration getCacheTtl() {
+        return cacheTtl;
+    }
+
+    public void setCacheTtl(Duration cacheTtl) {
+        this.cacheTtl = cacheTtl;
+    }
 }
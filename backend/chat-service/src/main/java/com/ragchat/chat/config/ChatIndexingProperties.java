@@ -0,0 +1,89 @@
+package com.ragchat.chat.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "chat.indexing")
+public class ChatIndexingProperties {
+
+    /** Messages embedded per vector-store write (one embedding request, one bulk insert). */
+    private int batchSize = 32;
+
+    /** Delay between outbox polls when the previous poll drained everything that was due. */
+    private long pollIntervalMs = 1000;
+
+    /** Messages shorter than this (after trimming) carry too little meaning to be worth retrieving. */
+    private int minContentLength = 20;
+
+    /** How long a claimed batch stays leased to one instance before another may retry it. */
+    private long leaseSeconds = 120;
+
+    /** First retry delay after a failed batch; doubled on every further attempt. */
+    private long retryBaseDelaySeconds = 5;
+
+    /** Upper bound for the retry delay. */
+    private long retryMaxDelaySeconds = 600;
+
+    /**
+     * Attempts before a message is parked as failed; with the default delays, ten attempts span about half an hour of
+     * embedding outage.
+     */
+    private int maxAttempts = 10;
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public long getPollIntervalMs() {
+        return pollIntervalMs;
+    }
+
+    public void setPollIntervalMs(long pollIntervalMs) {
+        this.pollIntervalMs = pollIntervalMs;
+    }
+
+    public int getMinContentLength() {
+        return minContentLength;
+    }
+
+    public void setMinContentLength(int minContentLength) {
+        this.minContentLength = minContentLength;
+    }
+
+    public long getLeaseSeconds() {
+        return leaseSeconds;
+    }
+
+    public void setLeaseSeconds(long leaseSeconds) {
+        this.leaseSeconds = leaseSeconds;
+    }
+
+    public long getRetryBaseDelaySeconds() {
+        return retryBaseDelaySeconds;
+    }
+
+    public void setRetryBaseDelaySeconds(long retryBaseDelaySeconds) {
+        this.retryBaseDelaySeconds = retryBaseDelaySeconds;
+    }
+
+    public long getRetryMaxDelaySeconds() {
+        return retryMaxDelaySeconds;
+    }
+
+    public void setRetryMaxDelaySeconds(long retryMaxDelaySeconds) {
+        this.retryMaxDelaySeconds = retryMaxDelaySeconds;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+}
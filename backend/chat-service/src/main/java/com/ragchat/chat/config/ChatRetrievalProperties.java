@@ -0,0 +1,79 @@
+package com.ragchat.chat.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "chat.retrieval")
+public class ChatRetrievalProperties {
+
+    /** Deadline for the vector search of a turn; a slower search is cancelled and the turn proceeds without context. */
+    private Duration vectorSearchTimeout = Duration.ofSeconds(3);
+
+    /** Deadline for loading recent conversation; a slower load is cancelled and the turn proceeds without history. */
+    private Duration historyTimeout = Duration.ofSeconds(2);
+
+    /** Chunks that go into the prompt. */
+    private int topK = 5;
+
+    /** Nearest chunks fetched before re-ranking; the final {@code topK} are picked from these. */
+    private int candidates = 20;
+
+    /** Minimum cosine similarity for a chunk to be considered; 0 keeps every candidate. */
+    private double minScore = 0.3;
+
+    /**
+     * Maximal marginal relevance trade-off between relevance to the question (1) and diversity among the picked chunks
+     * (0).
+     */
+    private double mmrLambda = 0.7;
+
+    public Duration getVectorSearchTimeout() {
+        return vectorSearchTimeout;
+    }
+
+    public void setVectorSearchTimeout(Duration vectorSearchTimeout) {
+        this.vectorSearchTimeout = vectorSearchTimeout;
+    }
+
+    public Duration getHistoryTimeout() {
+        return historyTimeout;
+    }
+
+    public void setHistoryTimeout(Duration historyTimeout) {
+        this.historyTimeout = historyTimeout;
+    }
+
+    public int getTopK() {
+        return topK;
+    }
+
+    public void setTopK(int topK) {
+        this.topK = topK;
+    }
+
+    public int getCandidates() {
+        return candidates;
+    }
+
+    public void setCandidates(int candidates) {
+        this.candidates = candidates;
+    }
+
+    public double getMinScore() {
+        return minScore;
+    }
+
+    public void setMinScore(double minScore) {
+        this.minScore = minScore;
+    }
+
+    public double getMmrLambda() {
+        return mmrLambda;
+    }
+
+    public void setMmrLambda(double mmrLambda) {
+        this.mmrLambda = mmrLambda;
+    }
+}
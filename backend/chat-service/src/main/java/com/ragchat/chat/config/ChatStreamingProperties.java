@@ -0,0 +1,20 @@
+package com.ragchat.chat.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "chat.streaming")
+public class ChatStreamingProperties {
+
+    /** Maximum time an SSE reply stream may stay open before it is cut off and persisted as partial. */
+    private long timeoutMs = 120000;
+
+    public long getTimeoutMs() {
+        return timeoutMs;
+    }
+
+    public void setTimeoutMs(long timeoutMs) {
+        this.timeoutMs = timeoutMs;
+    }
+}
@@ -0,0 +1,260 @@
+package com.ragchat.chat.config;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "chat.document-indexing")
+public class DocumentIndexingProperties {
+
+    public enum ChunkingStrategy {
+        /** Fixed character windows with a fixed overlap, cut regardless of words or sentences. */
+        FIXED,
+        /** Sentences packed into paragraph-respecting, token-budgeted chunks; repeated boilerplate lines dropped. */
+        STRUCTURED
+    }
+
+    /** Documents parsed and chunked concurrently by this instance; their chunks are embedded on a separate pool. */
+    private int workers = 2;
+
+    /** Initial number of chunks embedded and inserted per batch; tuned between the bounds below at runtime. */
+    private int batchSize = 32;
+
+    private int minBatchSize = 4;
+
+    private int maxBatchSize = 256;
+
+    /**
+     * Batch latency the batch size is tuned towards: faster batches grow it, slower ones halve it. Kept below the
+     * embedding admission latency threshold so that the limiter and the tuner do not work against each other.
+     */
+    private Duration batchLatencyTarget = Duration.ofSeconds(1);
+
+    /** Batches embedded concurrently by this instance, across all documents. */
+    private int embeddingParallelism = 4;
+
+    /** Batches of one document submitted but not yet written; parsing waits when this many are pending. */
+    private int maxInFlightBatches = 8;
+
+    /** Delay between job polls when no worker was free or no job was due. */
+    private long pollIntervalMs = 1000;
+
+    /** How long a claimed job stays leased to one worker before another instance may take it over. */
+    private long leaseSeconds = 900;
+
+    /** Waiting time after which a job competes as if its document were half its size. */
+    private long agingSeconds = 60;
+
+    /** Attempts before a document is marked failed for good. */
+    private int maxAttempts = 5;
+
+    /** First retry delay after a failed attempt; doubled on every further attempt. */
+    private long retryBaseDelaySeconds = 10;
+
+    /** Upper bound for the retry delay. */
+    private long retryMaxDelaySeconds = 900;
+
+    private final Chunking chunking = new Chunking();
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    public void setWorkers(int workers) {
+        this.workers = workers;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public int getMinBatchSize() {
+        return minBatchSize;
+    }
+
+    public void setMinBatchSize(int minBatchSize) {
+        this.minBatchSize = minBatchSize;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public Duration getBatchLatencyTarget() {
+        return batchLatencyTarget;
+    }
+
+    public void setBatchLatencyTarget(Duration batchLatencyTarget) {
+        this.batchLatencyTarget = batchLatencyTarget;
+    }
+
+    public int getEmbeddingParallelism() {
+        return embeddingParallelism;
+    }
+
+    public void setEmbeddingParallelism(int embeddingParallelism) {
+        this.embeddingParallelism = embeddingParallelism;
+    }
+
+    public int getMaxInFlightBatches() {
+        return maxInFlightBatches;
+    }
+
+    public void setMaxInFlightBatches(int maxInFlightBatches) {
+        this.maxInFlightBatches = maxInFlightBatches;
+    }
+
+    public long getPollIntervalMs() {
+        return pollIntervalMs;
+    }
+
+    public void setPollIntervalMs(long pollIntervalMs) {
+        this.pollIntervalMs = pollIntervalMs;
+    }
+
+    public long getLeaseSeconds() {
+        return leaseSeconds;
+    }
+
+    public void setLeaseSeconds(long leaseSeconds) {
+        this.leaseSeconds = leaseSeconds;
+    }
+
+    public long getAgingSeconds() {
+        return agingSeconds;
+    }
+
+    public void setAgingSeconds(long agingSeconds) {
+        this.agingSeconds = agingSeconds;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+
+    public long getRetryBaseDelaySeconds() {
+        return retryBaseDelaySeconds;
+    }
+
+    public void setRetryBaseDelaySeconds(long retryBaseDelaySeconds) {
+        this.retryBaseDelaySeconds = retryBaseDelaySeconds;
+    }
+
+    public long getRetryMaxDelaySeconds() {
+        return retryMaxDelaySeconds;
+    }
+
+    public void setRetryMaxDelaySeconds(long retryMaxDelaySeconds) {
+        this.retryMaxDelaySeconds = retryMaxDelaySeconds;
+    }
+
+    public Chunking getChunking() {
+        return chunking;
+    }
+
+    public static class Chunking {
+
+        /** Strategy for content types without an entry in {@code contentTypes}. */
+        private ChunkingStrategy strategy = ChunkingStrategy.STRUCTURED;
+
+        /** Per content type overrides, keyed by MIME type ({@code text/csv}) or by top-level type ({@code text/*}). */
+        private Map<String, ChunkingStrategy> contentTypes = new HashMap<>();
+
+        /** Token budget of a structured chunk; one embedding call covers at most this much text. */
+        private int maxTokens = 256;
+
+        /** A chunk's last sentence is repeated at the start of the next one when it is at most this long. */
+        private int overlapTokens = 32;
+
+        /** Short lines at the edges of at least this many pages (headers, footers) are dropped; 0 keeps all. */
+        private int boilerplateRepeats = 3;
+
+        /** Lines longer than this are never treated as boilerplate. */
+        private int boilerplateMaxLineLength = 120;
+
+        /** Window size of the fixed strategy, in characters. */
+        private int windowSize = 1000;
+
+        /** Characters shared by consecutive windows of the fixed strategy. */
+        private int windowOverlap = 200;
+
+        public ChunkingStrategy getStrategy() {
+            return strategy;
+        }
+
+        public void setStrategy(ChunkingStrategy strategy) {
+            this.strategy = strategy;
+        }
+
+        public Map<String, ChunkingStrategy> getContentTypes() {
+            return contentTypes;
+        }
+
+        public void setContentTypes(Map<String, ChunkingStrategy> contentTypes) {
+            this.contentTypes = contentTypes;
+        }
+
+        public int getMaxTokens() {
+            return maxTokens;
+        }
+
+        public void setMaxTokens(int maxTokens) {
+            this.maxTokens = maxTokens;
+        }
+
+        public int getOverlapTokens() {
+            return overlapTokens;
+        }
+
+        public void setOverlapTokens(int overlapTokens) {
+            this.overlapTokens = overlapTokens;
+        }
+
+        public int getBoilerplateRepeats() {
+            return boilerplateRepeats;
+        }
+
+        public void setBoilerplateRepeats(int boilerplateRepeats) {
+            this.boilerplateRepeats = boilerplateRepeats;
+        }
+
+        public int getBoilerplateMaxLineLength() {
+            return boilerplateMaxLineLength;
+        }
+
+        public void setBoilerplateMaxLineLength(int boilerplateMaxLineLength) {
+            this.boilerplateMaxLineLength = boilerplateMaxLineLength;
+        }
+
+        public int getWindowSize() {
+            return windowSize;
+        }
+
+        public void setWindowSize(int windowSize) {
+            this.windowSize = windowSize;
+        }
+
+        public int getWindowOverlap() {
+            return windowOverlap;
+        }
+
+        public void setWindowOverlap(int windowOverlap) {
+            this.windowOverlap = windowOverlap;
+        }
+    }
+}
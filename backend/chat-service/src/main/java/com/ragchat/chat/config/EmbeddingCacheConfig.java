@@ -0,0 +1,60 @@
+package com.ragchat.chat.config;
+
+import com.ragchat.chat.admission.OllamaAdmission;
+import com.ragchat.chat.embedding.AdmissionControlledEmbeddingModel;
+import com.ragchat.chat.embedding.CachingEmbeddingModel;
+import com.ragchat.chat.repository.EmbeddingCacheRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.ollama.OllamaEmbeddingModel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Puts the content-hash embedding cache in front of the Ollama embedding model. The cache is {@code @Primary}, so the
+ * pgvector store (document chunks, chat messages and similarity-search queries) embeds through it. Cache misses go
+ * through the embedding admission controller before they reach Ollama.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(prefix = "chat.embedding-cache", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class EmbeddingCacheConfig {
+
+    private final EmbeddingCacheRepository embeddingCacheRepository;
+    private final EmbeddingCacheProperties embeddingCacheProperties;
+
+    public EmbeddingCacheConfig(
+            EmbeddingCacheRepository embeddingCacheRepository, EmbeddingCacheProperties embeddingCacheProperties) {
+        this.embeddingCacheRepository = embeddingCacheRepository;
+        this.embeddingCacheProperties = embeddingCacheProperties;
+    }
+
+    @Bean
+    @Primary
+    public EmbeddingModel cachingEmbeddingModel(
+            OllamaEmbeddingModel ollamaEmbeddingModel,
+            @Value("${spring.ai.ollama.embedding.options.model}") String embeddingModelName,
+            OllamaAdmission ollamaAdmission,
+            MeterRegistry meterRegistry) {
+        return new CachingEmbeddingModel(
+                new AdmissionControlledEmbeddingModel(ollamaEmbeddingModel, ollamaAdmission.embedding()),
+                embeddingModelName,
+                embeddingCacheRepository,
+                embeddingCacheProperties,
+                meterRegistry);
+    }
+
+    @Scheduled(cron = "${chat.embedding-cache.prune-cron:0 30 3 * * *}")
+    public void prunePersistentTier() {
+        if (!embeddingCacheProperties.isPersistent()) {
+            return;
+        }
+        int deleted = embeddingCacheRepository.deleteOlderThan(embeddingCacheProperties.getPersistentTtl());
+        log.info("Pruned {} expired embeddings from the embedding cache", deleted);
+    }
+}
@@ -0,0 +1,54 @@
+package com.ragchat.chat.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "chat.embedding-cache")
+public class EmbeddingCacheProperties {
+
+    /** Serve repeated texts from the cache instead of re-embedding them through the model. */
+    private boolean enabled = true;
+
+    /** Maximum number of embeddings kept in memory (least recently used are evicted first). */
+    private long memoryMaxEntries = 10000;
+
+    /** Back the in-memory tier with the embedding_cache table, shared by all instances and kept across restarts. */
+    private boolean persistent = true;
+
+    /** Embeddings older than this are pruned from the persistent tier. */
+    private Duration persistentTtl = Duration.ofDays(30);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getMemoryMaxEntries() {
+        return memoryMaxEntries;
+    }
+
+    public void setMemoryMaxEntries(long memoryMaxEntries) {
+        this.memoryMaxEntries = memoryMaxEntries;
+    }
+
+    public boolean isPersistent() {
+        return persistent;
+    }
+
+    public void setPersistent(boolean persistent) {
+        this.persistent = persistent;
+    }
+
+    public Duration getPersistentTtl() {
+        return persistentTtl;
+    }
+
+    public void setPersistentTtl(Duration persistentTtl) {
+        this.persistentTtl = persistentTtl;
+    }
+}
@@ -0,0 +1,82 @@
+package com.ragchat.chat.config;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "jwt")
+public class JwtProperties {
+
+    public enum ValidationMode {
+        /** Verify the signature and claims in-process. */
+        LOCAL,
+        /** Ask user-service to validate every token. */
+        REMOTE
+    }
+
+    /** Base64-encoded HMAC secret shared with user-service. */
+    private String secret;
+
+    /** Key id of {@link #secret}; tokens without a {@code kid} header are verified with this key. */
+    private String keyId = "primary";
+
+    /** Retired signing keys (kid to base64 secret) still accepted while user-service rotates keys. */
+    private Map<String, String> previousKeys = new HashMap<>();
+
+    private ValidationMode validationMode = ValidationMode.LOCAL;
+
+    /** In LOCAL mode, retry tokens that fail local verification against user-service (e.g. unknown key id). */
+    private boolean remoteFallback = false;
+
+    private long clockSkewSeconds = 30;
+
+    public String getSecret() {
+        return secret;
+    }
+
+    public void setSecret(String secret) {
+        this.secret = secret;
+    }
+
+    public String getKeyId() {
+        return keyId;
+    }
+
+    public void setKeyId(String keyId) {
+        this.keyId = keyId;
+    }
+
+    public Map<String, String> getPreviousKeys() {
+        return previousKeys;
+    }
+
+    public void setPreviousKeys(Map<String, String> previousKeys) {
+        this.previousKeys = previousKeys;
+    }
+
+    public ValidationMode getValidationMode() {
+        return validationMode;
+    }
+
+    public void setValidationMode(ValidationMode validationMode) {
+        this.validationMode = validationMode;
+    }
+
+    public boolean isRemoteFallback() {
+        return remoteFallback;
+    }
+
+    public void setRemoteFallback(boolean remoteFallback) {
+        this.remoteFallback = remoteFallback;
+    }
+
+    public long getClockSkewSeconds() {
+        return clockSkewSeconds;
+    }
+
+    public void setClockSkewSeconds(long clockSkewSeconds) {
+        this.clockSkewSeconds = clockSkewSeconds;
+    }
+}
@@ -0,0 +1,112 @@
+package com.ragchat.chat.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/** Adaptive admission control for calls to Ollama, with one limiter for chat generation and one for embeddings. */
+@Component
+@ConfigurationProperties(prefix = "chat.admission")
+public class OllamaAdmissionProperties {
+
+    private final Limiter chat = new Limiter(4, 32, Duration.ofSeconds(30), 64, Duration.ofSeconds(20));
+    private final Limiter embedding = new Limiter(8, 64, Duration.ofSeconds(2), 256, Duration.ofSeconds(10));
+
+    public Limiter getChat() {
+        return chat;
+    }
+
+    public Limiter getEmbedding() {
+        return embedding;
+    }
+
+    public static class Limiter {
+
+        /** Concurrency limit at startup, before latency feedback has moved it. */
+        private int initialLimit;
+
+        /** Floor the limit never backs off below. */
+        private int minLimit = 1;
+
+        /** Ceiling the limit never grows above. */
+        private int maxLimit;
+
+        /** Calls slower than this count as a congestion signal and lower the limit. */
+        private Duration latencyThreshold;
+
+        /** Factor the limit is multiplied by on a slow or failed call. */
+        private double backoffRatio = 0.9;
+
+        /** Callers that may wait for a slot; beyond this, lower-priority waiters or the caller are shed. */
+        private int maxQueue;
+
+        /** Longest a caller waits for a slot before it is shed. */
+        private Duration maxWait;
+
+        public Limiter() {}
+
+        Limiter(int initialLimit, int maxLimit, Duration latencyThreshold, int maxQueue, Duration maxWait) {
+            this.initialLimit = initialLimit;
+            this.maxLimit = maxLimit;
+            this.latencyThreshold = latencyThreshold;
+            this.maxQueue = maxQueue;
+            this.maxWait = maxWait;
+        }
+
+        public int getInitialLimit() {
+            return initialLimit;
+        }
+
+        public void setInitialLimit(int initialLimit) {
+            this.initialLimit = initialLimit;
+        }
+
+        public int getMinLimit() {
+            return minLimit;
+        }
+
+        public void setMinLimit(int minLimit) {
+            this.minLimit = minLimit;
+        }
+
+        public int getMaxLimit() {
+            return maxLimit;
+        }
+
+        public void setMaxLimit(int maxLimit) {
+            this.maxLimit = maxLimit;
+        }
+
+        public Duration getLatencyThreshold() {
+            return latencyThreshold;
+        }
+
+        public void setLatencyThreshold(Duration latencyThreshold) {
+            this.latencyThreshold = latencyThreshold;
+        }
+
+        public double getBackoffRatio() {
+            return backoffRatio;
+        }
+
+        public void setBackoffRatio(double backoffRatio) {
+            this.backoffRatio = backoffRatio;
+        }
+
+        public int getMaxQueue() {
+            return maxQueue;
+        }
+
+        public void setMaxQueue(int maxQueue) {
+            this.maxQueue = maxQueue;
+        }
+
+        public Duration getMaxWait() {
+            return maxWait;
+        }
+
+        public void setMaxWait(Duration maxWait) {
+            this.maxWait = maxWait;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.ragchat.chat.config;
+
+import com.ragchat.chat.prompt.CharacterRatioTokenEstimator;
+import com.ragchat.chat.prompt.TokenEstimator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class PromptConfig {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public TokenEstimator tokenEstimator(PromptProperties promptProperties) {
+        return new CharacterRatioTokenEstimator(promptProperties.getCharactersPerToken());
+    }
+}
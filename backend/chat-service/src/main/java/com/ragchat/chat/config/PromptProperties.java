@@ -0,0 +1,64 @@
+package com.ragchat.chat.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "chat.prompt")
+public class PromptProperties {
+
+    /** Token budget of the static instructions; exceeding it is reported at startup. */
+    private int systemTokens = 200;
+
+    /** Token budget for retrieved document chunks; chunks that do not fit whole are left out. */
+    private int contextTokens = 750;
+
+    /** Token budget for recent conversation; the oldest messages are left out first. */
+    private int historyTokens = 500;
+
+    /** Token budget for the user question; longer questions are cut at a sentence or word boundary. */
+    private int questionTokens = 500;
+
+    /** Characters per token assumed by the default token estimator. */
+    private double charactersPerToken = 4.0;
+
+    public int getSystemTokens() {
+        return systemTokens;
+    }
+
+    public void setSystemTokens(int systemTokens) {
+        this.systemTokens = systemTokens;
+    }
+
+    public int getContextTokens() {
+        return contextTokens;
+    }
+
+    public void setContextTokens(int contextTokens) {
+        this.contextTokens = contextTokens;
+    }
+
+    public int getHistoryTokens() {
+        return historyTokens;
+    }
+
+    public void setHistoryTokens(int historyTokens) {
+        this.historyTokens = historyTokens;
+    }
+
+    public int getQuestionTokens() {
+        return questionTokens;
+    }
+
+    public void setQuestionTokens(int questionTokens) {
+        this.questionTokens = questionTokens;
+    }
+
+    public double getCharactersPerToken() {
+        return charactersPerToken;
+    }
+
+    public void setCharactersPerToken(double charactersPerToken) {
+        this.charactersPerToken = charactersPerToken;
+    }
+}
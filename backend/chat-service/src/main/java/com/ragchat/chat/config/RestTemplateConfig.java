@@ -1,15 +1,78 @@
 package com.ragchat.chat.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
 @Configuration
 public class RestTemplateConfig {
 
+    private static final String POOL_NAME = "user-service";
+
     @Bean
-    public RestTemplate restTemplate(RestTemplateBuilder builder) {
-        return builder.build();
+    public PoolingHttpClientConnectionManagerMetricsBinder userServiceConnectionPoolMetrics(
+            TimedPoolingConnectionManager userServiceConnectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(userServiceConnectionManager, POOL_NAME);
+    }
+
+    @Bean(destroyMethod = "close")
+    TimedPoolingConnectionManager userServiceConnectionManager(
+            UserServiceClientProperties properties, MeterRegistry meterRegistry) {
+        UserServiceClientProperties.Http http = properties.getHttp();
+
+        TimedPoolingConnectionManager connectionManager = new TimedPoolingConnectionManager(meterRegistry, POOL_NAME);
+        connectionManager.setMaxTotal(http.getMaxConnections());
+        connectionManager.setDefaultMaxPerRoute(http.getMaxConnectionsPerRoute());
+        connectionManager.setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setConnectTimeout(toTimeout(http.getConnectTimeout()))
+                .setSocketTimeout(toTimeout(http.getResponseTimeout()))
+                .setTimeToLive(TimeValue.ofMilliseconds(http.getTimeToLive().toMillis()))
+                // Re-check connections that sat idle long enough for user-service to have closed them
+                .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                .build());
+        return connectionManager;
+    }
+
+    @Bean(destroyMethod = "close")
+    CloseableHttpClient userServiceHttpClient(
+            TimedPoolingConnectionManager userServiceConnectionManager, UserServiceClientProperties properties) {
+        UserServiceClientProperties.Http http = properties.getHttp();
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectionRequestTimeout(toTimeout(http.getConnectionRequestTimeout()))
+                .setResponseTimeout(toTimeout(http.getResponseTimeout()))
+                .setConnectionKeepAlive(TimeValue.ofMilliseconds(http.getKeepAlive().toMillis()))
+                .build();
+
+        return HttpClients.custom()
+                .setConnectionManager(userServiceConnectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(http.getKeepAlive().toMillis()))
+                // Retries are left to the caller; a blind retry would double the load on a struggling user-service
+                .disableAutomaticRetries()
+                .build();
+    }
+
+    @Bean
+    public RestTemplate restTemplate(RestTemplateBuilder builder, CloseableHttpClient userServiceHttpClient) {
+        return builder.requestFactory(() -> new HttpComponentsClientHttpRequestFactory(userServiceHttpClient))
+                .build();
+    }
+
+    private static Timeout toTimeout(Duration duration) {
+        return Timeout.of(duration.toMillis(), TimeUnit.MILLISECONDS);
     }
 }
@@ -3,6 +3,7 @@ package com.ragchat.chat.config;
 import com.ragchat.chat.logging.MdcLoggingFilter;
 import com.ragchat.chat.security.JwtValidationFilter;
 import com.ragchat.chat.security.RateLimitInterceptor;
+import jakarta.servlet.DispatcherType;
 import java.util.Arrays;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
@@ -33,7 +34,10 @@ public class SecurityConfig {
         http.csrf(AbstractHttpConfigurer::disable)
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
-                .authorizeHttpRequests(auth -> auth.requestMatchers("/api/health")
+                // Async dispatches (SSE reply streams) were already authorized on the original request
+                .authorizeHttpRequests(auth -> auth.dispatcherTypeMatchers(DispatcherType.ASYNC)
+                        .permitAll()
+                        .requestMatchers("/api/health")
                         .permitAll()
                         .requestMatchers("/swagger-ui/**", "/api-docs/**", "/swagger-ui.html")
                         .permitAll()
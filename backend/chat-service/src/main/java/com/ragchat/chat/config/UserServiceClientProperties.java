@@ -0,0 +1,201 @@
+package com.ragchat.chat.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/** Connection pool, timeouts and failure isolation for calls from chat-service to user-service. */
+@Component
+@ConfigurationProperties(prefix = "user-service")
+public class UserServiceClientProperties {
+
+    /** Base URL of user-service including its context path. */
+    private String url;
+
+    private final Http http = new Http();
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker();
+    private final Bulkhead bulkhead = new Bulkhead();
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public Http getHttp() {
+        return http;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public Bulkhead getBulkhead() {
+        return bulkhead;
+    }
+
+    public static class Http {
+
+        /** Maximum pooled connections across all routes. */
+        private int maxConnections = 100;
+
+        /** Maximum pooled connections to a single user-service host. */
+        private int maxConnectionsPerRoute = 50;
+
+        /** Time allowed to establish a TCP connection. */
+        private Duration connectTimeout = Duration.ofSeconds(2);
+
+        /** Time allowed between sending the request and receiving response data. */
+        private Duration responseTimeout = Duration.ofSeconds(3);
+
+        /** Time a caller may wait for a free connection from the pool. */
+        private Duration connectionRequestTimeout = Duration.ofMillis(500);
+
+        /** How long an idle connection is kept alive when the server does not send a Keep-Alive header. */
+        private Duration keepAlive = Duration.ofSeconds(30);
+
+        /** Upper bound on the age of a pooled connection, so DNS or instance changes are picked up. */
+        private Duration timeToLive = Duration.ofMinutes(5);
+
+        public int getMaxConnections() {
+            return maxConnections;
+        }
+
+        public void setMaxConnections(int maxConnections) {
+            this.maxConnections = maxConnections;
+        }
+
+        public int getMaxConnectionsPerRoute() {
+            return maxConnectionsPerRoute;
+        }
+
+        public void setMaxConnectionsPerRoute(int maxConnectionsPerRoute) {
+            this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+        }
+
+        public Duration getConnectTimeout() {
+            return connectTimeout;
+        }
+
+        public void setConnectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+        }
+
+        public Duration getResponseTimeout() {
+            return responseTimeout;
+        }
+
+        public void setResponseTimeout(Duration responseTimeout) {
+            this.responseTimeout = responseTimeout;
+        }
+
+        public Duration getConnectionRequestTimeout() {
+            return connectionRequestTimeout;
+        }
+
+        public void setConnectionRequestTimeout(Duration connectionRequestTimeout) {
+            this.connectionRequestTimeout = connectionRequestTimeout;
+        }
+
+        public Duration getKeepAlive() {
+            return keepAlive;
+        }
+
+        public void setKeepAlive(Duration keepAlive) {
+            this.keepAlive = keepAlive;
+        }
+
+        public Duration getTimeToLive() {
+            return timeToLive;
+        }
+
+        public void setTimeToLive(Duration timeToLive) {
+            this.timeToLive = timeToLive;
+        }
+    }
+
+    public static class CircuitBreaker {
+
+        /** Failure rate (percent) at which the breaker opens. */
+        private float failureRateThreshold = 50;
+
+        /** Rate (percent) of slow calls at which the breaker opens. */
+        private float slowCallRateThreshold = 50;
+
+        /** Calls slower than this count as slow; a high slow-call rate also opens the breaker. */
+        private Duration slowCallDurationThreshold = Duration.ofSeconds(2);
+
+        /** Number of recent calls the failure rate is computed over. */
+        private int slidingWindowSize = 20;
+
+        /** Time the breaker stays open before letting trial calls through. */
+        private Duration waitDurationInOpenState = Duration.ofSeconds(10);
+
+        public float getFailureRateThreshold() {
+            return failureRateThreshold;
+        }
+
+        public void setFailureRateThreshold(float failureRateThreshold) {
+            this.failureRateThreshold = failureRateThreshold;
+        }
+
+        public float getSlowCallRateThreshold() {
+            return slowCallRateThreshold;
+        }
+
+        public void setSlowCallRateThreshold(float slowCallRateThreshold) {
+            this.slowCallRateThreshold = slowCallRateThreshold;
+        }
+
+        public Duration getSlowCallDurationThreshold() {
+            return slowCallDurationThreshold;
+        }
+
+        public void setSlowCallDurationThreshold(Duration slowCallDurationThreshold) {
+            this.slowCallDurationThreshold = slowCallDurationThreshold;
+        }
+
+        public int getSlidingWindowSize() {
+            return slidingWindowSize;
+        }
+
+        public void setSlidingWindowSize(int slidingWindowSize) {
+            this.slidingWindowSize = slidingWindowSize;
+        }
+
+        public Duration getWaitDurationInOpenState() {
+            return waitDurationInOpenState;
+        }
+
+        public void setWaitDurationInOpenState(Duration waitDurationInOpenState) {
+            this.waitDurationInOpenState = waitDurationInOpenState;
+        }
+    }
+
+    public static class Bulkhead {
+
+        /** Maximum concurrent calls to user-service from this instance. */
+        private int maxConcurrentCalls = 50;
+
+        /** Time a caller may wait for a bulkhead permit before being rejected. */
+        private Duration maxWaitDuration = Duration.ZERO;
+
+        public int getMaxConcurrentCalls() {
+            return maxConcurrentCalls;
+        }
+
+        public void setMaxConcurrentCalls(int maxConcurrentCalls) {
+            this.maxConcurrentCalls = maxConcurrentCalls;
+        }
+
+        public Duration getMaxWaitDuration() {
+            return maxWaitDuration;
+        }
+
+        public void setMaxWaitDuration(Duration maxWaitDuration) {
+            this.maxWaitDuration = maxWaitDuration;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.ragchat.chat.config;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.client.HttpClientErrorException;
+
+/**
+ * Failure isolation for user-service calls: the bulkhead caps how many request threads can be stuck on user-service at
+ * once, and the circuit breaker fails fast while user-service is erroring or slow.
+ */
+@Configuration
+public class UserServiceResilienceConfig {
+
+    private static final String NAME = "user-service";
+
+    @Bean
+    public CircuitBreaker userServiceCircuitBreaker(
+            UserServiceClientProperties properties, MeterRegistry meterRegistry) {
+        UserServiceClientProperties.CircuitBreaker settings = properties.getCircuitBreaker();
+        CircuitBreakerConfig config = CircuitBreakerConfig.custom()
+                .failureRateThreshold(settings.getFailureRateThreshold())
+                .slowCallRateThreshold(settings.getSlowCallRateThreshold())
+                .slowCallDurationThreshold(settings.getSlowCallDurationThreshold())
+                .slidingWindowSize(settings.getSlidingWindowSize())
+                .minimumNumberOfCalls(settings.getSlidingWindowSize())
+                .waitDurationInOpenState(settings.getWaitDurationInOpenState())
+                // A rejected token (401/403) is a healthy answer, not a user-service failure
+                .ignoreExceptions(HttpClientErrorException.class)
+                .build();
+
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(config);
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(registry).bindTo(meterRegistry);
+        return registry.circuitBreaker(NAME);
+    }
+
+    @Bean
+    public Bulkhead userServiceBulkhead(UserServiceClientProperties properties, MeterRegistry meterRegistry) {
+        UserServiceClientProperties.Bulkhead settings = properties.getBulkhead();
+        BulkheadConfig config = BulkheadConfig.custom()
+                .maxConcurrentCalls(settings.getMaxConcurrentCalls())
+                .maxWaitDuration(settings.getMaxWaitDuration())
+                .build();
+
+        BulkheadRegistry registry = BulkheadRegistry.of(config);
+        TaggedBulkheadMetrics.ofBulkheadRegistry(registry).bindTo(meterRegistry);
+        return registry.bulkhead(NAME);
+    }
+}
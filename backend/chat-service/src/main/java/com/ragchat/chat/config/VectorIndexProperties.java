@@ -0,0 +1,123 @@
+package com.ragchat.chat.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "chat.vector-index")
+public class VectorIndexProperties {
+
+    public enum Type {
+        HNSW,
+        IVFFLAT
+    }
+
+    /** Precision of the vectors held in the ANN index; the table always keeps the full-precision embedding. */
+    public enum Storage {
+        FULL,
+        HALFVEC,
+        BINARY
+    }
+
+    /** ANN index built for each vector source; changing it or its build parameters rebuilds the indexes online. */
+    private Type type = Type.HNSW;
+
+    /** Index precision; halfvec shrinks the index 2x and binary 32x, with candidates rescored at search time. */
+    private Storage storage = Storage.FULL;
+
+    /**
+     * Leading dimensions kept in the index (Matryoshka truncation); 0 keeps all. Only meaningful for embedding models
+     * trained to front-load information, such as embeddinggemma.
+     */
+    private int dimensions = 0;
+
+    /** Candidates fetched per requested result when the index is reduced; they are rescored at full precision. */
+    private int oversample = 4;
+
+    /** HNSW: maximum connections per layer. */
+    private int m = 16;
+
+    /** HNSW: candidate list size while building; higher improves recall at the cost of build time. */
+    private int efConstruction = 64;
+
+    /** IVFFlat: number of inverted lists; about rows / 1000 up to 1M rows is a common starting point. */
+    private int lists = 100;
+
+    /** HNSW: default candidate list size at query time; must be at least the requested top-k. */
+    private int efSearch = 40;
+
+    /** IVFFlat: default number of lists probed at query time. */
+    private int probes = 1;
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public Storage getStorage() {
+        return storage;
+    }
+
+    public void setStorage(Storage storage) {
+        this.storage = storage;
+    }
+
+    public int getDimensions() {
+        return dimensions;
+    }
+
+    public void setDimensions(int dimensions) {
+        this.dimensions = dimensions;
+    }
+
+    public int getOversample() {
+        return oversample;
+    }
+
+    public void setOversample(int oversample) {
+        this.oversample = oversample;
+    }
+
+    public int getM() {
+        return m;
+    }
+
+    public void setM(int m) {
+        this.m = m;
+    }
+
+    public int getEfConstruction() {
+        return efConstruction;
+    }
+
+    public void setEfConstruction(int efConstruction) {
+        this.efConstruction = efConstruction;
+    }
+
+    public int getLists() {
+        return lists;
+    }
+
+    public void setLists(int lists) {
+        this.lists = lists;
+    }
+
+    public int getEfSearch() {
+        return efSearch;
+    }
+
+    public void setEfSearch(int efSearch) {
+        this.efSearch = efSearch;
+    }
+
+    public int getProbes() {
+        return probes;
+    }
+
+    public void setProbes(int probes) {
+        this.probes = probes;
+    }
+}
@@ -11,15 +11,18 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import java.util.UUID;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/api/sessions/{sessionId}/messages")
@@ -34,12 +37,23 @@ public class MessageController {
     public ResponseEntity<ApiResponse<MessageResponse>> createMessage(
             @AuthenticationPrincipal ChatUserPrincipal principal,
             @PathVariable("sessionId") UUID sessionId,
+            @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey,
             @Valid @RequestBody CreateMessageRequest request) {
         UUID userId = principal.getUserId();
-        MessageResponse response = messageService.createMessage(userId, sessionId, request);
+        MessageResponse response = messageService.createMessage(userId, sessionId, request, idempotencyKey);
         return ResponseEntity.ok(ApiResponse.success(response));
     }
 
+    @PostMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Create a new message and stream the AI reply as server-sent events")
+    public SseEmitter streamMessage(
+            @AuthenticationPrincipal ChatUserPrincipal principal,
+            @PathVariable("sessionId") UUID sessionId,
+            @Valid @RequestBody CreateMessageRequest request) {
+        UUID userId = principal.getUserId();
+        return messageService.streamMessage(userId, sessionId, request);
+    }
+
     @GetMapping
     @Operation(summary = "Get messages for a chat session")
     public ResponseEntity<ApiResponse<PageResponse<MessageResponse>>> getMessages(
@@ -0,0 +1,89 @@
+package com.ragchat.chat.db.migration;
+
+import com.ragchat.chat.config.VectorIndexProperties;
+import com.ragchat.chat.model.enums.VectorSource;
+import com.ragchat.chat.repository.VectorIndexLayout;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.stereotype.Component;
+
+/**
+ * Builds one partial ANN index per vector source from {@code chat.vector-index}, over the expression given by
+ * {@link VectorIndexLayout} (full, half-precision or binary-quantized, optionally truncated). The checksum is derived
+ * from the index definitions, so Flyway re-runs this migration whenever the index type, storage or a build parameter
+ * changes. Indexes are built with {@code CREATE INDEX CONCURRENTLY} under a temporary name and renamed into place
+ * before the old index is dropped, so searches and inserts keep running, and keep an index, during a rebuild. A
+ * concurrent build waits for every open transaction, including the one holding Flyway's transactional advisory lock,
+ * so {@code spring.flyway.postgresql.transactional-lock} must be off.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class R__Vector_store_ann_indexes extends BaseJavaMigration {
+
+    private final VectorIndexProperties vectorIndexProperties;
+    private final VectorIndexLayout vectorIndexLayout;
+
+    @Override
+    public Integer getChecksum() {
+        return definitions().hashCode();
+    }
+
+    @Override
+    public boolean canExecuteInTransaction() {
+        // CREATE/DROP INDEX CONCURRENTLY cannot run inside a transaction block
+        return false;
+    }
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        try (Statement statement = context.getConnection().createStatement()) {
+            for (VectorSource source : VectorSource.values()) {
+                String name = indexName(source);
+                log.info("Building {} vector index {}", vectorIndexProperties.getType(), name);
+                // An interrupted rebuild leaves an invalid new index or a replaced old one behind
+                statement.execute("DROP INDEX CONCURRENTLY IF EXISTS " + name + "_new");
+                statement.execute("DROP INDEX CONCURRENTLY IF EXISTS " + name + "_old");
+                statement.execute("CREATE INDEX CONCURRENTLY " + name + "_new " + definition(source));
+                // Renamed before the old index is dropped, so the source has an ANN index at every moment
+                statement.execute("ALTER INDEX IF EXISTS " + name + " RENAME TO " + name + "_old");
+                statement.execute("ALTER INDEX " + name + "_new RENAME TO " + name);
+                statement.execute("DROP INDEX CONCURRENTLY IF EXISTS " + name + "_old");
+            }
+            // Fixed HNSW indexes created by V9 before index management was configurable
+            statement.execute("DROP INDEX CONCURRENTLY IF EXISTS idx_vector_store_documents_hnsw");
+            statement.execute("DROP INDEX CONCURRENTLY IF EXISTS idx_vector_store_messages_hnsw");
+        }
+    }
+
+    private List<String> definitions() {
+        List<String> definitions = new ArrayList<>();
+        for (VectorSource source : VectorSource.values()) {
+            definitions.add(indexName(source) + " " + definition(source));
+        }
+        return definitions;
+    }
+
+    private String definition(VectorSource source) {
+        String column =
+                "((" + vectorIndexLayout.indexedExpression("embedding") + ") " + vectorIndexLayout.operatorClass() + ")";
+        String method =
+                switch (vectorIndexProperties.getType()) {
+                    case HNSW ->
+                        "hnsw " + column + " WITH (m = " + vectorIndexProperties.getM() + ", ef_construction = "
+                                + vectorIndexProperties.getEfConstruction() + ")";
+                    case IVFFLAT ->
+                        "ivfflat " + column + " WITH (lists = " + vectorIndexProperties.getLists() + ")";
+                };
+        return "ON vector_store USING " + method + " WHERE source = '" + source.getValue() + "'";
+    }
+
+    private String indexName(VectorSource source) {
+        return vectorIndexLayout.indexName(source);
+    }
+}
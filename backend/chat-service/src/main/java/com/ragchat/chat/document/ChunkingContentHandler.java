@@ -0,0 +1,56 @@
+package com.ragchat.chat.document;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * SAX handler feeding the text events of a Tika parse straight into a {@link TextChunker}, instead of collecting the
+ * whole document into one string first. Ignorable whitespace is kept because Tika reports the line breaks between
+ * paragraphs that way. Tika's page elements ({@code <div class="page">}, e.g. for PDFs) are reported to the chunker as
+ * page boundaries. Wrap it in a {@code BodyContentHandler} to skip the XHTML head.
+ */
+public class ChunkingContentHandler extends DefaultHandler {
+
+    private final TextChunker chunker;
+
+    /** Depth of nested {@code div}s inside the current page element; -1 outside of pages. */
+    private int pageDepth = -1;
+
+    public ChunkingContentHandler(TextChunker chunker) {
+        this.chunker = chunker;
+    }
+
+    @Override
+    public void startElement(String uri, String localName, String qName, Attributes attributes) {
+        if (!"div".equals(localName)) {
+            return;
+        }
+        if (pageDepth >= 0) {
+            pageDepth++;
+        } else if ("page".equals(attributes.getValue("class"))) {
+            pageDepth = 0;
+            chunker.startPage();
+        }
+    }
+
+    @Override
+    public void endElement(String uri, String localName, String qName) {
+        if (!"div".equals(localName) || pageDepth < 0) {
+            return;
+        }
+        if (pageDepth == 0) {
+            chunker.endPage();
+        }
+        pageDepth--;
+    }
+
+    @Override
+    public void characters(char[] ch, int start, int length) {
+        chunker.append(ch, start, length);
+    }
+
+    @Override
+    public void ignorableWhitespace(char[] ch, int start, int length) {
+        chunker.append(ch, start, length);
+    }
+}
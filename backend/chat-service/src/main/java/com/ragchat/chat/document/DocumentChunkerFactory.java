@@ -0,0 +1,50 @@
+package com.ragchat.chat.document;
+
+import com.ragchat.chat.config.DocumentIndexingProperties;
+import com.ragchat.chat.config.DocumentIndexingProperties.ChunkingStrategy;
+import com.ragchat.chat.prompt.TokenEstimator;
+import java.util.Locale;
+import java.util.function.Consumer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the chunker for one document according to {@code chat.document-indexing.chunking}: the strategy configured
+ * for its exact MIME type, else for its top-level type ({@code text/*}), else the default strategy.
+ */
+@Component
+public class DocumentChunkerFactory {
+
+    private final DocumentIndexingProperties.Chunking properties;
+    private final TokenEstimator tokenEstimator;
+
+    public DocumentChunkerFactory(DocumentIndexingProperties properties, TokenEstimator tokenEstimator) {
+        this.properties = properties.getChunking();
+        this.tokenEstimator = tokenEstimator;
+    }
+
+    public TextChunker create(String contentType, Consumer<CharSequence> sink) {
+        return switch (strategyFor(contentType)) {
+            case FIXED -> new SlidingWindowChunker(properties.getWindowSize(), properties.getWindowOverlap(), sink);
+            case STRUCTURED -> new StructuredChunker(
+                    tokenEstimator,
+                    properties.getMaxTokens(),
+                    properties.getOverlapTokens(),
+                    properties.getBoilerplateRepeats(),
+                    properties.getBoilerplateMaxLineLength(),
+                    sink);
+        };
+    }
+
+    ChunkingStrategy strategyFor(String contentType) {
+        if (contentType == null || contentType.isBlank()) {
+            return properties.getStrategy();
+        }
+        String mimeType = contentType.split(";", 2)[0].trim().toLowerCase(Locale.ROOT);
+        ChunkingStrategy strategy = properties.getContentTypes().get(mimeType);
+        if (strategy == null) {
+            int slash = mimeType.indexOf('/');
+            strategy = slash > 0 ? properties.getContentTypes().get(mimeType.substring(0, slash) + "/*") : null;
+        }
+        return strategy != null ? strategy : properties.getStrategy();
+    }
+}
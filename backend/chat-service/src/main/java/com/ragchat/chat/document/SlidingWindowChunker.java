@@ -0,0 +1,62 @@
+package com.ragchat.chat.document;
+
+import java.util.function.Consumer;
+
+/**
+ * Incremental fixed-size chunker: text is appended as it is extracted and every full window of {@code chunkSize}
+ * characters is emitted at once, consecutive windows sharing {@code overlap} characters. Only the current window is
+ * buffered, so memory does not grow with the document. Windows that are blank after trimming are skipped.
+ */
+public class SlidingWindowChunker implements TextChunker {
+
+    private final int chunkSize;
+    private final int overlap;
+    private final Consumer<? super String> sink;
+    private final StringBuilder window;
+
+    /** Whether the window holds characters that were not part of an emitted chunk yet. */
+    private boolean pending;
+
+    public SlidingWindowChunker(int chunkSize, int overlap, Consumer<? super String> sink) {
+        if (chunkSize <= 0 || overlap < 0 || overlap >= chunkSize) {
+            throw new IllegalArgumentException("Chunk overlap must be smaller than the positive chunk size");
+        }
+        this.chunkSize = chunkSize;
+        this.overlap = overlap;
+        this.sink = sink;
+        this.window = new StringBuilder(chunkSize);
+    }
+
+    @Override
+    public void append(char[] text, int start, int length) {
+        while (length > 0) {
+            int taken = Math.min(length, chunkSize - window.length());
+            window.append(text, start, taken);
+            start += taken;
+            length -= taken;
+            pending = true;
+            if (window.length() == chunkSize) {
+                emit();
+                window.delete(0, chunkSize - overlap);
+                pending = false;
+            }
+        }
+    }
+
+    /** Emits the trailing partial window, unless it only repeats the overlap of the last emitted chunk. */
+    @Override
+    public void finish() {
+        if (pending) {
+            emit();
+        }
+        window.setLength(0);
+        pending = false;
+    }
+
+    private void emit() {
+        String chunk = window.toString().trim();
+        if (!chunk.isEmpty()) {
+            sink.accept(chunk);
+        }
+    }
+}
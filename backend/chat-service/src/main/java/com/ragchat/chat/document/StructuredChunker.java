@@ -0,0 +1,395 @@
+package com.ragchat.chat.document;
+
+import com.ragchat.chat.prompt.TokenEstimator;
+import java.nio.CharBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Structure- and token-aware chunker. Text is read line by line and blank lines end paragraphs. In paginated documents,
+ * short lines within the first or last {@value #EDGE_LINES} lines of at least {@code boilerplateRepeats} pages (page
+ * headers, footers, page numbers) are dropped from every page, so they are not embedded with every page. Body text is
+ * never treated as boilerplate, however often a line repeats; documents without pages keep all lines. To decide on the
+ * first pages as well, pages are held back until {@code boilerplateRepeats} pages are known. The remaining text is
+ * split into sentences, which are packed into chunks of at most
+ * {@code maxTokens}; a chunk never ends inside a sentence or word unless a single sentence exceeds the budget. Only
+ * the last sentence of a chunk, if shorter than {@code overlapTokens}, is repeated in the next one.
+ *
+ * <p>Sentences are tracked as offsets into one buffer holding the text of the current chunk, and chunks are handed
+ * to the sink as views over that buffer, so no text is copied between extraction and the sink.
+ */
+public class StructuredChunker implements TextChunker {
+
+    /** A line without a break that grows beyond this is passed on in pieces rather than buffered whole. */
+    private static final int MAX_BUFFERED_LINE = 4096;
+
+    /** Distinct edge lines remembered per document for boilerplate detection; the least recently seen are evicted. */
+    private static final int MAX_TRACKED_LINES = 4096;
+
+    /** Non-blank lines at the top and at the bottom of a page that may be running headers or footers. */
+    static final int EDGE_LINES = 3;
+
+    /** A page held back for boilerplate detection, with the normalized hashes of its edge lines by line index. */
+    private record BufferedPage(List<String> lines, Map<Integer, Long> edgeHashes) {}
+
+    private final TokenEstimator tokenEstimator;
+    private final int maxTokens;
+    private final int overlapTokens;
+    private final int boilerplateRepeats;
+    private final int boilerplateMaxLineLength;
+    private final Consumer<CharSequence> sink;
+
+    private final StringBuilder line = new StringBuilder();
+    private final StringBuilder text = new StringBuilder();
+    private final ArrayDeque<BufferedPage> pendingPages = new ArrayDeque<>();
+
+    /** Lines of the page being read, or {@code null} outside of pages. */
+    private List<String> pageLines;
+
+    /** Number of pages each edge line was seen on. */
+    private final Map<Long, Integer> lineCounts = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Integer> eldest) {
+            return size() > MAX_TRACKED_LINES;
+        }
+    };
+
+    /** Complete sentences of the current chunk, as offsets into {@link #text}. */
+    private int[] unitStarts = new int[16];
+
+    private int[] unitEnds = new int[16];
+    private int[] unitTokens = new int[16];
+    private int units;
+
+    /** Sentences added since the last chunk was emitted; the others were carried over as overlap. */
+    private int freshUnits;
+
+    private int chunkTokens;
+
+    /** Start of the sentence still being read. */
+    private int openUnitStart;
+
+    /** Where the search for the next sentence end resumes. */
+    private int scanFrom;
+
+    private boolean paragraphBreak;
+
+    /** Part of the current line was already passed on because the line grew too long. */
+    private boolean continuingLine;
+
+    public StructuredChunker(
+            TokenEstimator tokenEstimator,
+            int maxTokens,
+            int overlapTokens,
+            int boilerplateRepeats,
+            int boilerplateMaxLineLength,
+            Consumer<CharSequence> sink) {
+        if (maxTokens <= 0 || overlapTokens < 0 || overlapTokens >= maxTokens) {
+            throw new IllegalArgumentException("Overlap tokens must be smaller than the positive max tokens");
+        }
+        this.tokenEstimator = tokenEstimator;
+        this.maxTokens = maxTokens;
+        this.overlapTokens = overlapTokens;
+        this.boilerplateRepeats = boilerplateRepeats;
+        this.boilerplateMaxLineLength = boilerplateMaxLineLength;
+        this.sink = sink;
+    }
+
+    @Override
+    public void append(char[] chars, int start, int length) {
+        int end = start + length;
+        int from = start;
+        for (int i = start; i < end; i++) {
+            if (chars[i] == '\n') {
+                line.append(chars, from, i - from);
+                endLine();
+                from = i + 1;
+            }
+        }
+        line.append(chars, from, end - from);
+        // Lines of a page are held until the page ends; pages are bounded, so such a line is too
+        if (pageLines == null && line.length() >= MAX_BUFFERED_LINE) {
+            addContent(line, 0, line.length());
+            line.setLength(0);
+            continuingLine = true;
+        }
+    }
+
+    @Override
+    public void startPage() {
+        if (boilerplateRepeats <= 0) {
+            return;
+        }
+        if (pageLines != null) {
+            endPage();
+        } else if (!line.isEmpty()) {
+            endLine();
+        }
+        pageLines = new ArrayList<>();
+    }
+
+    @Override
+    public void endPage() {
+        if (pageLines == null) {
+            return;
+        }
+        if (!line.isEmpty()) {
+            endLine();
+        }
+        List<Integer> nonBlank = new ArrayList<>();
+        for (int i = 0; i < pageLines.size(); i++) {
+            if (!pageLines.get(i).isBlank()) {
+                nonBlank.add(i);
+            }
+        }
+        Map<Integer, Long> edgeHashes = new HashMap<>();
+        for (int n = 0; n < nonBlank.size(); n++) {
+            if (n >= EDGE_LINES && n < nonBlank.size() - EDGE_LINES) {
+                continue;
+            }
+            String edgeLine = pageLines.get(nonBlank.get(n)).strip();
+            if (edgeLine.length() <= boilerplateMaxLineLength) {
+                edgeHashes.put(nonBlank.get(n), normalizedHash(edgeLine, 0, edgeLine.length()));
+            }
+        }
+        // Counted once per page, so a line repeated within one page is not mistaken for a running header
+        for (Long hash : new HashSet<>(edgeHashes.values())) {
+            lineCounts.merge(hash, 1, Integer::sum);
+        }
+        pendingPages.add(new BufferedPage(pageLines, edgeHashes));
+        pageLines = null;
+        while (pendingPages.size() >= boilerplateRepeats) {
+            flushPage(pendingPages.poll());
+        }
+    }
+
+    @Override
+    public void finish() {
+        if (pageLines != null) {
+            endPage();
+        } else if (!line.isEmpty()) {
+            endLine();
+        }
+        while (!pendingPages.isEmpty()) {
+            flushPage(pendingPages.poll());
+        }
+        closeOpenUnit(text.length());
+        if (freshUnits > 0) {
+            emitChunk();
+        }
+        text.setLength(0);
+        lineCounts.clear();
+        units = 0;
+        freshUnits = 0;
+        chunkTokens = 0;
+        openUnitStart = 0;
+        scanFrom = 0;
+        paragraphBreak = false;
+        continuingLine = false;
+    }
+
+    private void endLine() {
+        if (pageLines != null) {
+            pageLines.add(line.toString());
+        } else {
+            addLine(line);
+        }
+        line.setLength(0);
+        continuingLine = false;
+    }
+
+    private void addLine(CharSequence source) {
+        int start = skipWhitespace(source, 0, source.length());
+        int end = trimEnd(source, start, source.length());
+        if (start == end) {
+            if (!continuingLine && !text.isEmpty()) {
+                closeOpenUnit(text.length());
+                paragraphBreak = true;
+            }
+        } else if (continuingLine) {
+            // Keep the leading whitespace separating this piece from the one already passed on
+            addContent(source, 0, end);
+        } else {
+            addContent(source, start, end);
+        }
+    }
+
+    /** Passes a held-back page on, without the edge lines that turned out to repeat on enough pages. */
+    private void flushPage(BufferedPage page) {
+        List<String> lines = page.lines();
+        for (int i = 0; i < lines.size(); i++) {
+            Long hash = page.edgeHashes().get(i);
+            if (hash == null || lineCounts.getOrDefault(hash, 0) < boilerplateRepeats) {
+                addLine(lines.get(i));
+            }
+        }
+        // Pages are separate paragraphs even when the extractor puts no blank line between them
+        if (!text.isEmpty()) {
+            closeOpenUnit(text.length());
+            paragraphBreak = true;
+        }
+    }
+
+    private void addContent(CharSequence source, int start, int end) {
+        if (!text.isEmpty() && !continuingLine) {
+            text.append(paragraphBreak ? "\n\n" : "\n");
+        }
+        paragraphBreak = false;
+        text.append(source, start, end);
+
+        int last = text.length() - 1;
+        for (int i = Math.max(scanFrom, openUnitStart); i < last; i++) {
+            char c = text.charAt(i);
+            if ((c == '.' || c == '!' || c == '?') && Character.isWhitespace(text.charAt(i + 1))) {
+                closeOpenUnit(i + 1);
+            }
+        }
+        scanFrom = Math.max(scanFrom, last);
+
+        // Text without sentence ends (tables, lists, run-on extraction) is cut at words once it exceeds the budget
+        while (estimate(openUnitStart, text.length()) > maxTokens) {
+            closeOpenUnit(lastFit(openUnitStart, text.length()));
+        }
+        compact();
+    }
+
+    private void closeOpenUnit(int end) {
+        int start = skipWhitespace(text, openUnitStart, end);
+        openUnitStart = end;
+        int trimmedEnd = trimEnd(text, start, end);
+        while (start < trimmedEnd) {
+            int cut = estimate(start, trimmedEnd) > maxTokens ? lastFit(start, trimmedEnd) : trimmedEnd;
+            int cutEnd = trimEnd(text, start, cut);
+            addUnit(start, cutEnd, estimate(start, cutEnd));
+            start = skipWhitespace(text, cut, trimmedEnd);
+        }
+    }
+
+    private void addUnit(int start, int end, int tokens) {
+        if (chunkTokens + tokens > maxTokens) {
+            if (freshUnits > 0) {
+                emitChunk();
+            }
+            if (chunkTokens + tokens > maxTokens) {
+                // The carried-over sentence and this one do not fit together
+                units = 0;
+                chunkTokens = 0;
+            }
+        }
+        if (units == unitStarts.length) {
+            unitStarts = Arrays.copyOf(unitStarts, units * 2);
+            unitEnds = Arrays.copyOf(unitEnds, units * 2);
+            unitTokens = Arrays.copyOf(unitTokens, units * 2);
+        }
+        unitStarts[units] = start;
+        unitEnds[units] = end;
+        unitTokens[units] = tokens;
+        units++;
+        freshUnits++;
+        chunkTokens += tokens;
+    }
+
+    private void emitChunk() {
+        sink.accept(CharBuffer.wrap(text, unitStarts[0], unitEnds[units - 1]));
+        int last = units - 1;
+        if (units > 1 && unitTokens[last] <= overlapTokens) {
+            unitStarts[0] = unitStarts[last];
+            unitEnds[0] = unitEnds[last];
+            unitTokens[0] = unitTokens[last];
+            units = 1;
+            chunkTokens = unitTokens[0];
+        } else {
+            units = 0;
+            chunkTokens = 0;
+        }
+        freshUnits = 0;
+    }
+
+    /** Drops text before the current chunk so the buffer stays bounded by roughly one chunk. */
+    private void compact() {
+        int keep = units > 0 ? unitStarts[0] : openUnitStart;
+        if (keep == 0) {
+            return;
+        }
+        text.delete(0, keep);
+        for (int i = 0; i < units; i++) {
+            unitStarts[i] -= keep;
+            unitEnds[i] -= keep;
+        }
+        openUnitStart -= keep;
+        scanFrom = Math.max(0, scanFrom - keep);
+    }
+
+    /** End of the longest prefix of {@code text[start, end)} within the budget, preferably at a word boundary. */
+    private int lastFit(int start, int end) {
+        int fit = -1;
+        for (int i = start + 1; i < end; i++) {
+            if (Character.isWhitespace(text.charAt(i))) {
+                if (estimate(start, i) > maxTokens) {
+                    break;
+                }
+                fit = i;
+            }
+        }
+        if (fit > start) {
+            return fit;
+        }
+        // A single word over the budget: cut it at the last character that still fits
+        int low = start + 1;
+        int high = end;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (estimate(start, mid) <= maxTokens) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    private int estimate(int start, int end) {
+        return tokenEstimator.estimate(text, start, end);
+    }
+
+    private static int skipWhitespace(CharSequence chars, int start, int end) {
+        while (start < end && Character.isWhitespace(chars.charAt(start))) {
+            start++;
+        }
+        return start;
+    }
+
+    private static int trimEnd(CharSequence chars, int start, int end) {
+        while (end > start && Character.isWhitespace(chars.charAt(end - 1))) {
+            end--;
+        }
+        return end;
+    }
+
+    /** FNV-1a over the line with case, digits (page numbers) and whitespace runs normalized. */
+    private static long normalizedHash(CharSequence chars, int start, int end) {
+        long hash = 0xcbf29ce484222325L;
+        boolean space = false;
+        for (int i = start; i < end; i++) {
+            char c = chars.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = true;
+                continue;
+            }
+            if (space) {
+                hash = (hash ^ ' ') * 0x100000001b3L;
+                space = false;
+            }
+            char normalized = Character.isDigit(c) ? '#' : Character.toLowerCase(c);
+            hash = (hash ^ normalized) * 0x100000001b3L;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,26 @@
+package com.ragchat.chat.document;
+
+/**
+ * Incremental chunker fed with extracted text as it arrives. Chunks are passed to the sink given at construction
+ * while text is appended; a chunk handed over as a {@link CharSequence} view is only valid during that call.
+ */
+public interface TextChunker {
+
+    void append(char[] text, int start, int length);
+
+    default void append(String text) {
+        append(text.toCharArray(), 0, text.length());
+    }
+
+    /**
+     * Marks the start of a page of a paginated document (Tika's {@code <div class="page">}). Page edges let a chunker
+     * tell running headers and footers from body text; documents without pages never call this.
+     */
+    default void startPage() {}
+
+    /** Marks the end of the page started by {@link #startPage()}. */
+    default void endPage() {}
+
+    /** Emits what is left once the whole document has been appended. */
+    void finish();
+}
@@ -0,0 +1,45 @@
+package com.ragchat.chat.embedding;
+
+import com.ragchat.chat.admission.AdmissionController;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+
+/**
+ * Embedding model that takes a slot from the embedding {@link AdmissionController} for every call to the delegate,
+ * ranked by {@link AdmissionController#currentPriority()}.
+ */
+public class AdmissionControlledEmbeddingModel implements EmbeddingModel {
+
+    private final EmbeddingModel delegate;
+    private final AdmissionController admissionController;
+
+    public AdmissionControlledEmbeddingModel(EmbeddingModel delegate, AdmissionController admissionController) {
+        this.delegate = delegate;
+        this.admissionController = admissionController;
+    }
+
+    @Override
+    public EmbeddingResponse call(EmbeddingRequest request) {
+        AdmissionController.Permit permit = admissionController.acquire(AdmissionController.currentPriority());
+        AdmissionController.Outcome outcome = AdmissionController.Outcome.DROPPED;
+        try {
+            EmbeddingResponse response = delegate.call(request);
+            outcome = AdmissionController.Outcome.SUCCESS;
+            return response;
+        } finally {
+            permit.release(outcome);
+        }
+    }
+
+    @Override
+    public float[] embed(Document document) {
+        return embed(document.getText());
+    }
+
+    @Override
+    public int dimensions() {
+        return delegate.dimensions();
+    }
+}
@@ -0,0 +1,189 @@
+package com.ragchat.chat.embedding;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ragchat.chat.config.EmbeddingCacheProperties;
+import com.ragchat.chat.repository.EmbeddingCacheRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+
+/**
+ * Embedding model that serves repeated texts from a two-tier cache before falling back to the delegate model. Entries
+ * are keyed by the embedding model and the SHA-256 of the normalized text (Unicode NFC, trimmed, whitespace runs
+ * collapsed), so chat messages, document chunks and search queries with the same content share one embedding.
+ *
+ * <p>Lookups go to memory first, then to the persistent tier, and only the remaining misses are sent to the delegate
+ * in a single request. Hits and misses are counted in {@code embedding.cache.lookups} by tier.
+ */
+@Slf4j
+public class CachingEmbeddingModel implements EmbeddingModel {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final EmbeddingModel delegate;
+    private final String defaultModel;
+    private final EmbeddingCacheRepository repository;
+    private final boolean persistent;
+    private final Cache<String, float[]> memory;
+    private final Counter memoryHits;
+    private final Counter databaseHits;
+    private final Counter misses;
+
+    public CachingEmbeddingModel(
+            EmbeddingModel delegate,
+            String defaultModel,
+            EmbeddingCacheRepository repository,
+            EmbeddingCacheProperties properties,
+            MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.defaultModel = defaultModel;
+        this.repository = repository;
+        this.persistent = properties.isPersistent();
+        this.memory = CaffeineCacheMetrics.monitor(
+                meterRegistry,
+                Caffeine.newBuilder()
+                        .maximumSize(properties.getMemoryMaxEntries())
+                        .recordStats()
+                        .build(),
+                "embeddings");
+        this.memoryHits = lookupCounter(meterRegistry, "memory");
+        this.databaseHits = lookupCounter(meterRegistry, "database");
+        this.misses = lookupCounter(meterRegistry, "miss");
+    }
+
+    @Override
+    public EmbeddingResponse call(EmbeddingRequest request) {
+        String model = request.getOptions() != null && request.getOptions().getModel() != null
+                ? request.getOptions().getModel()
+                : defaultModel;
+        List<String> texts = request.getInstructions();
+
+        List<String> hashes = new ArrayList<>(texts.size());
+        Map<String, float[]> found = new HashMap<>();
+        // Identical texts within one request (e.g. repeated boilerplate chunks) are resolved once
+        Map<String, String> pending = new LinkedHashMap<>();
+        for (String text : texts) {
+            String hash = contentHash(text);
+            hashes.add(hash);
+            if (found.containsKey(hash) || pending.containsKey(hash)) {
+                continue;
+            }
+            float[] cached = memory.getIfPresent(cacheKey(model, hash));
+            if (cached != null) {
+                found.put(hash, cached);
+                memoryHits.increment();
+            } else {
+                pending.put(hash, text);
+            }
+        }
+
+        if (!pending.isEmpty() && persistent) {
+            Map<String, float[]> stored = findPersisted(model, pending.keySet());
+            stored.forEach((hash, embedding) -> remember(model, hash, embedding, found));
+            databaseHits.increment(stored.size());
+            pending.keySet().removeAll(stored.keySet());
+        }
+
+        if (!pending.isEmpty()) {
+            misses.increment(pending.size());
+            Map<String, float[]> computed = embedMisses(pending, request);
+            computed.forEach((hash, embedding) -> remember(model, hash, embedding, found));
+            if (persistent) {
+                savePersisted(model, computed);
+            }
+        }
+
+        List<Embedding> embeddings = new ArrayList<>(texts.size());
+        for (int i = 0; i < hashes.size(); i++) {
+            embeddings.add(new Embedding(found.get(hashes.get(i)), i));
+        }
+        return new EmbeddingResponse(embeddings);
+    }
+
+    /** Sends all misses to the delegate in one request, keeping the caller's options (model, dimensions). */
+    private Map<String, float[]> embedMisses(Map<String, String> pending, EmbeddingRequest request) {
+        List<String> missHashes = new ArrayList<>(pending.keySet());
+        EmbeddingResponse response =
+                delegate.call(new EmbeddingRequest(new ArrayList<>(pending.values()), request.getOptions()));
+
+        Map<String, float[]> computed = new HashMap<>();
+        for (Embedding embedding : response.getResults()) {
+            computed.put(missHashes.get(embedding.getIndex()), embedding.getOutput());
+        }
+        return computed;
+    }
+
+    private void remember(String model, String hash, float[] embedding, Map<String, float[]> found) {
+        found.put(hash, embedding);
+        memory.put(cacheKey(model, hash), embedding);
+    }
+
+    private Map<String, float[]> findPersisted(String model, Set<String> hashes) {
+        try {
+            return repository.findAll(model, hashes);
+        } catch (Exception e) {
+            log.warn("Embedding cache lookup failed, embedding without it: {}", e.getMessage());
+            return Map.of();
+        }
+    }
+
+    private void savePersisted(String model, Map<String, float[]> embeddings) {
+        try {
+            repository.saveAll(model, embeddings);
+        } catch (Exception e) {
+            log.warn("Failed to store {} embeddings in the cache: {}", embeddings.size(), e.getMessage());
+        }
+    }
+
+    @Override
+    public float[] embed(Document document) {
+        return embed(document.getText());
+    }
+
+    @Override
+    public int dimensions() {
+        return delegate.dimensions();
+    }
+
+    static String contentHash(String text) {
+        String normalized = WHITESPACE
+                .matcher(Normalizer.normalize(text, Normalizer.Form.NFC).trim())
+                .replaceAll(" ");
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(normalized.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static String cacheKey(String model, String hash) {
+        return model + ':' + hash;
+    }
+
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("embedding.cache.lookups")
+                .description("Embedding cache lookups by the tier that answered them")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,28 @@
+package com.ragchat.chat.exception;
+
+import java.time.Duration;
+
+/** Work was shed because a downstream dependency is at capacity; the client should retry after {@link #retryAfter}. */
+public class ServiceOverloadedException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public ServiceOverloadedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    /** The overload rejection among {@code e} and its causes, or {@code null} if the failure has another reason. */
+    public static ServiceOverloadedException findIn(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ServiceOverloadedException overloaded) {
+                return overloaded;
+            }
+        }
+        return null;
+    }
+}
@@ -6,6 +6,7 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.Map;
 import java.util.UUID;
 import org.slf4j.MDC;
 import org.springframework.security.core.Authentication;
@@ -21,6 +22,8 @@ public class MdcLoggingFilter extends OncePerRequestFilter {
             throws ServletException, IOException {
 
         String correlationId = getOrCreateCorrelationId(request);
+        // Restore the thread's previous MDC afterwards; with a virtual thread per request it is normally empty
+        Map<String, String> previous = MDC.getCopyOfContextMap();
 
         try {
             MDC.put("correlationId", correlationId);
@@ -34,8 +37,11 @@ public class MdcLoggingFilter extends OncePerRequestFilter {
 
             filterChain.doFilter(request, response);
         } finally {
-            MDC.remove("correlationId");
-            MDC.remove("userId");
+            if (previous == null) {
+                MDC.clear();
+            } else {
+                MDC.setContextMap(previous);
+            }
         }
     }
 
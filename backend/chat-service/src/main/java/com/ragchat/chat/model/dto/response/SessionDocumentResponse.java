@@ -10,6 +10,8 @@ public record SessionDocumentResponse(
         String contentType,
         long sizeBytes,
         SessionDocumentStatus status,
+        int indexedChunks,
+        Integer totalChunks,
         String errorMessage,
         LocalDateTime createdAt,
         LocalDateTime updatedAt) {}
@@ -54,4 +54,8 @@ public class ChatMessage extends AuditableEntity {
 
     @Column(name = "message_order", nullable = false)
     private Integer messageOrder;
+
+    /** Client-supplied {@code Idempotency-Key} of the request that posted this message, unique per session. */
+    @Column(name = "idempotency_key")
+    private String idempotencyKey;
 }
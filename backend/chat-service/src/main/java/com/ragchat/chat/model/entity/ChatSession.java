@@ -35,4 +35,8 @@ public class ChatSession extends AuditableEntity {
     @Column(name = "is_favorite", nullable = false)
     @Builder.Default
     private boolean favorite = false;
+
+    /** Bumped by {@code ChatSessionRepository.incrementDocumentSetVersion}; never written through the entity. */
+    @Column(name = "document_set_version", nullable = false, insertable = false, updatable = false)
+    private long documentSetVersion;
 }
@@ -56,4 +56,12 @@ public class SessionDocument extends AuditableEntity {
 
     @Column(name = "error_message", columnDefinition = "TEXT")
     private String errorMessage;
+
+    /** Chunks {@code 0..indexedChunks-1} are stored; a retried job resumes after them. */
+    @Column(name = "indexed_chunks", nullable = false)
+    private int indexedChunks;
+
+    /** Known once the whole document has been parsed. */
+    @Column(name = "total_chunks")
+    private Integer totalChunks;
 }
@@ -0,0 +1,17 @@
+package com.ragchat.chat.model.enums;
+
+/** Origin of a row in the vector store, stored as the {@code source} metadata value and column. */
+public enum VectorSource {
+    SESSION_DOCUMENTS("session-documents"),
+    CHAT_MESSAGE("chat-message");
+
+    private final String value;
+
+    VectorSource(String value) {
+        this.value = value;
+    }
+
+    public String getValue() {
+        return value;
+    }
+}
@@ -0,0 +1,17 @@
+package com.ragchat.chat.prompt;
+
+/** A prompt built by {@link PromptAssembler} together with the estimated tokens each section contributed. */
+public record AssembledPrompt(String text, TokenCounts tokens) {
+
+    /**
+     * Estimated tokens per section; {@code droppedContextChunks} and {@code droppedHistoryMessages} count inputs left
+     * out to stay within budget.
+     */
+    public record TokenCounts(
+            int system, int context, int history, int question, int droppedContextChunks, int droppedHistoryMessages) {
+
+        public int total() {
+            return system + context + history + question;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.ragchat.chat.prompt;
+
+/** Estimates tokens from the character count; about four characters per token holds for English with most models. */
+public class CharacterRatioTokenEstimator implements TokenEstimator {
+
+    private final double charactersPerToken;
+
+    public CharacterRatioTokenEstimator(double charactersPerToken) {
+        if (charactersPerToken <= 0) {
+            throw new IllegalArgumentException("charactersPerToken must be positive");
+        }
+        this.charactersPerToken = charactersPerToken;
+    }
+
+    @Override
+    public int estimate(String text) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        return (int) Math.ceil(text.length() / charactersPerToken);
+    }
+
+    @Override
+    public int estimate(CharSequence text, int start, int end) {
+        return end > start ? (int) Math.ceil((end - start) / charactersPerToken) : 0;
+    }
+}
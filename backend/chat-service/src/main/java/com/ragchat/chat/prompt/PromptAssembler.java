@@ -0,0 +1,223 @@
+package com.ragchat.chat.prompt;
+
+import com.ragchat.chat.config.PromptProperties;
+import com.ragchat.chat.model.dto.response.MessageResponse;
+import com.ragchat.chat.model.enums.MessageSender;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.document.Document;
+import org.springframework.stereotype.Component;
+
+/**
+ * Builds the LLM prompt within a token budget per section. The static instructions come first and never vary, so the
+ * model server can reuse its cached prefix across calls. Retrieved chunks and history messages are only included
+ * whole; text that must be shortened is cut at a sentence or word boundary.
+ */
+@Slf4j
+@Component
+public class PromptAssembler {
+
+    static final String SYSTEM_PREFIX = "You are a helpful assistant. Use any provided context and recent conversation"
+            + " to answer the user's question. If the context is not relevant, you may also use your general knowledge,"
+            + " but prefer the provided context when possible.\n";
+
+    static final String SYSTEM_SUFFIX = "\n\nWhen you answer, respond only with the answer text itself. Do not include"
+            + " any speaker labels like 'Assistant:' or 'User:' in your response.\n\n";
+
+    private static final String CONTEXT_HEADER = "Context:\n";
+    private static final String HISTORY_HEADER =
+            "Recent conversation (lines starting with 'User:' are the human, 'Assistant:' are you):\n";
+    private static final String QUESTION_HEADER = "User question:\n";
+
+    private final TokenEstimator tokenEstimator;
+    private final PromptProperties promptProperties;
+    private final int systemTokens;
+
+    private final DistributionSummary systemSummary;
+    private final DistributionSummary contextSummary;
+    private final DistributionSummary historySummary;
+    private final DistributionSummary questionSummary;
+    private final DistributionSummary totalSummary;
+
+    public PromptAssembler(
+            TokenEstimator tokenEstimator, PromptProperties promptProperties, MeterRegistry meterRegistry) {
+        this.tokenEstimator = tokenEstimator;
+        this.promptProperties = promptProperties;
+        this.systemTokens = tokenEstimator.estimate(SYSTEM_PREFIX) + tokenEstimator.estimate(SYSTEM_SUFFIX);
+        if (systemTokens > promptProperties.getSystemTokens()) {
+            log.warn(
+                    "Static prompt instructions use {} tokens, above the system budget of {}",
+                    systemTokens,
+                    promptProperties.getSystemTokens());
+        }
+
+        this.systemSummary = tokenSummary(meterRegistry, "system");
+        this.contextSummary = tokenSummary(meterRegistry, "context");
+        this.historySummary = tokenSummary(meterRegistry, "history");
+        this.questionSummary = tokenSummary(meterRegistry, "question");
+        this.totalSummary = tokenSummary(meterRegistry, "total");
+    }
+
+    /**
+     * @param contextDocuments retrieved chunks, most relevant first
+     * @param recentMessages prior messages in ascending order
+     */
+    public AssembledPrompt assemble(
+            String question, List<Document> contextDocuments, List<MessageResponse> recentMessages) {
+        StringBuilder prompt = new StringBuilder(SYSTEM_PREFIX);
+
+        int contextTokens = 0;
+        int droppedChunks = 0;
+        if (contextDocuments != null && !contextDocuments.isEmpty()) {
+            int budget = promptProperties.getContextTokens() - tokenEstimator.estimate(CONTEXT_HEADER);
+            StringBuilder context = new StringBuilder();
+            int index = 1;
+            for (Document doc : contextDocuments) {
+                String snippet = doc.getText();
+                if (snippet == null || snippet.isBlank()) {
+                    continue;
+                }
+                String entry = contextEntry(index, snippet.strip());
+                int cost = tokenEstimator.estimate(entry);
+                if (contextTokens + cost > budget && index == 1) {
+                    // Not even the most relevant chunk fits: keep its leading sentences rather than nothing
+                    String head = truncate(snippet.strip(), budget - tokenEstimator.estimate(contextEntry(index, "")));
+                    entry = contextEntry(index, head);
+                    cost = head.isEmpty() ? Integer.MAX_VALUE : tokenEstimator.estimate(entry);
+                }
+                if (cost > budget - contextTokens) {
+                    droppedChunks++;
+                    continue;
+                }
+                context.append(entry);
+                contextTokens += cost;
+                index++;
+            }
+            if (!context.isEmpty()) {
+                prompt.append(CONTEXT_HEADER).append(context);
+                contextTokens += tokenEstimator.estimate(CONTEXT_HEADER);
+            }
+        }
+
+        int historyTokens = 0;
+        int droppedMessages = 0;
+        if (recentMessages != null && !recentMessages.isEmpty()) {
+            int budget = promptProperties.getHistoryTokens() - tokenEstimator.estimate(HISTORY_HEADER);
+            List<String> lines = new ArrayList<>();
+            // Newest first, so the oldest messages are the ones left out
+            for (int i = recentMessages.size() - 1; i >= 0; i--) {
+                MessageResponse m = recentMessages.get(i);
+                String role = m.sender() == MessageSender.USER ? "User" : "Assistant";
+                String line = role + ": " + m.content() + "\n";
+                int cost = tokenEstimator.estimate(line);
+                if (cost > budget - historyTokens) {
+                    droppedMessages = i + 1;
+                    break;
+                }
+                lines.add(line);
+                historyTokens += cost;
+            }
+            if (!lines.isEmpty()) {
+                prompt.append(HISTORY_HEADER);
+                for (int i = lines.size() - 1; i >= 0; i--) {
+                    prompt.append(lines.get(i));
+                }
+                prompt.append("\n");
+                historyTokens += tokenEstimator.estimate(HISTORY_HEADER);
+            }
+        }
+
+        String questionText = truncate(
+                question.strip(), promptProperties.getQuestionTokens() - tokenEstimator.estimate(QUESTION_HEADER));
+        prompt.append(QUESTION_HEADER).append(questionText).append(SYSTEM_SUFFIX);
+        int questionTokens = tokenEstimator.estimate(QUESTION_HEADER) + tokenEstimator.estimate(questionText);
+
+        AssembledPrompt.TokenCounts counts = new AssembledPrompt.TokenCounts(
+                systemTokens, contextTokens, historyTokens, questionTokens, droppedChunks, droppedMessages);
+        record(counts);
+        return new AssembledPrompt(prompt.toString(), counts);
+    }
+
+    /**
+     * Returns the longest prefix of {@code text} within {@code maxTokens}, ending at a sentence boundary when one lies
+     * in the second half of that prefix and at a word boundary otherwise.
+     */
+    String truncate(String text, int maxTokens) {
+        if (maxTokens <= 0) {
+            return "";
+        }
+        if (tokenEstimator.estimate(text) <= maxTokens) {
+            return text;
+        }
+
+        int low = 0;
+        int high = text.length();
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (tokenEstimator.estimate(text.substring(0, mid)) <= maxTokens) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        String head = text.substring(0, low);
+
+        int sentenceEnd = lastSentenceEnd(head);
+        if (sentenceEnd >= head.length() / 2) {
+            return head.substring(0, sentenceEnd).strip();
+        }
+        for (int i = head.length() - 1; i > 0; i--) {
+            if (Character.isWhitespace(head.charAt(i))) {
+                return head.substring(0, i).strip();
+            }
+        }
+        return head;
+    }
+
+    private static int lastSentenceEnd(String text) {
+        for (int i = text.length() - 1; i >= 0; i--) {
+            char c = text.charAt(i);
+            if (c == '\n') {
+                return i;
+            }
+            if ((c == '.' || c == '!' || c == '?')
+                    && (i + 1 == text.length() || Character.isWhitespace(text.charAt(i + 1)))) {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    private static String contextEntry(int index, String snippet) {
+        return "[" + index + "] " + snippet + "\n\n";
+    }
+
+    private void record(AssembledPrompt.TokenCounts counts) {
+        systemSummary.record(counts.system());
+        contextSummary.record(counts.context());
+        historySummary.record(counts.history());
+        questionSummary.record(counts.question());
+        totalSummary.record(counts.total());
+        log.debug(
+                "Assembled prompt: {} tokens (system {}, context {}, history {}, question {}), dropped {} chunks and {}"
+                        + " history messages",
+                counts.total(),
+                counts.system(),
+                counts.context(),
+                counts.history(),
+                counts.question(),
+                counts.droppedContextChunks(),
+                counts.droppedHistoryMessages());
+    }
+
+    private static DistributionSummary tokenSummary(MeterRegistry meterRegistry, String section) {
+        return DistributionSummary.builder("chat.prompt.tokens")
+                .description("Estimated prompt tokens per section")
+                .baseUnit("tokens")
+                .tag("section", section)
+                .register(meterRegistry);
+    }
+}
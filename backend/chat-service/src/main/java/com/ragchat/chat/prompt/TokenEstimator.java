@@ -0,0 +1,15 @@
+package com.ragchat.chat.prompt;
+
+/**
+ * Estimates how many model tokens a piece of text occupies. Declare a bean of this type to replace the default
+ * character-ratio estimate, e.g. with a tokenizer matching the configured Ollama model.
+ */
+public interface TokenEstimator {
+
+    int estimate(String text);
+
+    /** Estimates the tokens of {@code text[start, end)}; implementations that can should avoid copying the range. */
+    default int estimate(CharSequence text, int start, int end) {
+        return estimate(text.subSequence(start, end).toString());
+    }
+}
@@ -1,13 +1,17 @@
 package com.ragchat.chat.repository;
 
+import com.ragchat.chat.model.dto.response.MessageResponse;
 import com.ragchat.chat.model.entity.ChatMessage;
 import com.ragchat.chat.model.entity.ChatSession;
+import com.ragchat.chat.model.enums.MessageSender;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface ChatMessageRepository extends JpaRepository<ChatMessage, UUID> {
 
@@ -17,5 +21,32 @@ public interface ChatMessageRepository extends JpaRepository<ChatMessage, UUID>
 
     long countBySession(ChatSession session);
 
-    Optional<ChatMessage> findTopBySessionOrderByMessageOrderDesc(ChatSession session);
+    /** Highest message order written to a session; one backward step on the (session, order) unique index. */
+    @Query("SELECT MAX(m.messageOrder) FROM ChatMessage m WHERE m.session = :session")
+    Integer findMaxMessageOrder(@Param("session") ChatSession session);
+
+    /** Newest messages of a session, newest first, without loading the JSONB context. */
+    @Query("SELECT new com.ragchat.chat.model.dto.response.MessageResponse("
+            + "m.id, m.sender, m.content, m.messageOrder, m.createdAt)"
+            + " FROM ChatMessage m WHERE m.session = :session ORDER BY m.messageOrder DESC")
+    List<MessageResponse> findNewest(@Param("session") ChatSession session, Pageable pageable);
+
+    /** Newest messages of one sender before {@code beforeOrder}, newest first, without loading the JSONB context. */
+    @Query("SELECT new com.ragchat.chat.model.dto.response.MessageResponse("
+            + "m.id, m.sender, m.content, m.messageOrder, m.createdAt)"
+            + " FROM ChatMessage m WHERE m.session = :session AND m.sender = :sender AND m.messageOrder < :beforeOrder"
+            + " ORDER BY m.messageOrder DESC")
+    List<MessageResponse> findNewestBySenderBefore(
+            @Param("session") ChatSession session,
+            @Param("sender") MessageSender sender,
+            @Param("beforeOrder") int beforeOrder,
+            Pageable pageable);
+
+    /** Message stored under an idempotency key in a session owned by {@code userId}. */
+    @Query("SELECT m FROM ChatMessage m WHERE m.session.id = :sessionId AND m.session.userId = :userId"
+            + " AND m.idempotencyKey = :idempotencyKey")
+    Optional<ChatMessage> findByIdempotencyKey(
+            @Param("sessionId") UUID sessionId,
+            @Param("userId") UUID userId,
+            @Param("idempotencyKey") String idempotencyKey);
 }
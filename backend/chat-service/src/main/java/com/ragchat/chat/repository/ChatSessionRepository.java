@@ -5,10 +5,19 @@ import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
-public interface ChatSessionRepository extends JpaRepository<ChatSession, UUID> {
+public interface ChatSessionRepository extends JpaRepository<ChatSession, UUID>, ChatSessionRepositoryCustom {
 
     List<ChatSession> findByUserIdOrderByCreatedAtDesc(UUID userId);
 
     Optional<ChatSession> findByIdAndUserId(UUID id, UUID userId);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE ChatSession s SET s.documentSetVersion = s.documentSetVersion + 1 WHERE s.id = :sessionId")
+    int incrementDocumentSetVersion(@Param("sessionId") UUID sessionId);
 }
@@ -0,0 +1,14 @@
+package com.ragchat.chat.repository;
+
+import java.util.OptionalInt;
+import java.util.UUID;
+
+public interface ChatSessionRepositoryCustom {
+
+    /**
+     * Atomically reserves {@code count} consecutive message orders in a session owned by {@code userId}.
+     *
+     * @return the first reserved order, or empty if the session does not exist or belongs to another user
+     */
+    OptionalInt reserveMessageOrders(UUID sessionId, UUID userId, int count);
+}
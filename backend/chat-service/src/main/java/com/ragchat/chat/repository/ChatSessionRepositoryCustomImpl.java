@@ -0,0 +1,33 @@
+package com.ragchat.chat.repository;
+
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.UUID;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+class ChatSessionRepositoryCustomImpl implements ChatSessionRepositoryCustom {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String table;
+
+    ChatSessionRepositoryCustomImpl(
+            JdbcTemplate jdbcTemplate, @Value("${spring.jpa.properties.hibernate.default_schema}") String schema) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.table = schema + ".chat_sessions";
+    }
+
+    @Override
+    public OptionalInt reserveMessageOrders(UUID sessionId, UUID userId, int count) {
+        // The row lock taken by the UPDATE serializes concurrent posts to the session until the caller commits
+        List<Integer> reserved = jdbcTemplate.queryForList(
+                "UPDATE " + table + " SET next_message_order = next_message_order + ?"
+                        + " WHERE id = ? AND user_id = ? RETURNING next_message_order - ?",
+                Integer.class,
+                count,
+                sessionId,
+                userId,
+                count);
+        return reserved.isEmpty() ? OptionalInt.empty() : OptionalInt.of(reserved.getFirst());
+    }
+}
@@ -0,0 +1,101 @@
+package com.ragchat.chat.repository;
+
+import com.ragchat.chat.model.entity.DocumentIndexJob;
+import java.util.Optional;
+import java.util.UUID;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface DocumentIndexJobRepository extends JpaRepository<DocumentIndexJob, UUID> {
+
+    /**
+     * Leases the most urgent due job to {@code lockToken}. Small documents go first, so a large upload does not hold up
+     * the many small ones behind it; a job's effective size shrinks the longer it waits, so large documents are not
+     * starved. {@code SKIP LOCKED} lets the workers of several instances claim concurrently, and an expired lease
+     * (a worker or instance that died mid-job) makes the job claimable again.
+     */
+    @Transactional
+    @Modifying
+    @Query(
+            value =
+                    """
+                    UPDATE {h-schema}document_index_jobs
+                    SET lock_token = :lockToken, locked_until = now() + make_interval(secs => :leaseSeconds)
+                    WHERE id = (
+                        SELECT id FROM {h-schema}document_index_jobs
+                        WHERE next_attempt_at <= now() AND (locked_until IS NULL OR locked_until < now())
+                        ORDER BY size_bytes / (1 + EXTRACT(EPOCH FROM now() - created_at) / :agingSeconds)
+                        LIMIT 1
+                        FOR UPDATE SKIP LOCKED)
+                    """,
+            nativeQuery = true)
+    int claimNext(
+            @Param("lockToken") UUID lockToken,
+            @Param("leaseSeconds") long leaseSeconds,
+            @Param("agingSeconds") long agingSeconds);
+
+    /** Keeps a job that is still making progress from being taken over by another worker. */
+    @Transactional
+    @Modifying
+    @Query(
+            value =
+                    """
+                    UPDATE {h-schema}document_index_jobs
+                    SET locked_until = now() + make_interval(secs => :leaseSeconds)
+                    WHERE lock_token = :lockToken
+                    """,
+            nativeQuery = true)
+    int extendLease(@Param("lockToken") UUID lockToken, @Param("leaseSeconds") long leaseSeconds);
+
+    @Query("SELECT j FROM DocumentIndexJob j JOIN FETCH j.document d JOIN FETCH d.session"
+            + " WHERE j.lockToken = :lockToken")
+    Optional<DocumentIndexJob> findClaimed(@Param("lockToken") UUID lockToken);
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM {h-schema}document_index_jobs WHERE lock_token = :lockToken", nativeQuery = true)
+    int deleteClaimed(@Param("lockToken") UUID lockToken);
+
+    /**
+     * Releases a lease without counting an attempt, e.g. when the embedding model shed the work, and makes the job due
+     * again after {@code delaySeconds}.
+     */
+    @Transactional
+    @Modifying
+    @Query(
+            value =
+                    """
+                    UPDATE {h-schema}document_index_jobs
+                    SET next_attempt_at = now() + make_interval(secs => :delaySeconds),
+                        lock_token = NULL,
+                        locked_until = NULL
+                    WHERE lock_token = :lockToken
+                    """,
+            nativeQuery = true)
+    int releaseDeferred(@Param("lockToken") UUID lockToken, @Param("delaySeconds") long delaySeconds);
+
+    /** Releases a failed lease and schedules the next attempt with exponential backoff. */
+    @Transactional
+    @Modifying
+    @Query(
+            value =
+                    """
+                    UPDATE {h-schema}document_index_jobs
+                    SET attempts = attempts + 1,
+                        next_attempt_at = now() + make_interval(
+                            secs => LEAST(:maxDelaySeconds, :baseDelaySeconds * power(2, attempts))),
+                        last_error = :error,
+                        lock_token = NULL,
+                        locked_until = NULL
+                    WHERE lock_token = :lockToken
+                    """,
+            nativeQuery = true)
+    int releaseFailed(
+            @Param("lockToken") UUID lockToken,
+            @Param("error") String error,
+            @Param("baseDelaySeconds") long baseDelaySeconds,
+            @Param("maxDelaySeconds") long maxDelaySeconds);
+}
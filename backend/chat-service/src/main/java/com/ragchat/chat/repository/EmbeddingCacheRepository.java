@@ -0,0 +1,74 @@
+package com.ragchat.chat.repository;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/** Persistent tier of the embedding cache, keyed by (model, content hash). */
+@Repository
+public class EmbeddingCacheRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String table;
+
+    public EmbeddingCacheRepository(
+            JdbcTemplate jdbcTemplate, @Value("${spring.jpa.properties.hibernate.default_schema}") String schema) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.table = schema + ".embedding_cache";
+    }
+
+    public Map<String, float[]> findAll(String model, Collection<String> contentHashes) {
+        Map<String, float[]> result = new HashMap<>();
+        if (contentHashes.isEmpty()) {
+            return result;
+        }
+        jdbcTemplate.query(
+                "SELECT content_hash, embedding FROM " + table + " WHERE model = ? AND content_hash = ANY (?)",
+                ps -> {
+                    ps.setString(1, model);
+                    ps.setArray(2, ps.getConnection().createArrayOf("bpchar", contentHashes.toArray()));
+                },
+                rs -> {
+                    result.put(rs.getString("content_hash"), decode(rs.getBytes("embedding")));
+                });
+        return result;
+    }
+
+    public void saveAll(String model, Map<String, float[]> embeddingsByHash) {
+        if (embeddingsByHash.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = embeddingsByHash.entrySet().stream()
+                .map(e -> new Object[] {model, e.getKey(), encode(e.getValue())})
+                .toList();
+        // Concurrent misses for the same text may race; the first writer wins, both embeddings are equivalent
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO " + table + " (model, content_hash, embedding) VALUES (?, ?, ?)"
+                        + " ON CONFLICT (model, content_hash) DO NOTHING",
+                rows);
+    }
+
+    public int deleteOlderThan(Duration age) {
+        return jdbcTemplate.update(
+                "DELETE FROM " + table + " WHERE created_at < now() - make_interval(secs => ?)", age.toSeconds());
+    }
+
+    private static byte[] encode(float[] embedding) {
+        ByteBuffer buffer = ByteBuffer.allocate(embedding.length * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.asFloatBuffer().put(embedding);
+        return buffer.array();
+    }
+
+    private static float[] decode(byte[] bytes) {
+        float[] embedding = new float[bytes.length / Float.BYTES];
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().get(embedding);
+        return embedding;
+    }
+}
@@ -0,0 +1,100 @@
+package com.ragchat.chat.repository;
+
+import com.ragchat.chat.model.entity.MessageIndexOutboxEntry;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface MessageIndexOutboxRepository extends JpaRepository<MessageIndexOutboxEntry, UUID> {
+
+    /**
+     * Leases up to {@code limit} due entries to {@code lockToken}. {@code SKIP LOCKED} lets several chat-service
+     * instances drain the outbox concurrently; an expired lease makes the entry claimable again. Parked entries are
+     * skipped.
+     */
+    @Transactional
+    @Modifying
+    @Query(
+            value =
+                    """
+                    UPDATE {h-schema}message_index_outbox
+                    SET lock_token = :lockToken, locked_until = now() + make_interval(secs => :leaseSeconds)
+                    WHERE id IN (
+                        SELECT id FROM {h-schema}message_index_outbox
+                        WHERE NOT failed AND next_attempt_at <= now()
+                            AND (locked_until IS NULL OR locked_until < now())
+                        ORDER BY next_attempt_at
+                        LIMIT :limit
+                        FOR UPDATE SKIP LOCKED)
+                    """,
+            nativeQuery = true)
+    int claimDue(
+            @Param("lockToken") UUID lockToken, @Param("leaseSeconds") long leaseSeconds, @Param("limit") int limit);
+
+    @Query("SELECT e FROM MessageIndexOutboxEntry e JOIN FETCH e.message m JOIN FETCH m.session"
+            + " WHERE e.lockToken = :lockToken")
+    List<MessageIndexOutboxEntry> findClaimed(@Param("lockToken") UUID lockToken);
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM {h-schema}message_index_outbox WHERE lock_token = :lockToken", nativeQuery = true)
+    int deleteClaimed(@Param("lockToken") UUID lockToken);
+
+    /** Deletes one entry of a lease once its message has been indexed on its own. */
+    @Transactional
+    @Modifying
+    @Query(
+            value = "DELETE FROM {h-schema}message_index_outbox WHERE id = :id AND lock_token = :lockToken",
+            nativeQuery = true)
+    int deleteClaimedEntry(@Param("id") UUID id, @Param("lockToken") UUID lockToken);
+
+    /**
+     * Releases the entries still held by a lease without counting an attempt, e.g. when the embedding model shed the
+     * work, and makes them due again after {@code delaySeconds}.
+     */
+    @Transactional
+    @Modifying
+    @Query(
+            value =
+                    """
+                    UPDATE {h-schema}message_index_outbox
+                    SET next_attempt_at = now() + make_interval(secs => :delaySeconds),
+                        lock_token = NULL,
+                        locked_until = NULL
+                    WHERE lock_token = :lockToken
+                    """,
+            nativeQuery = true)
+    int releaseDeferred(@Param("lockToken") UUID lockToken, @Param("delaySeconds") long delaySeconds);
+
+    /**
+     * Releases one failed entry of a lease and schedules its next attempt with exponential backoff, or parks it as
+     * failed once it has been attempted {@code maxAttempts} times.
+     */
+    @Transactional
+    @Modifying
+    @Query(
+            value =
+                    """
+                    UPDATE {h-schema}message_index_outbox
+                    SET attempts = attempts + 1,
+                        failed = attempts + 1 >= :maxAttempts,
+                        next_attempt_at = now() + make_interval(
+                            secs => LEAST(:maxDelaySeconds, :baseDelaySeconds * power(2, attempts))),
+                        last_error = :error,
+                        lock_token = NULL,
+                        locked_until = NULL
+                    WHERE id = :id AND lock_token = :lockToken
+                    """,
+            nativeQuery = true)
+    int releaseFailed(
+            @Param("id") UUID id,
+            @Param("lockToken") UUID lockToken,
+            @Param("error") String error,
+            @Param("maxAttempts") int maxAttempts,
+            @Param("baseDelaySeconds") long baseDelaySeconds,
+            @Param("maxDelaySeconds") long maxDelaySeconds);
+}
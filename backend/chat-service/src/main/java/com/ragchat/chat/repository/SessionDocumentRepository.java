@@ -6,10 +6,19 @@ import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface SessionDocumentRepository extends JpaRepository<SessionDocument, UUID> {
 
     List<SessionDocument> findBySessionOrderByCreatedAtDesc(ChatSession session);
 
     Optional<SessionDocument> findByIdAndSession(UUID id, ChatSession session);
+
+    /** Moves the checkpoint forward only; batches of concurrent embedders may report out of order. */
+    @Modifying
+    @Query("UPDATE SessionDocument d SET d.indexedChunks = :indexedChunks"
+            + " WHERE d.id = :id AND d.indexedChunks < :indexedChunks")
+    int advanceIndexedChunks(@Param("id") UUID id, @Param("indexedChunks") int indexedChunks);
 }
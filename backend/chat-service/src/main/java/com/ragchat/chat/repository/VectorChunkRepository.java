@@ -0,0 +1,258 @@
+package com.ragchat.chat.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ragchat.chat.config.VectorIndexProperties;
+import com.ragchat.chat.model.enums.VectorSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.springframework.ai.document.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Similarity search over the pgvector table that pre-filters on the typed {@code session_id}, {@code document_id} and
+ * {@code source} columns. Rows are still written through the Spring AI vector store; the columns are generated from
+ * their metadata. With a reduced-precision index ({@link VectorIndexLayout#isReduced()}) the search oversamples
+ * candidates through the index and rescores them against the full-precision embeddings. ANN scans are iterative
+ * (pgvector 0.8): when the session filter discards the candidates of one pass the index keeps scanning, so a small
+ * session among many still gets its full top-k instead of whatever survived the first {@code ef_search} candidates.
+ */
+@Repository
+public class VectorChunkRepository {
+
+    /** Typed pre-filter; {@code null} components are not constrained. */
+    public record Filter(UUID sessionId, UUID documentId, VectorSource source) {
+
+        public static Filter session(UUID sessionId, VectorSource source) {
+            return new Filter(sessionId, null, source);
+        }
+    }
+
+    /**
+     * Query-time ANN parameters, applied with {@code SET LOCAL} for one search. {@code exact} bypasses the ANN indexes
+     * and scans, which gives the ground truth that recall is measured against.
+     */
+    public record AnnTuning(int efSearch, int probes, boolean exact) {
+
+        public static AnnTuning exactSearch() {
+            return new AnnTuning(0, 0, true);
+        }
+    }
+
+    /** A search result with its full-precision embedding, for re-ranking in the application. */
+    public record Candidate(Document document, float[] embedding) {}
+
+    private static final TypeReference<Map<String, Object>> METADATA_TYPE = new TypeReference<>() {};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final VectorIndexProperties vectorIndexProperties;
+    private final VectorIndexLayout vectorIndexLayout;
+    private final String schema;
+    private final String table;
+
+    public VectorChunkRepository(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper,
+            VectorIndexProperties vectorIndexProperties,
+            VectorIndexLayout vectorIndexLayout,
+            @Value("${spring.jpa.properties.hibernate.default_schema}") String schema) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.vectorIndexProperties = vectorIndexProperties;
+        this.vectorIndexLayout = vectorIndexLayout;
+        this.schema = schema;
+        this.table = schema + ".vector_store";
+    }
+
+    /** Default query-time parameters from {@code chat.vector-index}. */
+    public AnnTuning defaultTuning() {
+        return new AnnTuning(vectorIndexProperties.getEfSearch(), vectorIndexProperties.getProbes(), false);
+    }
+
+    /** Nearest rows by cosine distance, closest first; {@link Document#getScore()} is the cosine similarity. */
+    public List<Document> search(float[] query, Filter filter, int topK) {
+        return search(query, filter, topK, defaultTuning());
+    }
+
+    public List<Document> search(float[] query, Filter filter, int topK, AnnTuning tuning) {
+        return search(query, filter, topK, tuning, false, null).stream()
+                .map(Candidate::document)
+                .toList();
+    }
+
+    /**
+     * Like {@link #search(float[], Filter, int)}, but also returns each row's embedding. The query is cancelled by the
+     * database after {@code timeout}: interrupting the calling thread does not stop a pgjdbc read, so only a
+     * server-side timeout frees the connection of a search its caller gave up on.
+     */
+    public List<Candidate> searchCandidates(float[] query, Filter filter, int limit, Duration timeout) {
+        return search(query, filter, limit, defaultTuning(), true, timeout);
+    }
+
+    private List<Candidate> search(
+            float[] query, Filter filter, int topK, AnnTuning tuning, boolean withEmbedding, Duration timeout) {
+        String columns =
+                withEmbedding ? "id, content, metadata, embedding::text AS embedding_text" : "id, content, metadata";
+        String vector = toVectorLiteral(query);
+        List<Object> filterArgs = new ArrayList<>();
+        String where = where(filter, filterArgs);
+
+        List<Object> args = new ArrayList<>();
+        String sql;
+        int candidates;
+        if (tuning.exact() || !vectorIndexLayout.isReduced()) {
+            candidates = topK;
+            // Iterative scans return rows in relaxed order, so the hits are sorted again
+            sql = "SELECT * FROM (SELECT " + columns + ", embedding <=> ?::vector AS distance FROM " + table + where
+                    + " ORDER BY distance LIMIT ?) hits ORDER BY distance";
+            args.add(vector);
+            args.addAll(filterArgs);
+        } else {
+            // Oversample through the reduced-precision index, then rescore the candidates at full precision
+            candidates = topK * Math.max(1, vectorIndexProperties.getOversample());
+            sql = "SELECT " + columns + ", embedding <=> ?::vector AS distance FROM"
+                    + " (SELECT id, content, metadata, embedding FROM " + table + where
+                    + " ORDER BY " + vectorIndexLayout.indexedExpression("embedding")
+                    + " " + vectorIndexLayout.distanceOperator()
+                    + " " + vectorIndexLayout.indexedExpression("?::vector")
+                    + " LIMIT ?) candidates ORDER BY distance LIMIT ?";
+            args.add(vector);
+            args.addAll(filterArgs);
+            args.add(vector);
+            args.add(candidates);
+        }
+        args.add(topK);
+
+        // SET LOCAL only lasts for the surrounding transaction, so the settings never leak to other pooled uses
+        return transactionTemplate.execute(status -> {
+            if (timeout != null) {
+                // 0 would disable the timeout
+                setLocal("statement_timeout", String.valueOf(Math.max(1, timeout.toMillis())));
+            }
+            if (tuning.exact()) {
+                setLocal("enable_indexscan", "off");
+            } else {
+                setLocal("hnsw.ef_search", String.valueOf(Math.max(tuning.efSearch(), candidates)));
+                setLocal("ivfflat.probes", String.valueOf(tuning.probes()));
+                setLocal("hnsw.iterative_scan", "relaxed_order");
+                setLocal("ivfflat.iterative_scan", "relaxed_order");
+            }
+            return jdbcTemplate.query(
+                    sql,
+                    (rs, rowNum) -> new Candidate(
+                            Document.builder()
+                                    .id(rs.getString("id"))
+                                    .text(rs.getString("content"))
+                                    .metadata(parseMetadata(rs.getString("metadata")))
+                                    .score(1 - rs.getDouble("distance"))
+                                    .build(),
+                            withEmbedding ? fromVectorLiteral(rs.getString("embedding_text")) : null),
+                    args.toArray());
+        });
+    }
+
+    /** Up to {@code limit} randomly chosen stored embeddings of one source, used as sample queries. */
+    public List<float[]> sampleEmbeddings(VectorSource source, int limit) {
+        return jdbcTemplate.query(
+                "SELECT embedding::text AS embedding FROM " + table + " WHERE source = ? ORDER BY random() LIMIT ?",
+                (rs, rowNum) -> fromVectorLiteral(rs.getString("embedding")),
+                source.getValue(),
+                limit);
+    }
+
+    /** On-disk size of the ANN index of one source, in bytes. */
+    public long indexSizeBytes(VectorSource source) {
+        Long size = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(pg_relation_size(to_regclass(?)), 0)",
+                Long.class,
+                schema + "." + vectorIndexLayout.indexName(source));
+        return size != null ? size : 0;
+    }
+
+    public int deleteByDocumentId(UUID documentId) {
+        return jdbcTemplate.update("DELETE FROM " + table + " WHERE document_id = ?", documentId);
+    }
+
+    /** Deletes the chunks of a document from {@code fromChunkIndex} on, keeping those before a checkpoint. */
+    public int deleteByDocumentIdFromChunk(UUID documentId, int fromChunkIndex) {
+        return jdbcTemplate.update(
+                "DELETE FROM " + table + " WHERE document_id = ? AND (metadata ->> 'chunkIndex')::int >= ?",
+                documentId,
+                fromChunkIndex);
+    }
+
+    public int deleteBySessionId(UUID sessionId) {
+        return jdbcTemplate.update("DELETE FROM " + table + " WHERE session_id = ?", sessionId);
+    }
+
+    private void setLocal(String setting, String value) {
+        jdbcTemplate.queryForObject("SELECT set_config(?, ?, true)", String.class, setting, value);
+    }
+
+    private static String where(Filter filter, List<Object> args) {
+        StringBuilder where = new StringBuilder();
+        appendPredicate(where, args, "session_id", filter.sessionId());
+        appendPredicate(where, args, "document_id", filter.documentId());
+        if (filter.source() != null) {
+            // Inlined rather than bound: a generic plan could not match the partial ANN index predicate
+            where.append(where.isEmpty() ? " WHERE " : " AND ")
+                    .append("source = '")
+                    .append(filter.source().getValue())
+                    .append("'");
+        }
+        return where.toString();
+    }
+
+    private static void appendPredicate(StringBuilder where, List<Object> args, String column, Object value) {
+        if (value == null) {
+            return;
+        }
+        where.append(where.isEmpty() ? " WHERE " : " AND ").append(column).append(" = ?");
+        args.add(value);
+    }
+
+    private Map<String, Object> parseMetadata(String json) {
+        if (json == null) {
+            return Collections.emptyMap();
+        }
+        try {
+            return objectMapper.readValue(json, METADATA_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Invalid vector store metadata", e);
+        }
+    }
+
+    static String toVectorLiteral(float[] vector) {
+        StringBuilder literal = new StringBuilder(vector.length * 10).append('[');
+        for (int i = 0; i < vector.length; i++) {
+            if (i > 0) {
+                literal.append(',');
+            }
+            literal.append(vector[i]);
+        }
+        return literal.append(']').toString();
+    }
+
+    static float[] fromVectorLiteral(String literal) {
+        String[] parts = literal.substring(1, literal.length() - 1).split(",");
+        float[] vector = new float[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            vector[i] = Float.parseFloat(parts[i]);
+        }
+        return vector;
+    }
+}
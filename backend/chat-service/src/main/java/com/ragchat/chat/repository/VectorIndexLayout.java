@@ -0,0 +1,83 @@
+package com.ragchat.chat.repository;
+
+import com.ragchat.chat.config.VectorIndexProperties;
+import com.ragchat.chat.model.enums.VectorSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * SQL shape of the ANN indexes derived from {@code chat.vector-index}: which expression over {@code embedding} is
+ * indexed, with which operator class, and how queries must be written to use it. The index migration and the search
+ * query both go through this class, so the indexed expression and the query expression always match.
+ */
+@Component
+public class VectorIndexLayout {
+
+    private final VectorIndexProperties vectorIndexProperties;
+    private final int fullDimensions;
+    private final int indexedDimensions;
+
+    public VectorIndexLayout(
+            VectorIndexProperties vectorIndexProperties,
+            @Value("${spring.ai.vectorstore.pgvector.dimensions}") int fullDimensions) {
+        int dimensions = vectorIndexProperties.getDimensions();
+        if (dimensions < 0 || dimensions > fullDimensions) {
+            throw new IllegalStateException(
+                    "chat.vector-index.dimensions must be between 0 and " + fullDimensions + ", was " + dimensions);
+        }
+        this.vectorIndexProperties = vectorIndexProperties;
+        this.fullDimensions = fullDimensions;
+        this.indexedDimensions = dimensions == 0 ? fullDimensions : dimensions;
+    }
+
+    public String indexName(VectorSource source) {
+        return switch (source) {
+            case SESSION_DOCUMENTS -> "idx_vector_store_documents_ann";
+            case CHAT_MESSAGE -> "idx_vector_store_messages_ann";
+        };
+    }
+
+    public int getIndexedDimensions() {
+        return indexedDimensions;
+    }
+
+    /** Whether the index holds approximations of the embedding, so candidates must be rescored at full precision. */
+    public boolean isReduced() {
+        return vectorIndexProperties.getStorage() != VectorIndexProperties.Storage.FULL
+                || indexedDimensions < fullDimensions;
+    }
+
+    /** The indexed form of a full-precision vector expression, e.g. {@code embedding} or a query parameter. */
+    public String indexedExpression(String vector) {
+        String truncated = indexedDimensions < fullDimensions
+                ? "public.subvector(" + vector + ", 1, " + indexedDimensions + ")"
+                : vector;
+        return switch (vectorIndexProperties.getStorage()) {
+            case FULL -> truncated;
+            case HALFVEC -> truncated + "::public.halfvec(" + indexedDimensions + ")";
+            case BINARY -> "public.binary_quantize(" + truncated + ")::bit(" + indexedDimensions + ")";
+        };
+    }
+
+    public String operatorClass() {
+        return switch (vectorIndexProperties.getStorage()) {
+            case FULL -> "public.vector_cosine_ops";
+            case HALFVEC -> "public.halfvec_cosine_ops";
+            case BINARY -> "public.bit_hamming_ops";
+        };
+    }
+
+    /** Distance operator matching {@link #operatorClass()}. */
+    public String distanceOperator() {
+        return vectorIndexProperties.getStorage() == VectorIndexProperties.Storage.BINARY ? "<~>" : "<=>";
+    }
+
+    /** Bytes one indexed vector occupies, without index overhead. */
+    public int bytesPerIndexedVector() {
+        return switch (vectorIndexProperties.getStorage()) {
+            case FULL -> 4 * indexedDimensions;
+            case HALFVEC -> 2 * indexedDimensions;
+            case BINARY -> (indexedDimensions + 7) / 8;
+        };
+    }
+}
@@ -2,12 +2,15 @@ package com.ragchat.chat.security;
 
 import com.ragchat.chat.client.UserServiceClient;
 import com.ragchat.chat.client.UserValidationResponse;
+import com.ragchat.chat.config.JwtProperties;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -15,11 +18,14 @@ import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+@Slf4j
 @Component
 @RequiredArgsConstructor
 public class JwtValidationFilter extends OncePerRequestFilter {
 
     private final UserServiceClient userServiceClient;
+    private final ObjectProvider<LocalJwtVerifier> localJwtVerifier;
+    private final JwtProperties jwtProperties;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
@@ -34,10 +40,7 @@ public class JwtValidationFilter extends OncePerRequestFilter {
         String token = authHeader.substring(7).trim();
 
         try {
-            UserValidationResponse validationResponse = userServiceClient.validateToken(token);
-
-            ChatUserPrincipal principal = new ChatUserPrincipal(
-                    validationResponse.id(), validationResponse.username(), validationResponse.email());
+            ChatUserPrincipal principal = authenticate(token);
 
             UsernamePasswordAuthenticationToken authentication =
                     new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
@@ -51,4 +54,22 @@ public class JwtValidationFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    private ChatUserPrincipal authenticate(String token) {
+        LocalJwtVerifier verifier = localJwtVerifier.getIfAvailable();
+        if (verifier != null) {
+            try {
+                return verifier.verify(token);
+            } catch (RuntimeException ex) {
+                if (!jwtProperties.isRemoteFallback()) {
+                    throw ex;
+                }
+                log.debug("Local JWT verification failed, falling back to user-service: {}", ex.getMessage());
+            }
+        }
+
+        UserValidationResponse validationResponse = userServiceClient.validateToken(token);
+        return new ChatUserPrincipal(
+                validationResponse.id(), validationResponse.username(), validationResponse.email());
+    }
 }
@@ -0,0 +1,84 @@
+package com.ragchat.chat.security;
+
+import com.ragchat.chat.config.JwtProperties;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import java.security.Key;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import javax.crypto.SecretKey;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Verifies user-service access tokens in-process. Keys are resolved by the {@code kid} header against the current key
+ * and any retired keys still configured, so user-service can rotate its signing key without breaking live tokens.
+ *
+ * <p>Only the token is checked: unlike remote validation, the account's status is not looked up, so a disabled or
+ * deleted account keeps access until its token expires ({@code JWT_EXPIRATION_MS}). Use remote mode, or a short
+ * access-token lifetime, where that window matters.
+ */
+@Component
+@ConditionalOnProperty(prefix = "jwt", name = "validation-mode", havingValue = "local", matchIfMissing = true)
+public class LocalJwtVerifier {
+
+    private final JwtParser parser;
+
+    public LocalJwtVerifier(JwtProperties jwtProperties) {
+        SecretKey currentKey = toKey(jwtProperties.getSecret());
+        Map<String, SecretKey> keys = new HashMap<>();
+        jwtProperties.getPreviousKeys().forEach((kid, secret) -> keys.put(kid, toKey(secret)));
+        keys.put(jwtProperties.getKeyId(), currentKey);
+
+        this.parser = Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(JwsHeader header) {
+                        String keyId = header.getKeyId();
+                        if (keyId == null) {
+                            // Tokens issued before key ids were introduced
+                            return currentKey;
+                        }
+                        SecretKey key = keys.get(keyId);
+                        if (key == null) {
+                            throw new UnsupportedJwtException("Unknown signing key id: " + keyId);
+                        }
+                        return key;
+                    }
+                })
+                .clockSkewSeconds(jwtProperties.getClockSkewSeconds())
+                .build();
+    }
+
+    public ChatUserPrincipal verify(String token) {
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+
+        if ("refresh".equals(claims.get("type", String.class))) {
+            throw new UnsupportedJwtException("Refresh tokens cannot be used for authentication");
+        }
+
+        String userId = claims.get("userId", String.class);
+        if (userId == null) {
+            throw new MalformedJwtException("Token is missing the userId claim");
+        }
+        String email = claims.get("email", String.class);
+        if (email == null) {
+            // Only access tokens carry the email; refresh tokens issued before the type claim have neither
+            throw new UnsupportedJwtException("Token is missing the email claim");
+        }
+
+        return new ChatUserPrincipal(UUID.fromString(userId), claims.getSubject(), email);
+    }
+
+    private static SecretKey toKey(String secret) {
+        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+    }
+}
@@ -0,0 +1,202 @@
+package com.ragchat.chat.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ragchat.chat.config.AnswerCacheProperties;
+import com.ragchat.chat.model.entity.ChatSession;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+import org.springframework.stereotype.Component;
+
+/**
+ * Two-tier cache of AI answers, scoped to a session and the version of its document set.
+ *
+ * <ul>
+ *   <li>Exact tier: keyed by the SHA-256 of the final prompt, so a hit means the model would have seen identical
+ *       input.
+ *   <li>Semantic tier: per session, the embeddings of recently answered questions; a new question within the
+ *       configured cosine distance of one of them reuses its answer.
+ * </ul>
+ *
+ * Uploading or deleting a document bumps {@code chat_sessions.document_set_version}, which makes every entry of the
+ * previous version unreachable.
+ */
+@Component
+public class AnswerCache {
+
+    /** Which tier answered a lookup; reported in {@code ChatMessageContext.extra.answerCache.tier}. */
+    public enum Tier {
+        EXACT,
+        SEMANTIC
+    }
+
+    public record Hit(Tier tier, String answer, UUID sourceMessageId, double distance) {}
+
+    private record CachedAnswer(String answer, UUID sourceMessageId) {}
+
+    private record SemanticEntry(float[] question, String answer, UUID sourceMessageId) {}
+
+    /** Recent questions of one session; replaced wholesale when the session's document set version changes. */
+    private static final class SessionAnswers {
+
+        private final long documentSetVersion;
+        private final Deque<SemanticEntry> entries = new ArrayDeque<>();
+
+        private SessionAnswers(long documentSetVersion) {
+            this.documentSetVersion = documentSetVersion;
+        }
+    }
+
+    private final AnswerCacheProperties properties;
+    private final Cache<String, CachedAnswer> exact;
+    private final Cache<UUID, SessionAnswers> semantic;
+
+    public AnswerCache(AnswerCacheProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.exact = CaffeineCacheMetrics.monitor(
+                meterRegistry,
+                Caffeine.newBuilder()
+                        .maximumSize(properties.getMaxEntries())
+                        .expireAfterWrite(properties.getTtl())
+                        .recordStats()
+                        .build(),
+                "answers.exact");
+        long maxSessions = properties.getMaxEntries() / Math.max(1, properties.getSemanticEntriesPerSession());
+        this.semantic = CaffeineCacheMetrics.monitor(
+                meterRegistry,
+                Caffeine.newBuilder()
+                        .maximumSize(Math.max(1, maxSessions))
+                        .expireAfterAccess(properties.getTtl())
+                        .recordStats()
+                        .build(),
+                "answers.semantic");
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public boolean isSemanticEnabled() {
+        return properties.isEnabled() && properties.getSemanticMaxDistance() > 0;
+    }
+
+    public Optional<Hit> findExact(ChatSession session, String prompt) {
+        if (!properties.isEnabled()) {
+            return Optional.empty();
+        }
+        CachedAnswer cached = exact.getIfPresent(exactKey(session, prompt));
+        return Optional.ofNullable(cached).map(c -> new Hit(Tier.EXACT, c.answer(), c.sourceMessageId(), 0));
+    }
+
+    /** Nearest remembered question of the session within {@code maxDistance} (cosine distance). */
+    public Optional<Hit> findSimilar(ChatSession session, float[] question, double maxDistance) {
+        if (!isSemanticEnabled() || question == null) {
+            return Optional.empty();
+        }
+        SessionAnswers answers = semantic.getIfPresent(session.getId());
+        if (answers == null) {
+            return Optional.empty();
+        }
+
+        SemanticEntry best = null;
+        double bestDistance = Double.MAX_VALUE;
+        synchronized (answers) {
+            if (answers.documentSetVersion != session.getDocumentSetVersion()) {
+                return Optional.empty();
+            }
+            for (SemanticEntry entry : answers.entries) {
+                double distance = cosineDistance(question, entry.question());
+                if (distance < bestDistance) {
+                    bestDistance = distance;
+                    best = entry;
+                }
+            }
+        }
+        if (best == null || bestDistance > maxDistance) {
+            return Optional.empty();
+        }
+        return Optional.of(new Hit(Tier.SEMANTIC, best.answer(), best.sourceMessageId(), bestDistance));
+    }
+
+    public void put(ChatSession session, String prompt, float[] question, String answer, UUID sourceMessageId) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        exact.put(exactKey(session, prompt), new CachedAnswer(answer, sourceMessageId));
+
+        if (!isSemanticEnabled() || question == null) {
+            return;
+        }
+        long version = session.getDocumentSetVersion();
+        SessionAnswers answers = semantic.asMap().compute(session.getId(), (id, current) -> {
+            if (current == null || current.documentSetVersion < version) {
+                return new SessionAnswers(version);
+            }
+            return current;
+        });
+        synchronized (answers) {
+            if (answers.documentSetVersion != version) {
+                return;
+            }
+            answers.entries.addFirst(new SemanticEntry(question, answer, sourceMessageId));
+            while (answers.entries.size() > properties.getSemanticEntriesPerSession()) {
+                answers.entries.removeLast();
+            }
+        }
+    }
+
+    /** Drops the semantic entries of a session whose documents changed; exact entries expire with the old version. */
+    public void invalidateSession(UUID sessionId) {
+        semantic.invalidate(sessionId);
+    }
+
+    /** Whether the LLM counts as overloaded, so cached answers within the degraded distance are served first. */
+    public boolean isOverloaded(int generationsInFlight) {
+        int threshold = properties.getOverloadInFlightThreshold();
+        return threshold > 0 && generationsInFlight >= threshold;
+    }
+
+    public double getSemanticMaxDistance() {
+        return properties.getSemanticMaxDistance();
+    }
+
+    public double getDegradedMaxDistance() {
+        return properties.getDegradedMaxDistance();
+    }
+
+    private static String exactKey(ChatSession session, String prompt) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            String hash = HexFormat.of().formatHex(digest.digest(prompt.getBytes(StandardCharsets.UTF_8)));
+            return session.getId() + ":" + session.getDocumentSetVersion() + ":" + hash;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    static double cosineDistance(float[] a, float[] b) {
+        if (a.length != b.length) {
+            return Double.MAX_VALUE;
+        }
+        double dot = 0;
+        double normA = 0;
+        double normB = 0;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+            normA += a[i] * a[i];
+            normB += b[i] * b[i];
+        }
+        if (normA == 0 || normB == 0) {
+            return Double.MAX_VALUE;
+        }
+        return 1 - dot / (Math.sqrt(normA) * Math.sqrt(normB));
+    }
+}
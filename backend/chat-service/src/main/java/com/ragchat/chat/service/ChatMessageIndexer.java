@@ -0,0 +1,207 @@
+package com.ragchat.chat.service;
+
+import com.ragchat.chat.admission.AdmissionController;
+import com.ragchat.chat.config.ChatIndexingProperties;
+import com.ragchat.chat.exception.ServiceOverloadedException;
+import com.ragchat.chat.model.entity.ChatMessage;
+import com.ragchat.chat.model.entity.MessageIndexOutboxEntry;
+import com.ragchat.chat.model.enums.VectorSource;
+import com.ragchat.chat.repository.MessageIndexOutboxRepository;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeoutException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.retry.TransientAiException;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+/**
+ * Write-behind indexer for chat messages. Drains {@code message_index_outbox} in batches: each batch is one embedding
+ * request and one bulk insert into the vector store, made without holding a database transaction. When a batch fails
+ * for a reason specific to its messages, they are retried one by one, so a single message the embedding model rejects
+ * does not hold back the rest; while the model or database is unavailable, the whole batch waits with backoff.
+ * Failed messages are released back to the outbox with exponential backoff and parked as failed after
+ * {@code chat.indexing.max-attempts}; work shed by the admission limiter is released without counting an attempt.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ChatMessageIndexer {
+
+    private final MessageIndexOutboxRepository outboxRepository;
+    private final VectorStore vectorStore;
+    private final ChatIndexingProperties chatIndexingProperties;
+
+    /** Consecutive batches deferred because the embedding model or database was unavailable; drives their backoff. */
+    private int unavailableStreak;
+
+    @Scheduled(fixedDelayString = "${chat.indexing.poll-interval-ms:1000}")
+    public void drainOutbox() {
+        int batchSize = chatIndexingProperties.getBatchSize();
+        // Keep going while batches come back full, so a backlog drains without waiting for the next poll
+        while (indexNextBatch() >= batchSize) {
+            log.debug("Outbox batch was full, claiming the next one");
+        }
+    }
+
+    int indexNextBatch() {
+        UUID lockToken = UUID.randomUUID();
+        int claimed = outboxRepository.claimDue(
+                lockToken, chatIndexingProperties.getLeaseSeconds(), chatIndexingProperties.getBatchSize());
+        if (claimed == 0) {
+            return 0;
+        }
+
+        List<MessageIndexOutboxEntry> entries = outboxRepository.findClaimed(lockToken);
+        try {
+            List<Document> documents = new ArrayList<>(entries.size());
+            for (MessageIndexOutboxEntry entry : entries) {
+                documents.add(toDocument(entry.getMessage()));
+            }
+            add(documents);
+            outboxRepository.deleteClaimed(lockToken);
+            unavailableStreak = 0;
+            log.debug("Indexed {} chat messages", documents.size());
+        } catch (Exception e) {
+            if (deferIfOverloaded(lockToken, e) || deferIfUnavailable(lockToken, e)) {
+                return 0;
+            }
+            if (entries.size() == 1) {
+                releaseFailed(lockToken, entries.getFirst(), e);
+            } else {
+                log.warn(
+                        "Failed to index a batch of {} chat messages, retrying them one by one: {}",
+                        entries.size(),
+                        e.getMessage());
+                for (MessageIndexOutboxEntry entry : entries) {
+                    if (!indexEntry(lockToken, entry)) {
+                        return 0;
+                    }
+                }
+            }
+        }
+        return claimed;
+    }
+
+    /** Returns {@code false} when the rest of the lease was deferred and no further entry should be tried. */
+    private boolean indexEntry(UUID lockToken, MessageIndexOutboxEntry entry) {
+        try {
+            add(List.of(toDocument(entry.getMessage())));
+            outboxRepository.deleteClaimedEntry(entry.getId(), lockToken);
+            unavailableStreak = 0;
+        } catch (Exception e) {
+            if (deferIfOverloaded(lockToken, e) || deferIfUnavailable(lockToken, e)) {
+                return false;
+            }
+            releaseFailed(lockToken, entry, e);
+        }
+        return true;
+    }
+
+    /**
+     * Shedding is the admission limiter favouring chat, not a failed attempt: the entries left in the lease are
+     * released unchanged after the limiter's retry estimate, and draining stops until the next poll.
+     */
+    private boolean deferIfOverloaded(UUID lockToken, Exception e) {
+        ServiceOverloadedException overloaded = ServiceOverloadedException.findIn(e);
+        if (overloaded == null) {
+            return false;
+        }
+        long delaySeconds = overloaded.getRetryAfter().toSeconds();
+        log.debug("Chat message indexing deferred for {} s: {}", delaySeconds, e.getMessage());
+        outboxRepository.releaseDeferred(lockToken, delaySeconds);
+        return true;
+    }
+
+    /**
+     * An unreachable, timing-out or failing (5xx) embedding model or database says nothing about the messages: the
+     * lease is released with backoff and attempts unchanged, so an outage neither multiplies calls into one per
+     * message nor parks the queue.
+     */
+    private boolean deferIfUnavailable(UUID lockToken, Exception e) {
+        if (!isTransient(e)) {
+            return false;
+        }
+        long delaySeconds = Math.min(
+                chatIndexingProperties.getRetryMaxDelaySeconds(),
+                chatIndexingProperties.getRetryBaseDelaySeconds() << Math.min(unavailableStreak, 20));
+        unavailableStreak++;
+        log.warn("Chat message indexing unavailable, retrying in {} s: {}", delaySeconds, e.getMessage());
+        outboxRepository.releaseDeferred(lockToken, delaySeconds);
+        return true;
+    }
+
+    private static boolean isTransient(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TransientAiException
+                    || cause instanceof ResourceAccessException
+                    || cause instanceof HttpServerErrorException
+                    || cause instanceof TransientDataAccessException
+                    || cause instanceof DataAccessResourceFailureException
+                    || cause instanceof IOException
+                    || cause instanceof TimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void add(List<Document> documents) {
+        AdmissionController.runWithPriority(AdmissionController.Priority.BATCH, () -> vectorStore.add(documents));
+    }
+
+    private void releaseFailed(UUID lockToken, MessageIndexOutboxEntry entry, Exception e) {
+        int maxAttempts = chatIndexingProperties.getMaxAttempts();
+        UUID messageId = entry.getMessage().getId();
+        if (entry.getAttempts() + 1 >= maxAttempts) {
+            log.error(
+                    "Failed to index chat message {}, parking it after {} attempts: {}",
+                    messageId,
+                    entry.getAttempts() + 1,
+                    e.getMessage());
+        } else {
+            log.warn("Failed to index chat message {}, will retry: {}", messageId, e.getMessage());
+        }
+        outboxRepository.releaseFailed(
+                entry.getId(),
+                lockToken,
+                abbreviate(e.getMessage()),
+                maxAttempts,
+                chatIndexingProperties.getRetryBaseDelaySeconds(),
+                chatIndexingProperties.getRetryMaxDelaySeconds());
+    }
+
+    private Document toDocument(ChatMessage message) {
+        Map<String, Object> metadata = new HashMap<>();
+        metadata.put("sessionId", message.getSession().getId().toString());
+        metadata.put("messageId", message.getId().toString());
+        metadata.put("sender", message.getSender().name());
+        metadata.put("messageOrder", message.getMessageOrder());
+        metadata.put("source", VectorSource.CHAT_MESSAGE.getValue());
+
+        // The message id doubles as the vector row id, so a retried batch overwrites instead of duplicating
+        return Document.builder()
+                .id(message.getId().toString())
+                .text(message.getContent())
+                .metadata(metadata)
+                .build();
+    }
+
+    private static String abbreviate(String message) {
+        if (message != null && message.length() > 500) {
+            return message.substring(0, 500);
+        }
+        return message;
+    }
+}
@@ -0,0 +1,26 @@
+package com.ragchat.chat.service;
+
+import com.ragchat.chat.config.ChatIndexingProperties;
+import com.ragchat.chat.model.entity.ChatMessage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/** Decides which chat messages are worth an embedding: placeholders and very short messages are never retrieved. */
+@Component
+@RequiredArgsConstructor
+public class ChatMessageIndexingPolicy {
+
+    private final ChatIndexingProperties chatIndexingProperties;
+
+    public boolean shouldIndex(ChatMessage message) {
+        String content = message.getContent();
+        if (content == null) {
+            return false;
+        }
+        String trimmed = content.trim();
+        if (trimmed.equals(MessageService.FAILED_RESPONSE_CONTENT)) {
+            return false;
+        }
+        return trimmed.length() >= chatIndexingProperties.getMinContentLength();
+    }
+}
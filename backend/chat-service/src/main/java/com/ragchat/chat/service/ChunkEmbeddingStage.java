@@ -0,0 +1,233 @@
+package com.ragchat.chat.service;
+
+import com.ragchat.chat.admission.AdmissionController;
+import com.ragchat.chat.config.DocumentIndexingProperties;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntConsumer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.stereotype.Component;
+
+/**
+ * Embedding stage of document indexing. Chunks are grouped into batches that are embedded and inserted (one batched
+ * insert per batch) on a pool shared by all documents, while the worker keeps parsing. Each document may have at most
+ * {@code chat.document-indexing.max-in-flight-batches} batches pending; beyond that the producer blocks, so a fast
+ * parser cannot run ahead of Ollama. The batch size follows the observed batch latency: it grows while batches finish
+ * under {@code batch-latency-target} and is halved when they do not.
+ */
+@Slf4j
+@Component
+public class ChunkEmbeddingStage {
+
+    private final VectorStore vectorStore;
+    private final DocumentIndexingProperties properties;
+    private final ExecutorService embedders;
+    private final AtomicInteger batchSize;
+    private final Timer batchTimer;
+    private final DistributionSummary throughput;
+
+    public ChunkEmbeddingStage(
+            VectorStore vectorStore, DocumentIndexingProperties properties, MeterRegistry meterRegistry) {
+        this.vectorStore = vectorStore;
+        this.properties = properties;
+        this.embedders = Executors.newFixedThreadPool(
+                properties.getEmbeddingParallelism(), Thread.ofPlatform().name("document-embedder-", 0).factory());
+        this.batchSize = new AtomicInteger(
+                Math.clamp(properties.getBatchSize(), properties.getMinBatchSize(), properties.getMaxBatchSize()));
+
+        Gauge.builder("document.indexing.batch-size", batchSize, AtomicInteger::get)
+                .description("Current auto-tuned number of chunks per embedding batch")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("document.indexing.batch")
+                .description("Time to embed and insert one batch of document chunks")
+                .register(meterRegistry);
+        this.throughput = DistributionSummary.builder("document.indexing.throughput")
+                .description("Chunks embedded and stored per second, per indexed document")
+                .baseUnit("chunks/s")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts a batch session for one document whose first {@code firstChunkIndex} chunks are stored already. Each
+     * time the stored chunks form a longer unbroken prefix, {@code onCheckpoint} is called with its length. Close the
+     * session on every path so no batch outlives the attempt.
+     */
+    public Session open(UUID documentId, int firstChunkIndex, IntConsumer onCheckpoint) {
+        return new Session(documentId, firstChunkIndex, onCheckpoint);
+    }
+
+    int currentBatchSize() {
+        return batchSize.get();
+    }
+
+    private void tune(int size, long elapsedNanos) {
+        long target = properties.getBatchLatencyTarget().toNanos();
+        int min = properties.getMinBatchSize();
+        int max = properties.getMaxBatchSize();
+        batchSize.updateAndGet(current -> {
+            if (elapsedNanos > target) {
+                return Math.max(min, current / 2);
+            }
+            // Only full batches say something about whether a larger one would still be fast enough
+            return size >= current ? Math.min(max, current + Math.max(1, current / 4)) : current;
+        });
+    }
+
+    /**
+     * Batches of one document, added in chunk order. Not thread-safe: chunks are added by the single worker parsing
+     * the document.
+     */
+    public final class Session implements AutoCloseable {
+
+        private final UUID documentId;
+        private final IntConsumer onCheckpoint;
+        private final int maxInFlight = properties.getMaxInFlightBatches();
+        private final Semaphore inFlight = new Semaphore(maxInFlight);
+        private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        private final AtomicInteger written = new AtomicInteger();
+        private final long startedAt = System.nanoTime();
+        /** Stored batches beyond the checkpoint, by first chunk index; batches finish out of order. */
+        private final NavigableMap<Integer, Integer> storedAhead = new TreeMap<>();
+        private List<Document> pending = new ArrayList<>();
+        private int nextChunkIndex;
+        private int checkpoint;
+        private boolean closed;
+
+        private Session(UUID documentId, int firstChunkIndex, IntConsumer onCheckpoint) {
+            this.documentId = documentId;
+            this.onCheckpoint = onCheckpoint;
+            this.nextChunkIndex = firstChunkIndex;
+            this.checkpoint = firstChunkIndex;
+        }
+
+        /** Queues a chunk, submitting the current batch once it is full; blocks while too many batches are pending. */
+        public void add(Document chunk) {
+            pending.add(chunk);
+            if (pending.size() >= batchSize.get()) {
+                submit();
+            }
+        }
+
+        /**
+         * Submits the last partial batch and waits until every batch is stored. Returns the number of chunks written,
+         * or throws the first batch failure.
+         */
+        public int finish() {
+            submit();
+            awaitInFlight();
+            throwIfFailed();
+            int chunks = written.get();
+            double seconds = (System.nanoTime() - startedAt) / 1e9;
+            if (chunks > 0 && seconds > 0) {
+                throughput.record(chunks / seconds);
+                log.info(
+                        "Embedded {} chunks of document {} in {} ms ({} chunks/s)",
+                        chunks,
+                        documentId,
+                        Math.round(seconds * 1000),
+                        Math.round(chunks / seconds));
+            }
+            return chunks;
+        }
+
+        /** Waits for batches still running, e.g. after parsing failed, without rethrowing their failures. */
+        @Override
+        public void close() {
+            if (!closed) {
+                awaitInFlight();
+            }
+        }
+
+        private void submit() {
+            throwIfFailed();
+            if (pending.isEmpty()) {
+                return;
+            }
+            List<Document> batch = pending;
+            int firstChunkIndex = nextChunkIndex;
+            pending = new ArrayList<>();
+            nextChunkIndex += batch.size();
+            try {
+                inFlight.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting to embed chunks of document " + documentId);
+            }
+            try {
+                embedders.execute(() -> embed(firstChunkIndex, batch));
+            } catch (RejectedExecutionException e) {
+                inFlight.release();
+                throw e;
+            }
+        }
+
+        private void embed(int firstChunkIndex, List<Document> batch) {
+            try {
+                long start = System.nanoTime();
+                AdmissionController.runWithPriority(
+                        AdmissionController.Priority.INDEXING, () -> vectorStore.add(batch));
+                long elapsed = System.nanoTime() - start;
+                batchTimer.record(elapsed, TimeUnit.NANOSECONDS);
+                tune(batch.size(), elapsed);
+                written.addAndGet(batch.size());
+                stored(firstChunkIndex, batch.size());
+            } catch (RuntimeException e) {
+                failure.compareAndSet(null, e);
+            } finally {
+                inFlight.release();
+            }
+        }
+
+        private synchronized void stored(int firstChunkIndex, int size) {
+            storedAhead.put(firstChunkIndex, firstChunkIndex + size);
+            int previous = checkpoint;
+            Integer end;
+            while ((end = storedAhead.remove(checkpoint)) != null) {
+                checkpoint = end;
+            }
+            if (checkpoint > previous) {
+                try {
+                    onCheckpoint.accept(checkpoint);
+                } catch (RuntimeException e) {
+                    // Only costs re-embedding these chunks if the attempt is retried
+                    log.warn("Failed to record checkpoint {} of document {}", checkpoint, documentId, e);
+                }
+            }
+        }
+
+        private void awaitInFlight() {
+            inFlight.acquireUninterruptibly(maxInFlight);
+            inFlight.release(maxInFlight);
+            closed = true;
+        }
+
+        private void throwIfFailed() {
+            RuntimeException e = failure.get();
+            if (e != null) {
+                throw new IllegalStateException("Failed to embed chunks: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        embedders.shutdownNow();
+    }
+}
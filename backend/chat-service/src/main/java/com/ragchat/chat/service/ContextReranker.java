@@ -0,0 +1,116 @@
+package com.ragchat.chat.service;
+
+import com.ragchat.chat.config.ChatRetrievalProperties;
+import com.ragchat.chat.repository.VectorChunkRepository.Candidate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.springframework.ai.document.Document;
+import org.springframework.stereotype.Component;
+
+/**
+ * Picks the chunks that go into the prompt from an oversampled candidate set. Candidates below {@code minScore} are
+ * dropped, then maximal marginal relevance selects greedily the candidate with the best trade-off between similarity to
+ * the question and dissimilarity to the chunks already picked, so overlapping chunks of the same passage do not crowd
+ * out everything else. Similarities are computed on unit-normalized embeddings laid out in one contiguous array.
+ */
+@Component
+public class ContextReranker {
+
+    private final ChatRetrievalProperties chatRetrievalProperties;
+
+    public ContextReranker(ChatRetrievalProperties chatRetrievalProperties) {
+        this.chatRetrievalProperties = chatRetrievalProperties;
+    }
+
+    /** Up to {@code topK} candidates in selection order, most relevant first. */
+    public List<Document> rerank(float[] query, List<Candidate> candidates) {
+        List<Candidate> eligible = candidates.stream()
+                .filter(c -> c.embedding() != null && c.embedding().length == query.length)
+                .filter(c -> score(c) >= chatRetrievalProperties.getMinScore())
+                .toList();
+        int topK = chatRetrievalProperties.getTopK();
+        if (eligible.size() <= 1 || topK <= 0) {
+            return eligible.stream().limit(Math.max(0, topK)).map(Candidate::document).toList();
+        }
+
+        int dimensions = query.length;
+        int n = eligible.size();
+        float[] matrix = new float[n * dimensions];
+        for (int i = 0; i < n; i++) {
+            copyNormalized(eligible.get(i).embedding(), matrix, i * dimensions);
+        }
+        float[] unitQuery = new float[dimensions];
+        copyNormalized(query, unitQuery, 0);
+
+        float[] relevance = new float[n];
+        for (int i = 0; i < n; i++) {
+            relevance[i] = dot(matrix, i * dimensions, unitQuery, 0, dimensions);
+        }
+
+        double lambda = chatRetrievalProperties.getMmrLambda();
+        // Highest similarity of each candidate to any chunk picked so far, updated once per pick
+        float[] redundancy = new float[n];
+        Arrays.fill(redundancy, -1f);
+        boolean[] picked = new boolean[n];
+        List<Document> selected = new ArrayList<>(Math.min(topK, n));
+        while (selected.size() < Math.min(topK, n)) {
+            int best = -1;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < n; i++) {
+                if (picked[i]) {
+                    continue;
+                }
+                double value = selected.isEmpty() ? relevance[i] : lambda * relevance[i] - (1 - lambda) * redundancy[i];
+                if (value > bestValue) {
+                    bestValue = value;
+                    best = i;
+                }
+            }
+            picked[best] = true;
+            selected.add(eligible.get(best).document());
+            for (int i = 0; i < n; i++) {
+                if (!picked[i]) {
+                    float similarity = dot(matrix, i * dimensions, matrix, best * dimensions, dimensions);
+                    redundancy[i] = Math.max(redundancy[i], similarity);
+                }
+            }
+        }
+        return selected;
+    }
+
+    private static double score(Candidate candidate) {
+        Double score = candidate.document().getScore();
+        return score != null ? score : 0;
+    }
+
+    /**
+     * Dot product of two slices. Four independent accumulators break the dependency chain of a single running sum, so
+     * the JIT can pipeline and vectorize the loop.
+     */
+    static float dot(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        float s0 = 0;
+        float s1 = 0;
+        float s2 = 0;
+        float s3 = 0;
+        int i = 0;
+        for (; i + 3 < length; i += 4) {
+            s0 += a[aOffset + i] * b[bOffset + i];
+            s1 += a[aOffset + i + 1] * b[bOffset + i + 1];
+            s2 += a[aOffset + i + 2] * b[bOffset + i + 2];
+            s3 += a[aOffset + i + 3] * b[bOffset + i + 3];
+        }
+        for (; i < length; i++) {
+            s0 += a[aOffset + i] * b[bOffset + i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    private static void copyNormalized(float[] vector, float[] target, int offset) {
+        float norm = (float) Math.sqrt(dot(vector, 0, vector, 0, vector.length));
+        float scale = norm == 0 ? 0 : 1 / norm;
+        for (int i = 0; i < vector.length; i++) {
+            target[offset + i] = vector[i] * scale;
+        }
+    }
+}
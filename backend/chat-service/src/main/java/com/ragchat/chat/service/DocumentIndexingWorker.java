@@ -0,0 +1,238 @@
+package com.ragchat.chat.service;
+
+import com.ragchat.chat.config.DocumentIndexingProperties;
+import com.ragchat.chat.document.ChunkingContentHandler;
+import com.ragchat.chat.document.DocumentChunkerFactory;
+import com.ragchat.chat.document.TextChunker;
+import com.ragchat.chat.exception.ServiceOverloadedException;
+import com.ragchat.chat.model.entity.DocumentIndexJob;
+import com.ragchat.chat.model.entity.SessionDocument;
+import com.ragchat.chat.model.enums.VectorSource;
+import com.ragchat.chat.repository.DocumentIndexJobRepository;
+import com.ragchat.chat.repository.VectorChunkRepository;
+import jakarta.annotation.PreDestroy;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.parser.AutoDetectParser;
+import org.apache.tika.parser.ParseContext;
+import org.apache.tika.parser.Parser;
+import org.apache.tika.sax.BodyContentHandler;
+import org.springframework.ai.document.Document;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Worker pool draining {@code document_index_jobs}. Each poll claims one job per free worker; a worker streams the
+ * document through Tika, chunking and embedding it as text arrives, without holding a database transaction.
+ * A failed attempt is released with exponential backoff and the document is marked failed after
+ * {@code chat.document-indexing.max-attempts}; work shed by the admission limiter is retried after its retry estimate
+ * without counting as an attempt. Jobs of a worker or instance that died are taken over once their lease
+ * expires, so documents never stay stuck in {@code PROCESSING}; the new attempt resumes after the last stored chunk.
+ */
+@Slf4j
+@Component
+public class DocumentIndexingWorker {
+
+    private final DocumentIndexJobRepository jobRepository;
+    private final SessionDocumentService sessionDocumentService;
+    private final ChunkEmbeddingStage embeddingStage;
+    private final DocumentChunkerFactory chunkerFactory;
+    private final VectorChunkRepository vectorChunkRepository;
+    private final DocumentIndexingProperties properties;
+    private final ExecutorService workers;
+    private final Semaphore freeWorkers;
+    private final Parser parser = new AutoDetectParser();
+
+    public DocumentIndexingWorker(
+            DocumentIndexJobRepository jobRepository,
+            SessionDocumentService sessionDocumentService,
+            ChunkEmbeddingStage embeddingStage,
+            DocumentChunkerFactory chunkerFactory,
+            VectorChunkRepository vectorChunkRepository,
+            DocumentIndexingProperties properties) {
+        this.jobRepository = jobRepository;
+        this.sessionDocumentService = sessionDocumentService;
+        this.embeddingStage = embeddingStage;
+        this.chunkerFactory = chunkerFactory;
+        this.vectorChunkRepository = vectorChunkRepository;
+        this.properties = properties;
+        // Parsing is CPU-bound, so the pool is sized by configuration rather than by demand
+        this.workers = Executors.newFixedThreadPool(
+                properties.getWorkers(), Thread.ofPlatform().name("document-indexer-", 0).factory());
+        this.freeWorkers = new Semaphore(properties.getWorkers());
+    }
+
+    @Scheduled(fixedDelayString = "${chat.document-indexing.poll-interval-ms:1000}")
+    public void poll() {
+        while (freeWorkers.tryAcquire()) {
+            UUID lockToken = UUID.randomUUID();
+            int claimed;
+            try {
+                claimed = jobRepository.claimNext(
+                        lockToken, properties.getLeaseSeconds(), properties.getAgingSeconds());
+            } catch (RuntimeException e) {
+                freeWorkers.release();
+                throw e;
+            }
+            if (claimed == 0) {
+                freeWorkers.release();
+                return;
+            }
+            workers.execute(() -> {
+                try {
+                    process(lockToken);
+                } finally {
+                    freeWorkers.release();
+                }
+            });
+        }
+    }
+
+    void process(UUID lockToken) {
+        DocumentIndexJob job = jobRepository.findClaimed(lockToken).orElse(null);
+        if (job == null) {
+            // Deleted together with its document after it was claimed
+            return;
+        }
+        SessionDocument document = job.getDocument();
+        UUID documentId = document.getId();
+        try {
+            sessionDocumentService.markProcessing(documentId);
+
+            // A retried or taken-over job resumes after the checkpoint; chunks an earlier attempt stored beyond it
+            // (batches finish out of order) are written again
+            int checkpoint = document.getIndexedChunks();
+            vectorChunkRepository.deleteByDocumentIdFromChunk(documentId, checkpoint);
+            int chunks = indexChunks(document, lockToken, checkpoint);
+            if (!sessionDocumentService.markIndexed(documentId, chunks)) {
+                // The document was deleted while it was being indexed
+                vectorChunkRepository.deleteByDocumentId(documentId);
+            }
+            jobRepository.deleteClaimed(lockToken);
+            log.info("Indexed document {} into {} chunks, resumed after {}", documentId, chunks, checkpoint);
+        } catch (Exception e) {
+            ServiceOverloadedException overloaded = ServiceOverloadedException.findIn(e);
+            if (overloaded != null) {
+                // Shed by the admission limiter in favour of chat: not a failed attempt, so try again once it drains
+                log.info(
+                        "Indexing of document {} deferred for {} s, the embedding model is at capacity",
+                        documentId,
+                        overloaded.getRetryAfter().toSeconds());
+                sessionDocumentService.markPending(documentId);
+                jobRepository.releaseDeferred(lockToken, overloaded.getRetryAfter().toSeconds());
+                return;
+            }
+            String error = abbreviate(e.getMessage());
+            if (job.getAttempts() + 1 >= properties.getMaxAttempts()) {
+                log.error(
+                        "Failed to index document {}, giving up after {} attempts",
+                        documentId,
+                        job.getAttempts() + 1,
+                        e);
+                sessionDocumentService.markIndexingFailed(documentId, error, false);
+                jobRepository.deleteClaimed(lockToken);
+            } else {
+                log.warn("Failed to index document {}, will retry: {}", documentId, e.getMessage());
+                sessionDocumentService.markIndexingFailed(documentId, error, true);
+                jobRepository.releaseFailed(
+                        lockToken, error, properties.getRetryBaseDelaySeconds(), properties.getRetryMaxDelaySeconds());
+            }
+        }
+    }
+
+    /**
+     * Streams the document through Tika into the chunker and hands the chunks after {@code checkpoint} to the
+     * embedding stage while parsing continues, so neither the text nor the chunk list of a large document is ever held
+     * in full. Each stored prefix is recorded as the new checkpoint and renews the job lease. Returns the number of
+     * chunks of the document.
+     */
+    private int indexChunks(SessionDocument document, UUID lockToken, int checkpoint) throws Exception {
+        UUID sessionId = document.getSession().getId();
+        UUID documentId = document.getId();
+        IntConsumer onCheckpoint = indexedChunks -> {
+            sessionDocumentService.recordIndexingProgress(sessionId, documentId, indexedChunks);
+            jobRepository.extendLease(lockToken, properties.getLeaseSeconds());
+        };
+        try (ChunkEmbeddingStage.Session session = embeddingStage.open(documentId, checkpoint, onCheckpoint)) {
+            ChunkWriter writer = new ChunkWriter(document, session, checkpoint);
+            TextChunker chunker = chunkerFactory.create(document.getContentType(), writer);
+            ParseContext context = new ParseContext();
+            context.set(Parser.class, parser);
+            try (InputStream in = Files.newInputStream(Paths.get(document.getStoragePath()))) {
+                parser.parse(in, new BodyContentHandler(new ChunkingContentHandler(chunker)), new Metadata(), context);
+            }
+            chunker.finish();
+            sessionDocumentService.recordTotalChunks(documentId, writer.chunkIndex);
+            session.finish();
+            return writer.chunkIndex;
+        }
+    }
+
+    /**
+     * Turns emitted chunk texts into vector store documents for the embedding stage, skipping stored ones. Chunks may
+     * be views into the chunker's buffer, so a chunk is copied once, and only when it is written.
+     */
+    private static class ChunkWriter implements Consumer<CharSequence> {
+
+        private final SessionDocument document;
+        private final ChunkEmbeddingStage.Session session;
+        private final int checkpoint;
+        private int chunkIndex;
+
+        ChunkWriter(SessionDocument document, ChunkEmbeddingStage.Session session, int checkpoint) {
+            this.document = document;
+            this.session = session;
+            this.checkpoint = checkpoint;
+        }
+
+        @Override
+        public void accept(CharSequence text) {
+            if (chunkIndex < checkpoint) {
+                chunkIndex++;
+                return;
+            }
+            Map<String, Object> metadata = new HashMap<>();
+            metadata.put("sessionId", document.getSession().getId().toString());
+            metadata.put("documentId", document.getId().toString());
+            metadata.put("filename", document.getOriginalFilename());
+            metadata.put("chunkIndex", chunkIndex);
+            metadata.put("source", VectorSource.SESSION_DOCUMENTS.getValue());
+            session.add(Document.builder()
+                    .id(chunkId(document.getId(), chunkIndex))
+                    .text(text.toString())
+                    .metadata(metadata)
+                    .build());
+            chunkIndex++;
+        }
+    }
+
+    /** Stable per document and position, so two workers racing on one job overwrite rather than duplicate rows. */
+    private static String chunkId(UUID documentId, int chunkIndex) {
+        return UUID.nameUUIDFromBytes((documentId + ":" + chunkIndex).getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    private static String abbreviate(String message) {
+        if (message != null && message.length() > 500) {
+            return message.substring(0, 500);
+        }
+        return message;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        // Jobs cut short here are retried, at the latest once their lease expires
+        workers.shutdownNow();
+    }
+}
@@ -0,0 +1,88 @@
+package com.ragchat.chat.service;
+
+import com.ragchat.chat.model.entity.ChatSession;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Single-flight coalescing of identical questions: while a reply to a question is being produced, the same question
+ * asked again in the same session against the same document set waits for that reply instead of running its own
+ * retrieval and generation. Only in-flight work is shared; finished replies are reused through {@link AnswerCache}.
+ * Followers wait at most {@code chat.coalescing.follower-timeout} for the leader. Coalesced requests are counted as
+ * {@code chat.generation.coalesced}.
+ */
+@Component
+public class GenerationCoalescer {
+
+    /** What makes two questions interchangeable: the session, the normalized text and the document set version. */
+    public record Key(UUID sessionId, String question, long documentSetVersion) {
+
+        public static Key of(ChatSession session, String question) {
+            return new Key(session.getId(), normalize(question), session.getDocumentSetVersion());
+        }
+    }
+
+    /** The value produced by the leader; {@code shared} when this caller was a follower. */
+    public record Outcome<T>(T value, boolean shared) {}
+
+    private final Map<Key, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Counter coalesced;
+    private final Duration followerTimeout;
+
+    public GenerationCoalescer(
+            MeterRegistry meterRegistry, @Value("${chat.coalescing.follower-timeout:120s}") Duration followerTimeout) {
+        this.followerTimeout = followerTimeout;
+        this.coalesced = Counter.builder("chat.generation.coalesced")
+                .description("Requests that waited for an identical in-flight generation instead of starting one")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs {@code work} as the leader for {@code key}, or waits for the leader already running it. A failure of the
+     * leader is rethrown to every follower.
+     *
+     * @throws TimeoutException if this caller is a follower and the leader did not finish within the follower timeout
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Outcome<T> run(Key key, Callable<T> work) throws Exception {
+        CompletableFuture<Object> leader = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, leader);
+        if (existing != null) {
+            coalesced.increment();
+            try {
+                return new Outcome<>((T) existing.get(followerTimeout.toMillis(), TimeUnit.MILLISECONDS), true);
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof Exception cause ? cause : e;
+            } catch (TimeoutException e) {
+                throw new TimeoutException("Timed out waiting for an identical in-flight generation");
+            }
+        }
+
+        try {
+            T value = work.call();
+            leader.complete(value);
+            return new Outcome<>(value, false);
+        } catch (Throwable e) {
+            leader.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, leader);
+        }
+    }
+
+    static String normalize(String question) {
+        return question == null ? "" : question.strip().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+}
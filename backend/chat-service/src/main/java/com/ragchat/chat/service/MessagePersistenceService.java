@@ -0,0 +1,145 @@
+package com.ragchat.chat.service;
+
+import com.ragchat.chat.exception.ResourceNotFoundException;
+import com.ragchat.chat.model.dto.context.ChatMessageContext;
+import com.ragchat.chat.model.dto.request.CreateMessageRequest;
+import com.ragchat.chat.model.dto.response.MessageResponse;
+import com.ragchat.chat.model.entity.ChatMessage;
+import com.ragchat.chat.model.entity.ChatSession;
+import com.ragchat.chat.model.entity.MessageIndexOutboxEntry;
+import com.ragchat.chat.model.enums.MessageSender;
+import com.ragchat.chat.repository.ChatMessageRepository;
+import com.ragchat.chat.repository.ChatSessionRepository;
+import com.ragchat.chat.repository.MessageIndexOutboxRepository;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Short transactional write phases of the message pipeline. Retrieval and generation run between these calls without
+ * a transaction, so a database connection is only held while a message is actually being written.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MessagePersistenceService {
+
+    private final ChatSessionRepository chatSessionRepository;
+    private final ChatMessageRepository chatMessageRepository;
+    private final MessageIndexOutboxRepository messageIndexOutboxRepository;
+    private final ChatMessageIndexingPolicy chatMessageIndexingPolicy;
+    private final RecentMessagesCache recentMessagesCache;
+
+    /**
+     * Stores the user message at the first of two orders reserved in one statement; the second is the slot of the AI
+     * reply stored by {@link #saveAiMessage}, so concurrent posts to one session never share an order.
+     */
+    @Transactional
+    public ChatMessage saveUserMessage(UUID userId, UUID sessionId, CreateMessageRequest request) {
+        return saveUserMessage(userId, sessionId, request, null);
+    }
+
+    /**
+     * Like {@link #saveUserMessage(UUID, UUID, CreateMessageRequest)}, storing {@code idempotencyKey} with the message.
+     * The key is unique per session, so a concurrent request with the same key fails with a
+     * {@link org.springframework.dao.DataIntegrityViolationException} and stores nothing.
+     */
+    @Transactional
+    public ChatMessage saveUserMessage(
+            UUID userId, UUID sessionId, CreateMessageRequest request, String idempotencyKey) {
+        int nextOrder = chatSessionRepository
+                .reserveMessageOrders(sessionId, userId, 2)
+                .orElseThrow(() -> new ResourceNotFoundException("Session not found"));
+        ChatSession session = chatSessionRepository
+                .findById(sessionId)
+                .orElseThrow(() -> new ResourceNotFoundException("Session not found"));
+
+        ChatMessage message = ChatMessage.builder()
+                .session(session)
+                .sender(request.sender())
+                .content(request.content())
+                .context(null)
+                .messageOrder(nextOrder)
+                .idempotencyKey(idempotencyKey)
+                .build();
+        message = chatMessageRepository.save(message);
+        enqueueForIndexing(message);
+        appendToRecentMessages(message);
+
+        log.debug("Created message with id: {}", message.getId());
+        return message;
+    }
+
+    /** The message a user stored in one of their sessions under {@code idempotencyKey}, if any. */
+    @Transactional(readOnly = true)
+    public Optional<ChatMessage> findByIdempotencyKey(UUID userId, UUID sessionId, String idempotencyKey) {
+        return chatMessageRepository.findByIdempotencyKey(sessionId, userId, idempotencyKey);
+    }
+
+    @Transactional
+    public ChatMessage saveAiMessage(ChatMessage userMessage, String content, ChatMessageContext context) {
+        ChatMessage responseMessage = ChatMessage.builder()
+                .session(userMessage.getSession())
+                .sender(MessageSender.AI)
+                .content(content)
+                .context(context)
+                .messageOrder(userMessage.getMessageOrder() + 1)
+                .build();
+        responseMessage = chatMessageRepository.save(responseMessage);
+        enqueueForIndexing(responseMessage);
+        appendToRecentMessages(responseMessage);
+        return responseMessage;
+    }
+
+    /**
+     * Removes a user message whose reply was shed before generation started, together with its outbox entry and
+     * idempotency key, so a retried request starts from a clean session.
+     */
+    @Transactional
+    public void deleteUnansweredMessage(ChatMessage message) {
+        UUID sessionId = message.getSession().getId();
+        chatMessageRepository.deleteById(message.getId());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recentMessagesCache.invalidate(sessionId);
+            }
+        });
+    }
+
+    /** Adds the message to the session's recent-message window once the write is committed. */
+    private void appendToRecentMessages(ChatMessage message) {
+        UUID sessionId = message.getSession().getId();
+        MessageResponse response = new MessageResponse(
+                message.getId(),
+                message.getSender(),
+                message.getContent(),
+                message.getMessageOrder(),
+                message.getCreatedAt());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recentMessagesCache.append(sessionId, response);
+            }
+        });
+    }
+
+    /** Queues the message for the write-behind indexer in the same transaction that stores it. */
+    private void enqueueForIndexing(ChatMessage message) {
+        if (!chatMessageIndexingPolicy.shouldIndex(message)) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        messageIndexOutboxRepository.save(MessageIndexOutboxEntry.builder()
+                .message(message)
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .build());
+    }
+}
@@ -1,7 +1,12 @@
 package com.ragchat.chat.service;
 
+import com.ragchat.chat.admission.AdmissionController;
+import com.ragchat.chat.admission.OllamaAdmission;
 import com.ragchat.chat.config.ChatHistoryProperties;
+import com.ragchat.chat.config.ChatRetrievalProperties;
+import com.ragchat.chat.config.ChatStreamingProperties;
 import com.ragchat.chat.exception.ResourceNotFoundException;
+import com.ragchat.chat.exception.ServiceOverloadedException;
 import com.ragchat.chat.model.dto.context.ChatMessageContext;
 import com.ragchat.chat.model.dto.context.ContextDocument;
 import com.ragchat.chat.model.dto.request.CreateMessageRequest;
@@ -10,179 +15,259 @@ import com.ragchat.chat.model.dto.response.PageResponse;
 import com.ragchat.chat.model.entity.ChatMessage;
 import com.ragchat.chat.model.entity.ChatSession;
 import com.ragchat.chat.model.enums.MessageSender;
+import com.ragchat.chat.model.enums.VectorSource;
+import com.ragchat.chat.prompt.PromptAssembler;
 import com.ragchat.chat.repository.ChatMessageRepository;
 import com.ragchat.chat.repository.ChatSessionRepository;
+import com.ragchat.chat.repository.VectorChunkRepository;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.document.Document;
-import org.springframework.ai.vectorstore.SearchRequest;
-import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class MessageService {
 
+    /** Stored in place of an AI reply when generation fails. */
+    static final String FAILED_RESPONSE_CONTENT = "Failed to generate response";
+
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+
+    private static final String CLIENT_DISCONNECTED = "client disconnected";
+
     private final ChatSessionRepository chatSessionRepository;
     private final ChatMessageRepository chatMessageRepository;
+    private final MessagePersistenceService messagePersistenceService;
 
     private final ChatClient chatClient;
-    private final VectorStore vectorStore;
+    private final VectorChunkRepository vectorChunkRepository;
     private final ChatHistoryProperties chatHistoryProperties;
-
-    @Transactional
+    private final ChatStreamingProperties chatStreamingProperties;
+    private final AnswerCache answerCache;
+    private final EmbeddingModel embeddingModel;
+    private final RecentMessagesCache recentMessagesCache;
+    private final PromptAssembler promptAssembler;
+    private final PromptInputsLoader promptInputsLoader;
+    private final ChatRetrievalProperties chatRetrievalProperties;
+    private final ContextReranker contextReranker;
+    private final GenerationCoalescer generationCoalescer;
+    private final OllamaAdmission ollamaAdmission;
+
+    private final AtomicInteger generationsInFlight = new AtomicInteger();
+
+    /** An answer served from {@link AnswerCache}; {@code degraded} when only the looser overload distance matched. */
+    private record CachedReply(AnswerCache.Hit hit, boolean degraded) {}
+
+    /** A produced reply, shared with identical questions that arrive while it is being produced. */
+    private record Reply(String content, ChatMessageContext context, UUID userMessageId) {}
+
+    /** Inputs needed to cache a streamed answer once it completes. */
+    private record AnswerSource(String prompt, float[] question) {}
+
+    /**
+     * Retrieves context and recent history concurrently, then generates the AI reply outside of any transaction; only
+     * the final write of the AI message borrows a database connection. Repeated and near-duplicate questions are
+     * answered from {@link AnswerCache}, and an identical question still being answered waits for that answer through
+     * {@link GenerationCoalescer} instead of generating its own. Only the LLM call itself holds a chat admission slot.
+     * When that slot is refused, the user message is removed again and the {@link ServiceOverloadedException} is
+     * rethrown, so a shed request leaves no unanswered question behind.
+     */
     public void generateResponse(ChatMessage message) {
-        ChatMessage responseMessage;
+        String content;
+        ChatMessageContext context;
         try {
-            String userContent = message.getContent();
-            List<Document> contextDocuments = retrieveContextDocuments(message, userContent);
-            List<ChatMessage> recentMessages = loadRecentMessages(message, chatHistoryProperties.getPreviousMessages());
-            String prompt = buildPrompt(userContent, contextDocuments, recentMessages);
+            GenerationCoalescer.Key key = GenerationCoalescer.Key.of(message.getSession(), message.getContent());
+            GenerationCoalescer.Outcome<Reply> outcome = generationCoalescer.run(key, () -> produceReply(message));
+            Reply reply = outcome.value();
+            content = reply.content();
+            context = reply.context();
+            if (outcome.shared()) {
+                // Each message stores its own copy of the context; the leader's payload is never mutated
+                context = withExtra(copyOf(context), Map.of("coalescedWith", reply.userMessageId().toString()));
+            }
+        } catch (ServiceOverloadedException e) {
+            messagePersistenceService.deleteUnansweredMessage(message);
+            throw e;
+        } catch (Exception e) {
+            log.error("Failed to generate response: {}", e.getMessage());
+            content = FAILED_RESPONSE_CONTENT;
+            context = null;
+        }
+        messagePersistenceService.saveAiMessage(message, content, context);
+    }
+
+    private Reply produceReply(ChatMessage message) throws Exception {
+        String content;
+        ChatMessageContext context;
+        String userContent = message.getContent();
+        long retrievalDeadline = System.nanoTime() + chatRetrievalProperties.getVectorSearchTimeout().toNanos();
+        PromptInputsLoader.PromptInputs inputs = promptInputsLoader.load(
+                () -> retrieve(message, userContent, retrievalDeadline),
+                () -> loadRecentMessages(message, chatHistoryProperties.getPreviousMessages()));
+        List<Document> contextDocuments = inputs.contextDocuments();
+        List<MessageResponse> recentMessages = inputs.recentMessages();
+        String prompt = promptAssembler.assemble(userContent, contextDocuments, recentMessages).text();
+        context = buildContextPayload(contextDocuments);
+
+        float[] question = inputs.question();
+        Optional<CachedReply> cached = findCachedReply(message.getSession(), prompt, question);
+        if (cached.isPresent()) {
+            content = cached.get().hit().answer();
+            context = withCacheHit(context, cached.get());
+        } else {
+            try {
+                content = generate(prompt);
+                cacheAnswer(message, prompt, question, content);
+            } catch (Exception e) {
+                // Degraded mode: a failing LLM falls back to a looser semantic match before giving up
+                CachedReply fallback = answerCache
+                        .findSimilar(message.getSession(), question, answerCache.getDegradedMaxDistance())
+                        .map(hit -> new CachedReply(hit, true))
+                        .orElseThrow(() -> e);
+                log.warn("LLM call failed, serving cached answer: {}", e.getMessage());
+                content = fallback.hit().answer();
+                context = withCacheHit(context, fallback);
+            }
+        }
+        return new Reply(content, context, message.getId());
+    }
 
+    /** Calls the LLM while holding a chat admission slot, so the limit only measures work Ollama actually does. */
+    private String generate(String prompt) {
+        AdmissionController.Permit permit = ollamaAdmission.chat().acquire(AdmissionController.Priority.INTERACTIVE);
+        AdmissionController.Outcome outcome = AdmissionController.Outcome.DROPPED;
+        generationsInFlight.incrementAndGet();
+        try {
             String response = chatClient.prompt().user(prompt).call().content();
             log.info("Received AI response: {}", response);
+            outcome = AdmissionController.Outcome.SUCCESS;
+            return response;
+        } finally {
+            generationsInFlight.decrementAndGet();
+            permit.release(outcome);
+        }
+    }
 
-            ChatMessageContext context = buildContextPayload(contextDocuments);
-            responseMessage = ChatMessage.builder()
-                    .session(message.getSession())
-                    .sender(MessageSender.AI)
-                    .content(response)
-                    .context(context)
-                    .messageOrder(message.getMessageOrder() + 1)
-                    .build();
-        } catch (Exception e) {
-            log.error("Failed to generate response: {}", e.getMessage());
-            responseMessage = ChatMessage.builder()
-                    .session(message.getSession())
-                    .sender(MessageSender.AI)
-                    .content("Failed to generate response")
-                    .context(null)
-                    .messageOrder(message.getMessageOrder() + 1)
-                    .build();
+    /** Exact prompt match first, then a semantic match; under overload the looser degraded distance applies. */
+    private Optional<CachedReply> findCachedReply(ChatSession session, String prompt, float[] question) {
+        if (!answerCache.isEnabled()) {
+            return Optional.empty();
+        }
+        Optional<AnswerCache.Hit> hit = answerCache
+                .findExact(session, prompt)
+                .or(() -> answerCache.findSimilar(session, question, answerCache.getSemanticMaxDistance()));
+        if (hit.isPresent()) {
+            return hit.map(h -> new CachedReply(h, false));
         }
-        chatMessageRepository.save(responseMessage);
+        if (answerCache.isOverloaded(generationsInFlight.get())) {
+            return answerCache
+                    .findSimilar(session, question, answerCache.getDegradedMaxDistance())
+                    .map(h -> new CachedReply(h, true));
+        }
+        return Optional.empty();
+    }
 
-        indexChatMessage(responseMessage);
+    private void cacheAnswer(ChatMessage message, String prompt, float[] question, String answer) {
+        if (answer != null && !answer.isBlank()) {
+            answerCache.put(message.getSession(), prompt, question, answer, message.getId());
+        }
     }
 
-    private List<Document> retrieveContextDocuments(ChatMessage message, String userContent) {
+    private ChatMessageContext withCacheHit(ChatMessageContext context, CachedReply reply) {
+        Map<String, Object> audit = new HashMap<>();
+        audit.put("tier", reply.hit().tier().name().toLowerCase());
+        audit.put("distance", reply.hit().distance());
+        audit.put("degraded", reply.degraded());
+        if (reply.hit().sourceMessageId() != null) {
+            audit.put("sourceMessageId", reply.hit().sourceMessageId().toString());
+        }
+        return withExtra(context, Map.of("answerCache", audit));
+    }
+
+    /**
+     * Embeds the question and searches the session's documents with it. The embedding is returned for the semantic
+     * answer cache too, so a slow embedding model only ever costs the retrieval branch's deadline. The search gets the
+     * time left until {@code deadlineNanos} as its statement timeout, so it does not outlive the branch.
+     */
+    private PromptInputsLoader.Retrieval retrieve(ChatMessage message, String userContent, long deadlineNanos) {
+        float[] query = null;
         List<Document> contextDocuments = Collections.emptyList();
         try {
-            String filter = "sessionId == '" + message.getSession().getId() + "' && source == 'session-documents'";
-            SearchRequest searchRequest = SearchRequest.builder()
-                    .query(userContent)
-                    .topK(5)
-                    .filterExpression(filter)
-                    .build();
-
-            contextDocuments = vectorStore.similaritySearch(searchRequest);
+            query = embeddingModel.embed(userContent);
+            // Oversampled, then cut down to a relevant and diverse top-k
+            List<VectorChunkRepository.Candidate> candidates = vectorChunkRepository.searchCandidates(
+                    query,
+                    VectorChunkRepository.Filter.session(message.getSession().getId(), VectorSource.SESSION_DOCUMENTS),
+                    Math.max(chatRetrievalProperties.getCandidates(), chatRetrievalProperties.getTopK()),
+                    Duration.ofNanos(deadlineNanos - System.nanoTime()));
+            contextDocuments = contextReranker.rerank(query, candidates);
         } catch (Exception e) {
             log.warn(
                     "Vector search failed for session {}: {}",
                     message.getSession().getId(),
                     e.getMessage());
         }
-        return contextDocuments;
+        return new PromptInputsLoader.Retrieval(query, contextDocuments);
     }
 
-    private String buildPrompt(String userContent, List<Document> contextDocuments, List<ChatMessage> recentMessages) {
-        StringBuilder promptBuilder = new StringBuilder();
-
-        promptBuilder.append(
-                "You are a helpful assistant. Use any provided context and recent conversation to answer the user's question. If the context is not relevant, you may also use your general knowledge, but prefer the provided context when possible.\n");
-
-        if (contextDocuments != null && !contextDocuments.isEmpty()) {
-            promptBuilder.append("Context:\n");
-
-            int maxChars = 3000;
-            int used = 0;
-            int index = 1;
-            for (Document doc : contextDocuments) {
-                String snippet = doc.getText();
-                if (snippet == null || snippet.isBlank()) {
-                    continue;
-                }
-                if (used >= maxChars) {
-                    break;
-                }
-                if (snippet.length() + used > maxChars) {
-                    snippet = snippet.substring(0, maxChars - used);
-                }
-                promptBuilder
-                        .append("[")
-                        .append(index)
-                        .append("] ")
-                        .append(snippet)
-                        .append("\n\n");
-                used += snippet.length();
-                index++;
-            }
-        }
-
-        if (recentMessages != null && !recentMessages.isEmpty()) {
-            promptBuilder.append(
-                    "Recent conversation (lines starting with 'User:' are the human, 'Assistant:' are you):\n");
-            for (ChatMessage m : recentMessages) {
-                String role = m.getSender() == MessageSender.USER ? "User" : "Assistant";
-                promptBuilder.append(role).append(": ").append(m.getContent()).append("\n");
-            }
-            promptBuilder.append("\n");
-        }
-
-        promptBuilder.append("User question:\n");
-        promptBuilder.append(userContent);
-        promptBuilder.append("\n\n");
-        promptBuilder.append(
-                "When you answer, respond only with the answer text itself. Do not include any speaker labels like 'Assistant:' or 'User:' in your response.\n\n");
-
-        return promptBuilder.toString();
-    }
-
-    private List<ChatMessage> loadRecentMessages(ChatMessage message, int limit) {
-        List<ChatMessage> allMessages = chatMessageRepository.findBySessionOrderByMessageOrderAsc(message.getSession());
-        if (allMessages.isEmpty() || limit <= 0) {
+    /**
+     * Picks the last {@code limit} user and assistant messages before {@code message}. They are served from the
+     * session's {@link RecentMessagesCache} window; only a window too short to hold them falls back to two bounded
+     * per-sender queries.
+     */
+    private List<MessageResponse> loadRecentMessages(ChatMessage message, int limit) {
+        Integer messageOrder = message.getMessageOrder();
+        if (limit <= 0 || messageOrder == null) {
             return Collections.emptyList();
         }
 
-        List<ChatMessage> priorMessages = new ArrayList<>();
-        for (ChatMessage m : allMessages) {
-            if (m.getMessageOrder() != null
-                    && message.getMessageOrder() != null
-                    && m.getMessageOrder() < message.getMessageOrder()) {
-                priorMessages.add(m);
-            }
-        }
-
-        if (priorMessages.isEmpty()) {
-            return Collections.emptyList();
+        RecentMessagesCache.Window window = recentMessagesCache.get(message.getSession());
+        if (!window.messages().isEmpty() && window.messages().getLast().messageOrder() < messageOrder - 1) {
+            // Messages written by another instance are missing from this window
+            window = recentMessagesCache.reload(message.getSession());
         }
 
         int userCount = 0;
         int assistantCount = 0;
-        List<ChatMessage> selected = new ArrayList<>();
-
-        for (int i = priorMessages.size() - 1; i >= 0; i--) {
-            ChatMessage m = priorMessages.get(i);
-            if (m.getSender() == MessageSender.USER) {
+        List<MessageResponse> selected = new ArrayList<>();
+        List<MessageResponse> messages = window.messages();
+        for (int i = messages.size() - 1; i >= 0; i--) {
+            MessageResponse m = messages.get(i);
+            if (m.messageOrder() >= messageOrder) {
+                continue;
+            }
+            if (m.sender() == MessageSender.USER) {
                 if (userCount >= limit) {
                     continue;
                 }
                 selected.add(m);
                 userCount++;
-            } else if (m.getSender() == MessageSender.AI) {
+            } else if (m.sender() == MessageSender.AI) {
                 if (assistantCount >= limit) {
                     continue;
                 }
@@ -195,10 +280,25 @@ public class MessageService {
             }
         }
 
+        if (!window.isComplete() && (userCount < limit || assistantCount < limit)) {
+            return loadRecentMessagesFromDatabase(message, limit);
+        }
+
         Collections.reverse(selected);
         return selected;
     }
 
+    private List<MessageResponse> loadRecentMessagesFromDatabase(ChatMessage message, int limit) {
+        Pageable pageable = PageRequest.of(0, limit);
+        List<MessageResponse> selected = new ArrayList<>();
+        selected.addAll(chatMessageRepository.findNewestBySenderBefore(
+                message.getSession(), MessageSender.USER, message.getMessageOrder(), pageable));
+        selected.addAll(chatMessageRepository.findNewestBySenderBefore(
+                message.getSession(), MessageSender.AI, message.getMessageOrder(), pageable));
+        selected.sort(Comparator.comparing(MessageResponse::messageOrder));
+        return selected;
+    }
+
     private ChatMessageContext buildContextPayload(List<Document> contextDocuments) {
         if (contextDocuments == null || contextDocuments.isEmpty()) {
             return null;
@@ -249,68 +349,259 @@ public class MessageService {
         }
 
         return ChatMessageContext.builder()
-                .source("session-documents")
+                .source(VectorSource.SESSION_DOCUMENTS.getValue())
                 .documents(documents)
                 .build();
     }
 
-    @Transactional
+    /**
+     * Runs the message pipeline as short phases: persist the user message, retrieve and generate with no transaction,
+     * then persist the AI message. In-flight generations therefore do not pin pooled connections.
+     */
     public MessageResponse createMessage(UUID userId, UUID sessionId, CreateMessageRequest request) {
-        ChatSession session = chatSessionRepository
-                .findByIdAndUserId(sessionId, userId)
-                .orElseThrow(() -> new ResourceNotFoundException("Session not found"));
-
-        Integer nextOrder = chatMessageRepository
-                .findTopBySessionOrderByMessageOrderDesc(session)
-                .map(m -> m.getMessageOrder() + 1)
-                .orElse(1);
-
-        ChatMessage message = ChatMessage.builder()
-                .session(session)
-                .sender(request.sender())
-                .content(request.content())
-                .context(null)
-                .messageOrder(nextOrder)
-                .build();
-        message = chatMessageRepository.save(message);
+        return createMessage(userId, sessionId, request, null);
+    }
 
-        log.debug("Created message with id: {}", message.getId());
+    /**
+     * Like {@link #createMessage(UUID, UUID, CreateMessageRequest)}, but a repeated {@code idempotencyKey} returns the
+     * message already stored under that key instead of posting the question again.
+     */
+    public MessageResponse createMessage(
+            UUID userId, UUID sessionId, CreateMessageRequest request, String idempotencyKey) {
+        if (idempotencyKey != null) {
+            if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+                throw new IllegalArgumentException(
+                        "Idempotency-Key must be 1 to " + MAX_IDEMPOTENCY_KEY_LENGTH + " characters");
+            }
+            Optional<ChatMessage> existing =
+                    messagePersistenceService.findByIdempotencyKey(userId, sessionId, idempotencyKey);
+            if (existing.isPresent()) {
+                return toRepeatedResponse(existing.get(), request);
+            }
+        }
 
-        indexChatMessage(message);
+        ChatMessage message;
+        try {
+            message = messagePersistenceService.saveUserMessage(userId, sessionId, request, idempotencyKey);
+        } catch (DataIntegrityViolationException e) {
+            if (idempotencyKey == null) {
+                throw e;
+            }
+            // A concurrent request with the same key stored its message first
+            ChatMessage winner = messagePersistenceService
+                    .findByIdempotencyKey(userId, sessionId, idempotencyKey)
+                    .orElseThrow(() -> e);
+            return toRepeatedResponse(winner, request);
+        }
 
         generateResponse(message);
         return toResponse(message);
     }
 
-    private void indexChatMessage(ChatMessage message) {
+    private MessageResponse toRepeatedResponse(ChatMessage existing, CreateMessageRequest request) {
+        if (!existing.getContent().equals(request.content()) || existing.getSender() != request.sender()) {
+            throw new IllegalArgumentException("Idempotency-Key was already used for a different message");
+        }
+        log.debug("Repeated Idempotency-Key, returning message {}", existing.getId());
+        return toResponse(existing);
+    }
+
+    /**
+     * Persists the user message and streams the AI reply as server-sent events. The client receives a {@code message}
+     * event with the stored user message, one {@code token} event per generated chunk and a final {@code done} event
+     * with the stored AI message. The AI message is persisted once the stream ends; if the stream fails, times out or
+     * the client disconnects, whatever was generated so far is stored and flagged as partial. A chat admission slot is
+     * only taken when the reply is generated rather than served from the answer cache; if it is refused, the user
+     * message is removed again and the request fails before any event is sent.
+     */
+    public SseEmitter streamMessage(UUID userId, UUID sessionId, CreateMessageRequest request) {
+        ChatMessage message = messagePersistenceService.saveUserMessage(userId, sessionId, request);
+
+        SseEmitter emitter = new SseEmitter(chatStreamingProperties.getTimeoutMs());
+        StringBuffer generated = new StringBuffer();
+        AtomicBoolean finished = new AtomicBoolean(false);
+
+        ChatMessageContext context;
+        Flux<String> tokens;
+        AnswerSource answerSource = null;
+        AdmissionController.Permit permit = null;
         try {
-            if (message.getContent() == null || message.getContent().isBlank()) {
-                return;
+            String userContent = message.getContent();
+            long retrievalDeadline = System.nanoTime() + chatRetrievalProperties.getVectorSearchTimeout().toNanos();
+            PromptInputsLoader.PromptInputs inputs = promptInputsLoader.load(
+                    () -> retrieve(message, userContent, retrievalDeadline),
+                    () -> loadRecentMessages(message, chatHistoryProperties.getPreviousMessages()));
+            List<Document> contextDocuments = inputs.contextDocuments();
+            List<MessageResponse> recentMessages = inputs.recentMessages();
+            String prompt = promptAssembler.assemble(userContent, contextDocuments, recentMessages).text();
+
+            context = buildContextPayload(contextDocuments);
+            float[] question = inputs.question();
+            Optional<CachedReply> cached = findCachedReply(message.getSession(), prompt, question);
+            if (cached.isPresent()) {
+                context = withCacheHit(context, cached.get());
+                tokens = Flux.just(cached.get().hit().answer());
+            } else {
+                answerSource = new AnswerSource(prompt, question);
+                permit = ollamaAdmission.chat().acquire(AdmissionController.Priority.INTERACTIVE);
+                tokens = chatClient.prompt().user(prompt).stream().content();
             }
+        } catch (ServiceOverloadedException e) {
+            messagePersistenceService.deleteUnansweredMessage(message);
+            throw e;
+        } catch (Exception e) {
+            log.error("Failed to start response stream: {}", e.getMessage());
+            context = null;
+            tokens = Flux.error(e);
+        }
 
-            Map<String, Object> metadata = new HashMap<>();
-            metadata.put("sessionId", message.getSession().getId().toString());
-            if (message.getId() != null) {
-                metadata.put("messageId", message.getId().toString());
-            }
-            metadata.put("sender", message.getSender().name());
-            metadata.put("messageOrder", message.getMessageOrder());
-            metadata.put("source", "chat-message");
+        ChatMessageContext replyContext = context;
+        AnswerSource replySource = answerSource;
+        AdmissionController.Permit replyPermit = permit;
+        sendEvent(emitter, "message", toResponse(message));
+
+        Disposable subscription = tokens.subscribe(
+                token -> {
+                    generated.append(token);
+                    if (!sendEvent(emitter, "token", token)) {
+                        finishStream(
+                                message,
+                                replyContext,
+                                replySource,
+                                generated,
+                                finished,
+                                emitter,
+                                replyPermit,
+                                CLIENT_DISCONNECTED);
+                        // Throwing from onNext cancels the upstream generation
+                        throw new IllegalStateException("Client disconnected from response stream");
+                    }
+                },
+                error -> {
+                    log.error("Response stream failed: {}", error.getMessage());
+                    finishStream(
+                            message,
+                            replyContext,
+                            replySource,
+                            generated,
+                            finished,
+                            emitter,
+                            replyPermit,
+                            "stream error");
+                },
+                () -> finishStream(
+                        message, replyContext, replySource, generated, finished, emitter, replyPermit, null));
+
+        emitter.onTimeout(() -> {
+            subscription.dispose();
+            finishStream(message, replyContext, replySource, generated, finished, emitter, replyPermit, "timeout");
+        });
+        emitter.onError(error -> {
+            subscription.dispose();
+            finishStream(
+                    message, replyContext, replySource, generated, finished, emitter, replyPermit, CLIENT_DISCONNECTED);
+        });
+        emitter.onCompletion(subscription::dispose);
+
+        return emitter;
+    }
 
-            Document document = new Document(message.getContent(), metadata);
-            vectorStore.add(List.of(document));
-            log.debug("Indexed chat message with id: {}", message.getId());
+    private void finishStream(
+            ChatMessage message,
+            ChatMessageContext context,
+            AnswerSource answerSource,
+            StringBuffer generated,
+            AtomicBoolean finished,
+            SseEmitter emitter,
+            @Nullable AdmissionController.Permit permit,
+            String cutOffReason) {
+        if (!finished.compareAndSet(false, true)) {
+            return;
+        }
+
+        String content = generated.toString();
+        // The Ollama slot is free as soon as generation ends; a client that went away says nothing about Ollama.
+        // Cached replies never took a slot
+        if (permit != null) {
+            permit.release(
+                    CLIENT_DISCONNECTED.equals(cutOffReason)
+                            ? AdmissionController.Outcome.IGNORED
+                            : cutOffReason != null || content.isBlank()
+                                    ? AdmissionController.Outcome.DROPPED
+                                    : AdmissionController.Outcome.SUCCESS);
+        }
+        ChatMessageContext replyContext = context;
+        if (content.isBlank()) {
+            content = FAILED_RESPONSE_CONTENT;
+            replyContext = null;
+        } else if (cutOffReason != null) {
+            replyContext = withExtra(context, Map.of("partial", true, "cutOffReason", cutOffReason));
+        } else if (answerSource != null) {
+            cacheAnswer(message, answerSource.prompt(), answerSource.question(), content);
+        }
+
+        ChatMessage responseMessage;
+        try {
+            responseMessage = messagePersistenceService.saveAiMessage(message, content, replyContext);
+        } catch (Exception e) {
+            log.error("Failed to persist streamed response for message {}: {}", message.getId(), e.getMessage());
+            emitter.completeWithError(e);
+            return;
+        }
+
+        if (cutOffReason != null) {
+            sendEvent(emitter, "error", cutOffReason);
+        }
+        sendEvent(emitter, "done", toResponse(responseMessage));
+        emitter.complete();
+    }
+
+    private boolean sendEvent(SseEmitter emitter, String name, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(name).data(data));
+            return true;
         } catch (Exception e) {
-            log.warn("Failed to index chat message {} into vector store: {}", message.getId(), e.getMessage());
+            log.debug("Failed to send '{}' event: {}", name, e.getMessage());
+            return false;
         }
     }
 
+    private static ChatMessageContext copyOf(ChatMessageContext context) {
+        if (context == null) {
+            return null;
+        }
+        return ChatMessageContext.builder()
+                .source(context.getSource())
+                .documents(context.getDocuments())
+                .extra(context.getExtra())
+                .build();
+    }
+
+    private ChatMessageContext withExtra(ChatMessageContext context, Map<String, Object> extra) {
+        ChatMessageContext result = context != null ? context : new ChatMessageContext();
+        Map<String, Object> merged = result.getExtra() != null ? new HashMap<>(result.getExtra()) : new HashMap<>();
+        merged.putAll(extra);
+        result.setExtra(merged);
+        return result;
+    }
+
+    /**
+     * Returns a page of messages, newest first. The first page is served from the session's {@link RecentMessagesCache}
+     * window whenever the window holds enough of the newest messages and is current with the database.
+     */
     @Transactional(readOnly = true)
     public PageResponse<MessageResponse> getMessagesPage(UUID userId, UUID sessionId, int page, int size) {
         ChatSession session = chatSessionRepository
                 .findByIdAndUserId(sessionId, userId)
                 .orElseThrow(() -> new ResourceNotFoundException("Session not found"));
 
+        if (page == 0 && size > 0 && size <= recentMessagesCache.getCapacity()) {
+            RecentMessagesCache.Window window = recentMessagesCache.getCurrent(session);
+            if (window.isComplete() || window.messages().size() >= size) {
+                return toNewestPage(window, size);
+            }
+        }
+
         Pageable pageable = PageRequest.of(page, size);
         Page<ChatMessage> messagePage = chatMessageRepository.findBySessionOrderByMessageOrderDesc(session, pageable);
 
@@ -328,6 +619,25 @@ public class MessageService {
                 .build();
     }
 
+    private PageResponse<MessageResponse> toNewestPage(RecentMessagesCache.Window window, int size) {
+        List<MessageResponse> messages = window.messages();
+        List<MessageResponse> content = new ArrayList<>(
+                messages.subList(Math.max(0, messages.size() - size), messages.size()));
+        Collections.reverse(content);
+
+        long totalElements = window.totalMessages();
+        int totalPages = (int) ((totalElements + size - 1) / size);
+        return PageResponse.<MessageResponse>builder()
+                .content(content)
+                .page(0)
+                .size(size)
+                .totalElements(totalElements)
+                .totalPages(totalPages)
+                .hasNext(totalPages > 1)
+                .hasPrevious(false)
+                .build();
+    }
+
     private MessageResponse toResponse(ChatMessage message) {
         return new MessageResponse(
                 message.getId(),
@@ -0,0 +1,135 @@
+package com.ragchat.chat.service;
+
+import com.ragchat.chat.config.ChatRetrievalProperties;
+import com.ragchat.chat.logging.MdcTaskDecorator;
+import com.ragchat.chat.model.dto.response.MessageResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.document.Document;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs the independent I/O of a turn (question embedding with vector search, and recent-history load) concurrently,
+ * so the time before the LLM call starts is the slower of the two rather than their sum. Each branch has its own
+ * deadline measured from the start of the turn; a branch that misses it or fails is cancelled and degrades to an empty
+ * result. Branch durations are recorded as {@code chat.pregeneration.branch} timers tagged with branch and outcome.
+ */
+@Slf4j
+@Component
+public class PromptInputsLoader {
+
+    /** Result of the retrieval branch: the question's embedding, which the answer cache reuses, and its context. */
+    public record Retrieval(float[] question, List<Document> contextDocuments) {
+
+        static final Retrieval NONE = new Retrieval(null, Collections.emptyList());
+    }
+
+    /**
+     * Inputs of the prompt gathered before generation. {@code question} is {@code null} when the retrieval branch
+     * missed its deadline or could not embed the question; it is not embedded again outside the deadline.
+     */
+    public record PromptInputs(
+            float[] question, List<Document> contextDocuments, List<MessageResponse> recentMessages) {}
+
+    private static final String RETRIEVAL = "retrieval";
+    private static final String HISTORY = "history";
+
+    // Both branches block on I/O, so each runs on its own virtual thread
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final MdcTaskDecorator mdcTaskDecorator;
+    private final ChatRetrievalProperties chatRetrievalProperties;
+    private final MeterRegistry meterRegistry;
+
+    public PromptInputsLoader(
+            MdcTaskDecorator mdcTaskDecorator,
+            ChatRetrievalProperties chatRetrievalProperties,
+            MeterRegistry meterRegistry) {
+        this.mdcTaskDecorator = mdcTaskDecorator;
+        this.chatRetrievalProperties = chatRetrievalProperties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public PromptInputs load(Callable<Retrieval> retrieval, Callable<List<MessageResponse>> history) {
+        long start = System.nanoTime();
+        Future<Retrieval> documents = submit(RETRIEVAL, retrieval);
+        Future<List<MessageResponse>> messages = submit(HISTORY, history);
+        try {
+            Retrieval retrieved = await(
+                    RETRIEVAL, documents, start, chatRetrievalProperties.getVectorSearchTimeout(), Retrieval.NONE);
+            List<MessageResponse> recentMessages = await(
+                    HISTORY, messages, start, chatRetrievalProperties.getHistoryTimeout(), Collections.emptyList());
+            return new PromptInputs(retrieved.question(), retrieved.contextDocuments(), recentMessages);
+        } finally {
+            // No branch outlives the turn that started it
+            documents.cancel(true);
+            messages.cancel(true);
+        }
+    }
+
+    private <T> Future<T> submit(String branch, Callable<T> work) {
+        FutureTask<T> task = new FutureTask<>(work) {
+            private long start;
+
+            @Override
+            public void run() {
+                start = System.nanoTime();
+                super.run();
+            }
+
+            @Override
+            protected void done() {
+                // A cancelled branch is recorded by await as a timeout, not again as the error its interrupt causes
+                if (state() != State.CANCELLED) {
+                    record(branch, state() == State.SUCCESS ? "success" : "error", System.nanoTime() - start);
+                }
+            }
+        };
+        executor.execute(mdcTaskDecorator.decorate(task));
+        return task;
+    }
+
+    private <T> T await(String branch, Future<T> future, long start, Duration deadline, T fallback) {
+        long remaining = deadline.toNanos() - (System.nanoTime() - start);
+        try {
+            T result = future.get(Math.max(0, remaining), TimeUnit.NANOSECONDS);
+            return result != null ? result : fallback;
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            record(branch, "timeout", System.nanoTime() - start);
+            log.warn("{} branch exceeded its {} ms deadline, continuing without it", branch, deadline.toMillis());
+        } catch (ExecutionException e) {
+            log.warn("{} branch failed, continuing without it: {}", branch, e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+        }
+        return fallback;
+    }
+
+    private void record(String branch, String outcome, long nanos) {
+        Timer.builder("chat.pregeneration.branch")
+                .description("Duration of the I/O branches that run before generation")
+                .tag("branch", branch)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,162 @@
+package com.ragchat.chat.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ragchat.chat.config.ChatHistoryProperties;
+import com.ragchat.chat.model.dto.response.MessageResponse;
+import com.ragchat.chat.model.entity.ChatSession;
+import com.ragchat.chat.repository.ChatMessageRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+/**
+ * Per-session ring buffer of the newest messages. It is loaded once from the database (one bounded query plus a count)
+ * and then kept current by appending messages as they are written, so prompt history and the first page of the
+ * message list cost no database reads in the common case. Windows expire a fixed time after they were loaded, and
+ * {@link #getCurrent} additionally checks them against the newest message order in the database.
+ */
+@Component
+public class RecentMessagesCache {
+
+    /** Immutable view of a session's newest messages in ascending order, plus the session's total message count. */
+    public record Window(List<MessageResponse> messages, long totalMessages) {
+
+        /** Whether the window holds every message of the session. */
+        public boolean isComplete() {
+            return messages.size() >= totalMessages;
+        }
+
+        /** Whether the window ends at {@code newestOrder}, the highest order written to the session. */
+        public boolean endsAt(Integer newestOrder) {
+            if (messages.isEmpty()) {
+                return newestOrder == null;
+            }
+            return newestOrder != null && messages.getLast().messageOrder() >= newestOrder;
+        }
+    }
+
+    private static final class Ring {
+
+        private final ArrayDeque<MessageResponse> messages;
+        private long totalMessages;
+
+        private Ring(List<MessageResponse> ascending, long totalMessages) {
+            this.messages = new ArrayDeque<>(ascending);
+            this.totalMessages = totalMessages;
+        }
+    }
+
+    private final ChatMessageRepository chatMessageRepository;
+    private final int capacity;
+    private final Cache<UUID, Ring> rings;
+
+    public RecentMessagesCache(
+            ChatMessageRepository chatMessageRepository,
+            ChatHistoryProperties chatHistoryProperties,
+            MeterRegistry meterRegistry) {
+        this.chatMessageRepository = chatMessageRepository;
+        this.capacity = chatHistoryProperties.getCacheWindow();
+        this.rings = CaffeineCacheMetrics.monitor(
+                meterRegistry,
+                Caffeine.newBuilder()
+                        .maximumSize(chatHistoryProperties.getCacheMaxSessions())
+                        .expireAfterWrite(chatHistoryProperties.getCacheTtl())
+                        .recordStats()
+                        .build(),
+                "messages.recent");
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public Window get(ChatSession session) {
+        Ring ring = rings.get(session.getId(), id -> load(session));
+        synchronized (ring) {
+            return new Window(List.copyOf(ring.messages), ring.totalMessages);
+        }
+    }
+
+    /**
+     * Like {@link #get}, but first compares the window with the session's highest stored message order (an index-only
+     * read) and reloads it when another instance has written newer messages, e.g. the reply to a polled session.
+     */
+    public Window getCurrent(ChatSession session) {
+        Window window = get(session);
+        if (!window.endsAt(chatMessageRepository.findMaxMessageOrder(session))) {
+            window = reload(session);
+        }
+        return window;
+    }
+
+    /** Reloads the window, e.g. when it is missing messages written by another instance. */
+    public Window reload(ChatSession session) {
+        rings.invalidate(session.getId());
+        return get(session);
+    }
+
+    /** Drops the window, e.g. after a message was deleted; it is loaded again on the next read. */
+    public void invalidate(UUID sessionId) {
+        rings.invalidate(sessionId);
+    }
+
+    /** Records a committed message; a session that is not cached is left to be loaded on its next read. */
+    public void append(UUID sessionId, MessageResponse message) {
+        Ring ring = rings.getIfPresent(sessionId);
+        if (ring == null) {
+            return;
+        }
+        synchronized (ring) {
+            if (insertInOrder(ring.messages, message)) {
+                ring.totalMessages++;
+                while (ring.messages.size() > capacity) {
+                    ring.messages.removeFirst();
+                }
+            }
+        }
+    }
+
+    private Ring load(ChatSession session) {
+        List<MessageResponse> newest = new ArrayList<>(
+                chatMessageRepository.findNewest(session, PageRequest.of(0, Math.max(1, capacity))));
+        Collections.reverse(newest);
+        return new Ring(newest, chatMessageRepository.countBySession(session));
+    }
+
+    /** Appends in message order (writes almost always arrive in order); returns false for an already known message. */
+    private static boolean insertInOrder(ArrayDeque<MessageResponse> messages, MessageResponse message) {
+        MessageResponse last = messages.peekLast();
+        if (last == null || last.messageOrder() < message.messageOrder()) {
+            messages.addLast(message);
+            return true;
+        }
+
+        List<MessageResponse> ordered = new ArrayList<>(messages.size() + 1);
+        boolean inserted = false;
+        for (Iterator<MessageResponse> it = messages.iterator(); it.hasNext(); ) {
+            MessageResponse current = it.next();
+            if (current.id().equals(message.id())) {
+                return false;
+            }
+            if (!inserted && message.messageOrder() < current.messageOrder()) {
+                ordered.add(message);
+                inserted = true;
+            }
+            ordered.add(current);
+        }
+        if (!inserted) {
+            ordered.add(message);
+        }
+        messages.clear();
+        messages.addAll(ordered);
+        return true;
+    }
+}
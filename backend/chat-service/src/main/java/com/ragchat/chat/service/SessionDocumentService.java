@@ -3,26 +3,24 @@ package com.ragchat.chat.service;
 import com.ragchat.chat.exception.ResourceNotFoundException;
 import com.ragchat.chat.model.dto.response.SessionDocumentResponse;
 import com.ragchat.chat.model.entity.ChatSession;
+import com.ragchat.chat.model.entity.DocumentIndexJob;
 import com.ragchat.chat.model.entity.SessionDocument;
 import com.ragchat.chat.model.enums.SessionDocumentStatus;
 import com.ragchat.chat.repository.ChatSessionRepository;
+import com.ragchat.chat.repository.DocumentIndexJobRepository;
 import com.ragchat.chat.repository.SessionDocumentRepository;
+import com.ragchat.chat.repository.VectorChunkRepository;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.UUID;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.tika.Tika;
-import org.springframework.ai.document.Document;
-import org.springframework.ai.vectorstore.VectorStore;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
@@ -34,9 +32,9 @@ public class SessionDocumentService {
 
     private final ChatSessionRepository chatSessionRepository;
     private final SessionDocumentRepository sessionDocumentRepository;
-    private final VectorStore vectorStore;
-
-    private final Tika tika = new Tika();
+    private final DocumentIndexJobRepository documentIndexJobRepository;
+    private final VectorChunkRepository vectorChunkRepository;
+    private final AnswerCache answerCache;
 
     private static final Path STORAGE_ROOT = Paths.get("storage", "session-docs");
 
@@ -91,64 +89,79 @@ public class SessionDocumentService {
         log.info("File upload succeeded");
 
         document.setStoragePath(targetPath.toString());
-        document.setIndexingStatus(SessionDocumentStatus.PROCESSING);
         document = sessionDocumentRepository.save(document);
 
-        indexDocumentAsync(document.getId());
+        // Parsing and embedding happen on the indexing workers once this transaction commits
+        LocalDateTime now = LocalDateTime.now();
+        documentIndexJobRepository.save(DocumentIndexJob.builder()
+                .document(document)
+                .sizeBytes(sizeBytes)
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .build());
 
-        log.info("Document indexing started");
+        log.info("Document queued for indexing");
 
         return toResponse(document);
     }
 
-    @Async
+    /** Puts a document back in the queue without recording an error, e.g. when its indexing was deferred. */
     @Transactional
-    public void indexDocumentAsync(UUID documentId) {
-        SessionDocument document =
-                sessionDocumentRepository.findById(documentId).orElse(null);
-        if (document == null) {
-            log.warn("SessionDocument with id {} not found for indexing", documentId);
-            return;
-        }
+    public void markPending(UUID documentId) {
+        sessionDocumentRepository
+                .findById(documentId)
+                .ifPresent(document -> document.setIndexingStatus(SessionDocumentStatus.PENDING));
+    }
 
-        try {
+    @Transactional
+    public void markProcessing(UUID documentId) {
+        sessionDocumentRepository.findById(documentId).ifPresent(document -> {
             document.setIndexingStatus(SessionDocumentStatus.PROCESSING);
             document.setErrorMessage(null);
-            sessionDocumentRepository.save(document);
+        });
+    }
 
-            Path path = Paths.get(document.getStoragePath());
-            String text;
-            try (InputStream in = Files.newInputStream(path)) {
-                text = tika.parseToString(in);
-            }
-
-            if (text == null || text.isBlank()) {
-                document.setIndexingStatus(SessionDocumentStatus.READY);
-                sessionDocumentRepository.save(document);
-                return;
-            }
-
-            List<Document> chunks = chunkText(text, document);
-            if (!chunks.isEmpty()) {
-                vectorStore.add(chunks);
-            }
-
-            document.setIndexingStatus(SessionDocumentStatus.READY);
-            document.setErrorMessage(null);
-            sessionDocumentRepository.save(document);
-            log.info("Document indexing completed");
-        } catch (Exception e) {
-            log.error("Failed to index document {}", documentId, e);
-            document.setIndexingStatus(SessionDocumentStatus.FAILED);
-            String message = e.getMessage();
-            if (message != null && message.length() > 500) {
-                message = message.substring(0, 500);
-            }
-            document.setErrorMessage(message);
-            sessionDocumentRepository.save(document);
+    /**
+     * Records that chunks {@code 0..indexedChunks-1} are stored. They are searchable already, so answers cached
+     * against the previous chunks of the session are dropped.
+     */
+    @Transactional
+    public void recordIndexingProgress(UUID sessionId, UUID documentId, int indexedChunks) {
+        if (sessionDocumentRepository.advanceIndexedChunks(documentId, indexedChunks) > 0) {
+            documentSetChanged(sessionId);
         }
     }
 
+    /** Records the chunk count once parsing has finished, while the last batches may still be embedding. */
+    @Transactional
+    public void recordTotalChunks(UUID documentId, int totalChunks) {
+        sessionDocumentRepository.findById(documentId).ifPresent(document -> document.setTotalChunks(totalChunks));
+    }
+
+    /** Marks the document ready; {@code false} if it was deleted in the meantime. */
+    @Transactional
+    public boolean markIndexed(UUID documentId, int totalChunks) {
+        SessionDocument document = sessionDocumentRepository.findById(documentId).orElse(null);
+        if (document == null) {
+            return false;
+        }
+        document.setIndexingStatus(SessionDocumentStatus.READY);
+        document.setErrorMessage(null);
+        document.setIndexedChunks(totalChunks);
+        document.setTotalChunks(totalChunks);
+        documentSetChanged(document.getSession().getId());
+        return true;
+    }
+
+    /** Records a failed attempt; the document goes back to {@code PENDING} if it will be retried. */
+    @Transactional
+    public void markIndexingFailed(UUID documentId, String error, boolean retrying) {
+        sessionDocumentRepository.findById(documentId).ifPresent(document -> {
+            document.setIndexingStatus(retrying ? SessionDocumentStatus.PENDING : SessionDocumentStatus.FAILED);
+            document.setErrorMessage(error);
+        });
+    }
+
     @Transactional(readOnly = true)
     public List<SessionDocumentResponse> getDocuments(UUID userId, UUID sessionId) {
         ChatSession session = chatSessionRepository
@@ -181,6 +194,14 @@ public class SessionDocumentService {
         }
 
         sessionDocumentRepository.delete(document);
+        vectorChunkRepository.deleteByDocumentId(documentId);
+        documentSetChanged(session.getId());
+    }
+
+    /** Cached answers were produced against the previous document set and must not be served any more. */
+    private void documentSetChanged(UUID sessionId) {
+        chatSessionRepository.incrementDocumentSetVersion(sessionId);
+        answerCache.invalidateSession(sessionId);
     }
 
     private SessionDocumentResponse toResponse(SessionDocument document) {
@@ -190,42 +211,10 @@ public class SessionDocumentService {
                 document.getContentType(),
                 document.getSizeBytes(),
                 document.getIndexingStatus(),
+                document.getIndexedChunks(),
+                document.getTotalChunks(),
                 document.getErrorMessage(),
                 document.getCreatedAt(),
                 document.getUpdatedAt());
     }
-
-    private List<Document> chunkText(String text, SessionDocument document) {
-        List<Document> result = new ArrayList<>();
-
-        int chunkSize = 1000;
-        int overlap = 200;
-        int length = text.length();
-        int index = 0;
-        int chunkIndex = 0;
-
-        while (index < length) {
-            int end = Math.min(length, index + chunkSize);
-            String chunk = text.substring(index, end).trim();
-            if (!chunk.isEmpty()) {
-                Map<String, Object> metadata = new HashMap<>();
-                metadata.put("sessionId", document.getSession().getId().toString());
-                metadata.put("documentId", document.getId().toString());
-                metadata.put("filename", document.getOriginalFilename());
-                metadata.put("chunkIndex", chunkIndex);
-                metadata.put("source", "session-documents");
-                result.add(new Document(chunk, metadata));
-                chunkIndex++;
-            }
-            if (end == length) {
-                break;
-            }
-            index = end - overlap;
-            if (index < 0 || index >= length) {
-                break;
-            }
-        }
-
-        return result;
-    }
 }
@@ -7,6 +7,7 @@ import com.ragchat.chat.model.dto.response.SessionResponse;
 import com.ragchat.chat.model.entity.ChatSession;
 import com.ragchat.chat.repository.ChatMessageRepository;
 import com.ragchat.chat.repository.ChatSessionRepository;
+import com.ragchat.chat.repository.VectorChunkRepository;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -22,6 +23,7 @@ public class SessionService {
 
     private final ChatSessionRepository chatSessionRepository;
     private final ChatMessageRepository chatMessageRepository;
+    private final VectorChunkRepository vectorChunkRepository;
 
     @Transactional
     public SessionResponse createSession(UUID userId, CreateSessionRequest request) {
@@ -86,6 +88,7 @@ public class SessionService {
                 .orElseThrow(() -> new ResourceNotFoundException("Session not found"));
 
         chatSessionRepository.delete(session);
+        vectorChunkRepository.deleteBySessionId(sessionId);
     }
 
     private SessionResponse toResponse(ChatSession session, int messageCount) {
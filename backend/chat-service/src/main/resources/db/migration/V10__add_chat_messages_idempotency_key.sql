@@ -0,0 +1,5 @@
+-- Client-supplied Idempotency-Key of POST /messages; a repeated key returns the stored message instead of posting again
+ALTER TABLE chat_messages ADD COLUMN idempotency_key VARCHAR(255);
+
+CREATE UNIQUE INDEX uq_messages_session_idempotency_key ON chat_messages(session_id, idempotency_key)
+    WHERE idempotency_key IS NOT NULL;
@@ -0,0 +1,25 @@
+CREATE TABLE document_index_jobs (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    document_id UUID NOT NULL UNIQUE REFERENCES session_documents(id) ON DELETE CASCADE,
+    size_bytes BIGINT NOT NULL,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL,
+    lock_token UUID,
+    locked_until TIMESTAMP,
+    last_error TEXT,
+    created_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_document_index_jobs_next_attempt ON document_index_jobs(next_attempt_at);
+CREATE INDEX idx_document_index_jobs_lock_token ON document_index_jobs(lock_token)
+    WHERE lock_token IS NOT NULL;
+
+-- Documents whose in-request indexing never finished (e.g. the instance stopped mid-upload) are queued again
+INSERT INTO document_index_jobs (document_id, size_bytes, next_attempt_at, created_at)
+SELECT id, size_bytes, now(), now()
+FROM session_documents
+WHERE indexing_status IN ('PENDING', 'PROCESSING')
+  AND storage_path <> '';
+
+COMMENT ON TABLE document_index_jobs IS 'Uploaded documents waiting to be parsed, chunked and embedded';
+COMMENT ON COLUMN document_index_jobs.lock_token IS 'Set while a worker holds the job; expires at locked_until';
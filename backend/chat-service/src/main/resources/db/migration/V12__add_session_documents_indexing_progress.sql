@@ -0,0 +1,22 @@
+ALTER TABLE session_documents
+    ADD COLUMN indexed_chunks INTEGER NOT NULL DEFAULT 0,
+    ADD COLUMN total_chunks INTEGER;
+
+-- Documents indexed before progress was tracked: their stored chunks are the complete set
+UPDATE session_documents d
+SET indexed_chunks = c.chunks, total_chunks = c.chunks
+FROM (
+    SELECT document_id, count(*) AS chunks
+    FROM vector_store
+    WHERE document_id IS NOT NULL
+    GROUP BY document_id
+) c
+WHERE d.id = c.document_id
+  AND d.indexing_status = 'READY';
+
+UPDATE session_documents
+SET total_chunks = 0
+WHERE indexing_status = 'READY' AND total_chunks IS NULL;
+
+COMMENT ON COLUMN session_documents.indexed_chunks IS 'Checkpoint: chunks 0..indexed_chunks-1 are stored';
+COMMENT ON COLUMN session_documents.total_chunks IS 'Number of chunks, known once the document has been fully parsed';
@@ -0,0 +1,7 @@
+-- Entries that failed max-attempts times are parked instead of being retried forever
+ALTER TABLE message_index_outbox ADD COLUMN failed BOOLEAN NOT NULL DEFAULT false;
+
+DROP INDEX idx_message_index_outbox_next_attempt;
+CREATE INDEX idx_message_index_outbox_next_attempt ON message_index_outbox(next_attempt_at) WHERE NOT failed;
+
+COMMENT ON COLUMN message_index_outbox.failed IS 'Dead-lettered after max attempts; kept with last_error for inspection';
@@ -0,0 +1,17 @@
+CREATE TABLE message_index_outbox (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    message_id UUID NOT NULL UNIQUE REFERENCES chat_messages(id) ON DELETE CASCADE,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL,
+    lock_token UUID,
+    locked_until TIMESTAMP,
+    last_error TEXT,
+    created_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_message_index_outbox_next_attempt ON message_index_outbox(next_attempt_at);
+CREATE INDEX idx_message_index_outbox_lock_token ON message_index_outbox(lock_token)
+    WHERE lock_token IS NOT NULL;
+
+COMMENT ON TABLE message_index_outbox IS 'Chat messages waiting to be embedded into the vector store';
+COMMENT ON COLUMN message_index_outbox.lock_token IS 'Set while an indexer instance holds the row; expires at locked_until';
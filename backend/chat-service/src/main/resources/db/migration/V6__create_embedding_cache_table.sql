@@ -0,0 +1,12 @@
+CREATE TABLE embedding_cache (
+    model VARCHAR(255) NOT NULL,
+    content_hash CHAR(64) NOT NULL,
+    embedding BYTEA NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT now(),
+    PRIMARY KEY (model, content_hash)
+);
+
+CREATE INDEX idx_embedding_cache_created_at ON embedding_cache(created_at);
+
+COMMENT ON TABLE embedding_cache IS 'Embeddings keyed by model and SHA-256 of the normalized text';
+COMMENT ON COLUMN embedding_cache.embedding IS 'float32 vector, little-endian';
@@ -0,0 +1,3 @@
+ALTER TABLE chat_sessions ADD COLUMN document_set_version BIGINT NOT NULL DEFAULT 0;
+
+COMMENT ON COLUMN chat_sessions.document_set_version IS 'Incremented whenever the session documents change; scopes cached answers';
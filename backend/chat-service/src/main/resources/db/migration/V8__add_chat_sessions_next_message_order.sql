@@ -0,0 +1,26 @@
+-- Concurrent posts to one session could previously reuse the same order; renumber each session densely first
+UPDATE chat_messages m
+SET message_order = r.new_order
+FROM (
+    SELECT id, ROW_NUMBER() OVER (PARTITION BY session_id ORDER BY message_order, created_at, id) AS new_order
+    FROM chat_messages
+) r
+WHERE m.id = r.id
+  AND m.message_order <> r.new_order;
+
+ALTER TABLE chat_sessions ADD COLUMN next_message_order INTEGER NOT NULL DEFAULT 1;
+
+UPDATE chat_sessions s
+SET next_message_order = m.max_order + 1
+FROM (
+    SELECT session_id, MAX(message_order) AS max_order
+    FROM chat_messages
+    GROUP BY session_id
+) m
+WHERE s.id = m.session_id;
+
+DROP INDEX idx_messages_order;
+ALTER TABLE chat_messages
+    ADD CONSTRAINT uq_messages_session_order UNIQUE (session_id, message_order);
+
+COMMENT ON COLUMN chat_sessions.next_message_order IS 'Next free message_order; reserved atomically with UPDATE ... RETURNING';
@@ -0,0 +1,29 @@
+-- The vector table used to be created by Spring AI at startup; it is now owned by migrations
+CREATE EXTENSION IF NOT EXISTS vector WITH SCHEMA public;
+
+CREATE TABLE IF NOT EXISTS vector_store (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    content TEXT,
+    metadata JSON,
+    embedding public.vector(768)
+);
+
+-- Filter keys promoted from the metadata JSON; generated, so the vector store keeps writing only metadata
+ALTER TABLE vector_store
+    ADD COLUMN IF NOT EXISTS session_id UUID GENERATED ALWAYS AS ((metadata ->> 'sessionId')::uuid) STORED,
+    ADD COLUMN IF NOT EXISTS document_id UUID GENERATED ALWAYS AS ((metadata ->> 'documentId')::uuid) STORED,
+    ADD COLUMN IF NOT EXISTS source VARCHAR(50) GENERATED ALWAYS AS (metadata ->> 'source') STORED;
+
+CREATE INDEX IF NOT EXISTS idx_vector_store_session_source ON vector_store (session_id, source);
+CREATE INDEX IF NOT EXISTS idx_vector_store_document_id ON vector_store (document_id)
+    WHERE document_id IS NOT NULL;
+
+-- One ANN index per source instead of a single index over every row
+DROP INDEX IF EXISTS spring_ai_vector_index;
+CREATE INDEX IF NOT EXISTS idx_vector_store_documents_hnsw ON vector_store
+    USING hnsw (embedding public.vector_cosine_ops) WHERE source = 'session-documents';
+CREATE INDEX IF NOT EXISTS idx_vector_store_messages_hnsw ON vector_store
+    USING hnsw (embedding public.vector_cosine_ops) WHERE source = 'chat-message';
+
+COMMENT ON COLUMN vector_store.session_id IS 'Generated from metadata.sessionId; pre-filter for retrieval';
+COMMENT ON COLUMN vector_store.source IS 'Generated from metadata.source; selects the partial ANN index';
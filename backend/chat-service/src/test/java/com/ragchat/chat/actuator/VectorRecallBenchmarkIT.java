@@ -0,0 +1,168 @@
+package com.ragchat.chat.actuator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.ragchat.chat.config.ChatServicePostgresTestConfig;
+import com.ragchat.chat.config.VectorIndexProperties;
+import com.ragchat.chat.model.enums.VectorSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+/**
+ * Footprint and recall@5 of each {@code chat.vector-index.storage} mode, measured with {@link VectorRecallEndpoint} on
+ * the same seeded corpus: clustered 768-dimensional vectors sharing a common offset, like text embeddings, spread over
+ * many sessions. Each mode rebuilds the indexes through the repeatable migration before it is measured, and the
+ * figures are logged as a table. Run it with {@code ./gradlew :chat-service:test --tests '*VectorRecallBenchmarkIT'}.
+ */
+@Slf4j
+@SpringBootTest
+@Import(ChatServicePostgresTestConfig.class)
+@ExtendWith(SpringExtension.class)
+class VectorRecallBenchmarkIT {
+
+    private static final String SCHEMA = "vector_recall_benchmark";
+    private static final int DIMENSIONS = 768;
+    private static final int CORPUS_SIZE = 5_000;
+    private static final int CLUSTERS = 50;
+    private static final int SESSIONS = 100;
+    private static final long SEED = 42;
+
+    @DynamicPropertySource
+    static void registerProps(DynamicPropertyRegistry registry) {
+        ChatServicePostgresTestConfig.registerProperties(registry);
+        registry.add("CHAT_DB_SCHEMA", () -> SCHEMA);
+    }
+
+    @Autowired
+    private VectorRecallEndpoint endpoint;
+
+    @Autowired
+    private VectorIndexProperties vectorIndexProperties;
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM " + SCHEMA + ".vector_store");
+        vectorIndexProperties.setStorage(VectorIndexProperties.Storage.FULL);
+        flyway.migrate();
+    }
+
+    @Test
+    void report_comparesFootprintAndRecallOfStorageModes() {
+        insertCorpus();
+
+        Map<VectorIndexProperties.Storage, VectorRecallEndpoint.Report> reports =
+                new EnumMap<>(VectorIndexProperties.Storage.class);
+        for (VectorIndexProperties.Storage storage : VectorIndexProperties.Storage.values()) {
+            vectorIndexProperties.setStorage(storage);
+            // Builds the indexes after the rows are in, as a rebuild of an existing store does
+            flyway.migrate();
+            reports.put(
+                    storage,
+                    endpoint.report(
+                            VectorSource.SESSION_DOCUMENTS, 5, VectorRecallEndpoint.MAX_SAMPLES, null, null));
+        }
+
+        StringBuilder table = new StringBuilder(
+                "\n| storage | bytes/vector | index size (KiB) | recall@5 | ANN p50 (ms) | exact p50 (ms) |\n"
+                        + "|---|---|---|---|---|---|\n");
+        reports.forEach((storage, report) -> table.append(String.format(
+                "| %s | %d | %d | %.3f | %.2f | %.2f |%n",
+                storage,
+                report.memory().bytesPerVector(),
+                report.memory().indexBytes() / 1024,
+                report.recall(),
+                report.ann().p50Ms(),
+                report.exact().p50Ms())));
+        log.info("Vector index storage benchmark, {} vectors in {} clusters:{}", CORPUS_SIZE, CLUSTERS, table);
+
+        VectorRecallEndpoint.Report full = reports.get(VectorIndexProperties.Storage.FULL);
+        VectorRecallEndpoint.Report halfvec = reports.get(VectorIndexProperties.Storage.HALFVEC);
+        VectorRecallEndpoint.Report binary = reports.get(VectorIndexProperties.Storage.BINARY);
+        for (VectorRecallEndpoint.Report report : reports.values()) {
+            assertEquals(VectorRecallEndpoint.MAX_SAMPLES, report.samples());
+            assertTrue(report.recall() > 0 && report.recall() <= 1, "recall " + report.recall());
+        }
+        assertEquals(4 * DIMENSIONS, full.memory().bytesPerVector());
+        assertEquals(2 * DIMENSIONS, halfvec.memory().bytesPerVector());
+        assertEquals(DIMENSIONS / 8, binary.memory().bytesPerVector());
+        assertTrue(halfvec.memory().indexBytes() < full.memory().indexBytes());
+        assertTrue(binary.memory().indexBytes() < halfvec.memory().indexBytes());
+    }
+
+    private void insertCorpus() {
+        Random random = new Random(SEED);
+        float[] offset = gaussian(random, 0.5f);
+        float[][] centroids = new float[CLUSTERS][];
+        for (int i = 0; i < CLUSTERS; i++) {
+            centroids[i] = gaussian(random, 1f);
+        }
+        List<UUID> sessions = new ArrayList<>();
+        for (int i = 0; i < SESSIONS; i++) {
+            sessions.add(new UUID(SEED, i));
+        }
+
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < CORPUS_SIZE; i++) {
+            float[] centroid = centroids[random.nextInt(CLUSTERS)];
+            float[] noise = gaussian(random, 0.6f);
+            float[] embedding = new float[DIMENSIONS];
+            for (int d = 0; d < DIMENSIONS; d++) {
+                embedding[d] = offset[d] + centroid[d] + noise[d];
+            }
+            rows.add(new Object[] {
+                new UUID(SEED + 1, i),
+                "chunk " + i,
+                "{\"sessionId\":\"" + sessions.get(i % SESSIONS) + "\",\"source\":\"session-documents\"}",
+                Arrays.toString(normalize(embedding))
+            });
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO " + SCHEMA + ".vector_store (id, content, metadata, embedding)"
+                        + " VALUES (?, ?, ?::json, ?::vector)",
+                rows);
+        jdbcTemplate.execute("ANALYZE " + SCHEMA + ".vector_store");
+    }
+
+    private static float[] gaussian(Random random, float scale) {
+        float[] vector = new float[DIMENSIONS];
+        for (int d = 0; d < DIMENSIONS; d++) {
+            vector[d] = (float) random.nextGaussian() * scale;
+        }
+        return vector;
+    }
+
+    private static float[] normalize(float[] vector) {
+        double norm = 0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        float inverse = (float) (1 / Math.sqrt(norm));
+        for (int d = 0; d < vector.length; d++) {
+            vector[d] *= inverse;
+        }
+        return vector;
+    }
+}
@@ -0,0 +1,109 @@
+package com.ragchat.chat.admission;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.ragchat.chat.admission.AdmissionController.Outcome;
+import com.ragchat.chat.admission.AdmissionController.Permit;
+import com.ragchat.chat.admission.AdmissionController.Priority;
+import com.ragchat.chat.config.OllamaAdmissionProperties;
+import com.ragchat.chat.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class AdmissionControllerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void acquire_admitsQueuedInteractiveWorkBeforeEarlierBatchWork() throws Exception {
+        AdmissionController controller = controller(1, 2);
+        Permit running = controller.acquire(Priority.INTERACTIVE);
+        List<Priority> admissionOrder = new CopyOnWriteArrayList<>();
+
+        Future<?> batch = executor.submit(() -> admitAndRecord(controller, Priority.BATCH, admissionOrder));
+        awaitQueued(1);
+        Future<?> interactive = executor.submit(() -> admitAndRecord(controller, Priority.INTERACTIVE, admissionOrder));
+        awaitQueued(2);
+
+        running.release(Outcome.SUCCESS);
+        batch.get(5, TimeUnit.SECONDS);
+        interactive.get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of(Priority.INTERACTIVE, Priority.BATCH), admissionOrder);
+    }
+
+    @Test
+    void acquire_whenQueueIsFull_shedsLowestPriority() throws Exception {
+        AdmissionController controller = controller(1, 1);
+        Permit running = controller.acquire(Priority.INTERACTIVE);
+        Future<Permit> queuedBatch = executor.submit(() -> controller.acquire(Priority.BATCH));
+        awaitQueued(1);
+
+        ServiceOverloadedException rejected =
+                assertThrows(ServiceOverloadedException.class, () -> controller.acquire(Priority.BATCH));
+        assertTrue(rejected.getRetryAfter().toSeconds() >= 1);
+
+        // Interactive work takes the queued batch call's place instead of being shed itself
+        Future<Permit> queuedInteractive = executor.submit(() -> controller.acquire(Priority.INTERACTIVE));
+        ExecutionException displaced =
+                assertThrows(ExecutionException.class, () -> queuedBatch.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(ServiceOverloadedException.class, displaced.getCause());
+
+        running.release(Outcome.SUCCESS);
+        queuedInteractive.get(5, TimeUnit.SECONDS).release(Outcome.SUCCESS);
+    }
+
+    @Test
+    void release_dropped_backsOffLimit() {
+        OllamaAdmissionProperties.Limiter settings = settings(4, 8);
+        settings.setBackoffRatio(0.5);
+        AdmissionController controller = new AdmissionController("test", settings, meterRegistry);
+
+        controller.acquire(Priority.INTERACTIVE).release(Outcome.DROPPED);
+
+        assertEquals(2.0, meterRegistry.get("ollama.admission.limit").gauge().value());
+    }
+
+    private AdmissionController controller(int limit, int maxQueue) {
+        return new AdmissionController("test", settings(limit, maxQueue), meterRegistry);
+    }
+
+    private static OllamaAdmissionProperties.Limiter settings(int limit, int maxQueue) {
+        OllamaAdmissionProperties.Limiter settings = new OllamaAdmissionProperties.Limiter();
+        settings.setInitialLimit(limit);
+        settings.setMaxLimit(limit);
+        settings.setLatencyThreshold(Duration.ofSeconds(10));
+        settings.setMaxQueue(maxQueue);
+        settings.setMaxWait(Duration.ofSeconds(5));
+        return settings;
+    }
+
+    private static void admitAndRecord(AdmissionController controller, Priority priority, List<Priority> order) {
+        Permit permit = controller.acquire(priority);
+        order.add(priority);
+        permit.release(Outcome.SUCCESS);
+    }
+
+    private void awaitQueued(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("ollama.admission.queued").gauge().value() < expected
+                && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.ragchat.chat.client;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.client.ExpectedCount.times;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withServerError;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+
+import com.ragchat.chat.config.UserServiceClientProperties;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import java.time.Duration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestTemplate;
+
+class UserServiceClientTest {
+
+    private static final String VALIDATE_URL = "http://user-service/user/api/auth/validate-token";
+    private static final int WINDOW = 4;
+
+    private MockRestServiceServer server;
+    private CircuitBreaker circuitBreaker;
+    private UserServiceClient client;
+
+    @BeforeEach
+    void setUp() {
+        RestTemplate restTemplate = new RestTemplate();
+        server = MockRestServiceServer.bindTo(restTemplate).build();
+
+        UserServiceClientProperties properties = new UserServiceClientProperties();
+        properties.setUrl("http://user-service/user");
+
+        circuitBreaker = CircuitBreaker.of(
+                "user-service",
+                CircuitBreakerConfig.custom()
+                        .slidingWindowSize(WINDOW)
+                        .minimumNumberOfCalls(WINDOW)
+                        .waitDurationInOpenState(Duration.ofMinutes(1))
+                        .ignoreExceptions(HttpClientErrorException.class)
+                        .build());
+        client = new UserServiceClient(restTemplate, properties, circuitBreaker, Bulkhead.ofDefaults("user-service"));
+    }
+
+    @Test
+    void validateToken_opensCircuitAfterServerErrors() {
+        server.expect(times(WINDOW), requestTo(VALIDATE_URL)).andRespond(withServerError());
+
+        for (int i = 0; i < WINDOW; i++) {
+            assertThrows(HttpServerErrorException.class, () -> client.validateToken("token"));
+        }
+
+        // The open circuit fails fast without calling user-service again
+        assertThrows(CallNotPermittedException.class, () -> client.validateToken("token"));
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        server.verify();
+    }
+
+    @Test
+    void validateToken_rejectedTokensDoNotOpenCircuit() {
+        server.expect(times(WINDOW * 2), requestTo(VALIDATE_URL)).andRespond(withStatus(HttpStatus.UNAUTHORIZED));
+
+        for (int i = 0; i < WINDOW * 2; i++) {
+            assertThrows(HttpClientErrorException.class, () -> client.validateToken("expired"));
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        server.verify();
+    }
+}
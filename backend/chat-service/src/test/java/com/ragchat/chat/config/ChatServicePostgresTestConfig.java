@@ -24,6 +24,8 @@ public class ChatServicePostgresTestConfig {
         registry.add("CHAT_DB_SCHEMA", () -> "public");
         registry.add("JWT_SECRET", () -> "test-secret-test-secret-test-secret-1234");
         registry.add("USER_SERVICE_URL", () -> "http://localhost:8081/user");
+        // Controller tests stub UserServiceClient, so validate tokens remotely
+        registry.add("JWT_VALIDATION_MODE", () -> "remote");
         // Tight rate limit for tests so we can hit the limit quickly
         registry.add("rate-limit.capacity", () -> 2);
         registry.add("rate-limit.refill-tokens", () -> 2);
@@ -4,6 +4,7 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.fasterxml.jackson.databind.JsonNode;
@@ -112,6 +113,86 @@ class MessageControllerIT {
         assertEquals("Hello from chat IT", first.getContent());
     }
 
+    @Test
+    void createMessage_withRepeatedIdempotencyKey_returnsStoredMessage() throws Exception {
+        UUID userId = UUID.randomUUID();
+
+        when(userServiceClient.validateToken("valid-token"))
+                .thenReturn(
+                        new UserValidationResponse(userId, "chat-it-user", "chat@example.com", LocalDateTime.now()));
+
+        ChatSession session = chatSessionRepository.save(ChatSession.builder()
+                .userId(userId)
+                .sessionName("Retried Session")
+                .favorite(false)
+                .build());
+
+        String messageBody = "{\"sender\":\"" + MessageSender.USER.name() + "\",\"content\":\"Retry me\"}";
+
+        String firstId = null;
+        for (int attempt = 0; attempt < 2; attempt++) {
+            MvcResult result = mockMvc.perform(post("/api/sessions/" + session.getId() + "/messages")
+                            .header("Authorization", "Bearer valid-token")
+                            .header("Idempotency-Key", "retry-1")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(messageBody))
+                    .andExpect(status().isOk())
+                    .andReturn();
+            String id = objectMapper
+                    .readTree(result.getResponse().getContentAsString())
+                    .path("data")
+                    .path("id")
+                    .asText();
+            if (firstId == null) {
+                firstId = id;
+            }
+            assertEquals(firstId, id);
+        }
+
+        // The retry neither stored a second question nor generated a second reply
+        assertEquals(2, chatMessageRepository.findBySessionOrderByMessageOrderAsc(session).size());
+    }
+
+    @Test
+    void streamMessage_persistsUserAndAiMessages() throws Exception {
+        UUID userId = UUID.randomUUID();
+
+        when(userServiceClient.validateToken("valid-token"))
+                .thenReturn(
+                        new UserValidationResponse(userId, "chat-it-user", "chat@example.com", LocalDateTime.now()));
+
+        ChatSession session = ChatSession.builder()
+                .userId(userId)
+                .sessionName("Streaming Session")
+                .favorite(false)
+                .build();
+
+        session = chatSessionRepository.save(session);
+
+        String messageBody =
+                "{" + "\"sender\":\"" + MessageSender.USER.name() + "\"," + "\"content\":\"Stream me\"" + "}";
+
+        MvcResult streamResult = mockMvc.perform(post("/api/sessions/" + session.getId() + "/messages/stream")
+                        .header("Authorization", "Bearer valid-token")
+                        .accept(MediaType.TEXT_EVENT_STREAM)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(messageBody))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        streamResult.getAsyncResult(30000);
+
+        String events = streamResult.getResponse().getContentAsString();
+        assertTrue(events.contains("event:message"));
+        assertTrue(events.contains("event:done"));
+
+        var stored = chatMessageRepository.findBySessionOrderByMessageOrderAsc(session);
+        assertEquals(2, stored.size());
+        assertEquals("Stream me", stored.get(0).getContent());
+        assertEquals(MessageSender.AI, stored.get(1).getSender());
+        assertEquals(2, stored.get(1).getMessageOrder());
+    }
+
     @Test
     void getMessages_returnsStoredMessages() throws Exception {
         UUID userId = UUID.randomUUID();
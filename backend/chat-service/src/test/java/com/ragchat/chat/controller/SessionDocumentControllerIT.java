@@ -15,6 +15,7 @@ import com.ragchat.chat.config.ChatServicePostgresTestConfig;
 import com.ragchat.chat.model.entity.ChatSession;
 import com.ragchat.chat.model.entity.SessionDocument;
 import com.ragchat.chat.repository.ChatSessionRepository;
+import com.ragchat.chat.repository.DocumentIndexJobRepository;
 import com.ragchat.chat.repository.SessionDocumentRepository;
 import io.github.bucket4j.Bucket;
 import java.io.IOException;
@@ -66,6 +67,9 @@ class SessionDocumentControllerIT {
     @Autowired
     private SessionDocumentRepository sessionDocumentRepository;
 
+    @Autowired
+    private DocumentIndexJobRepository documentIndexJobRepository;
+
     @Autowired
     private Map<String, Bucket> rateLimitBuckets;
 
@@ -124,6 +128,8 @@ class SessionDocumentControllerIT {
         assertEquals(MediaType.TEXT_PLAIN_VALUE, doc.getContentType());
         assertTrue(doc.getSizeBytes() > 0);
         assertNotNull(doc.getStoragePath());
+        assertTrue(documentIndexJobRepository.findAll().stream()
+                .anyMatch(job -> job.getDocument().getId().equals(doc.getId())));
     }
 
     @Test
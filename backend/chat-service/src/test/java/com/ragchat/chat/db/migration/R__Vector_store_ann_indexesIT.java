@@ -0,0 +1,90 @@
+package com.ragchat.chat.db.migration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.ragchat.chat.config.ChatServicePostgresTestConfig;
+import com.ragchat.chat.config.VectorIndexProperties;
+import com.ragchat.chat.model.enums.VectorSource;
+import com.ragchat.chat.repository.VectorIndexLayout;
+import java.util.List;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+/** Changing {@code chat.vector-index} re-runs the repeatable migration, which rebuilds the indexes concurrently. */
+@SpringBootTest
+@Import(ChatServicePostgresTestConfig.class)
+@ExtendWith(SpringExtension.class)
+class R__Vector_store_ann_indexesIT {
+
+    @DynamicPropertySource
+    static void registerProps(DynamicPropertyRegistry registry) {
+        ChatServicePostgresTestConfig.registerProperties(registry);
+        registry.add("chat.vector-index.type", () -> "IVFFLAT");
+        registry.add("chat.vector-index.lists", () -> 8);
+    }
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private VectorIndexProperties vectorIndexProperties;
+
+    @Autowired
+    private VectorIndexLayout vectorIndexLayout;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        vectorIndexProperties.setLists(8);
+        flyway.migrate();
+    }
+
+    @Test
+    void startup_buildsConfiguredIndexes() {
+        for (VectorSource source : VectorSource.values()) {
+            String definition = indexDefinition(source);
+            assertTrue(definition.contains("USING ivfflat"), definition);
+            assertTrue(definition.contains("lists='8'"), definition);
+        }
+    }
+
+    @Test
+    void migrate_rebuildsIndexesWhenParametersChange() {
+        vectorIndexProperties.setLists(4);
+
+        // The checksum follows the properties, so Flyway re-applies the migration; with a transactional advisory lock
+        // the concurrent index builds would wait on Flyway's own open transaction and never finish
+        assertEquals(1, flyway.migrate().migrationsExecuted);
+
+        for (VectorSource source : VectorSource.values()) {
+            String definition = indexDefinition(source);
+            assertTrue(definition.contains("lists='4'"), definition);
+        }
+        List<String> leftovers = jdbcTemplate.queryForList(
+                "SELECT indexname FROM pg_indexes WHERE tablename = 'vector_store'"
+                        + " AND (indexname LIKE '%\\_new' OR indexname LIKE '%\\_old' OR indexname LIKE '%\\_hnsw')",
+                String.class);
+        assertEquals(List.of(), leftovers);
+        Boolean allValid = jdbcTemplate.queryForObject(
+                "SELECT bool_and(indisvalid) FROM pg_index WHERE indrelid = 'vector_store'::regclass", Boolean.class);
+        assertEquals(Boolean.TRUE, allValid);
+    }
+
+    private String indexDefinition(VectorSource source) {
+        return jdbcTemplate.queryForObject(
+                "SELECT indexdef FROM pg_indexes WHERE indexname = ?",
+                String.class,
+                vectorIndexLayout.indexName(source));
+    }
+}
@@ -0,0 +1,126 @@
+package com.ragchat.chat.document;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.parser.AutoDetectParser;
+import org.apache.tika.parser.ParseContext;
+import org.apache.tika.sax.BodyContentHandler;
+import org.apache.tika.sax.XHTMLContentHandler;
+import org.junit.jupiter.api.Test;
+
+class ChunkingContentHandlerTest {
+
+    @Test
+    void parse_chunksWholeDocumentBeyondTikaWriteLimitWhileStreaming() throws Exception {
+        StringBuilder text = new StringBuilder();
+        for (int line = 0; line < 5_000; line++) {
+            text.append("Line ").append(line).append(" of a generated document that is larger than Tika's limit.\n");
+        }
+        text.append("The very last line.\n");
+        byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+        assertTrue(bytes.length > 200_000);
+
+        CountingInputStream in = new CountingInputStream(new ByteArrayInputStream(bytes));
+        List<String> chunks = new ArrayList<>();
+        long[] bytesReadAtFirstChunk = {-1};
+        SlidingWindowChunker chunker = new SlidingWindowChunker(1000, 0, chunk -> {
+            if (bytesReadAtFirstChunk[0] < 0) {
+                bytesReadAtFirstChunk[0] = in.count;
+            }
+            chunks.add(chunk);
+        });
+
+        BodyContentHandler handler = new BodyContentHandler(new ChunkingContentHandler(chunker));
+        new AutoDetectParser().parse(in, handler, new Metadata(), new ParseContext());
+        chunker.finish();
+
+        assertTrue(chunks.stream().mapToInt(String::length).sum() > 100_000);
+        assertTrue(chunks.getLast().endsWith("The very last line."), chunks.getLast());
+        // The first chunk was emitted while most of the document was still unread
+        assertTrue(bytesReadAtFirstChunk[0] < bytes.length / 2, "read " + bytesReadAtFirstChunk[0] + " bytes first");
+    }
+
+    @Test
+    void startElement_reportsTikaPageElementsAsPageBoundaries() throws Exception {
+        RecordingChunker chunker = new RecordingChunker();
+        XHTMLContentHandler xhtml =
+                new XHTMLContentHandler(new BodyContentHandler(new ChunkingContentHandler(chunker)), new Metadata());
+
+        xhtml.startDocument();
+        for (String body : List.of("one", "two")) {
+            // Laid out like Tika's PDF parser output, with a nested div inside the page
+            xhtml.startElement("div", "class", "page");
+            xhtml.element("p", "Header");
+            xhtml.startElement("div", "class", "annotation");
+            xhtml.characters("Body " + body);
+            xhtml.endElement("div");
+            xhtml.endElement("div");
+        }
+        xhtml.startElement("div", "class", "attachment");
+        xhtml.characters("Outside");
+        xhtml.endElement("div");
+        xhtml.endDocument();
+
+        assertEquals(
+                "[page]HeaderBodyone[/page][page]HeaderBodytwo[/page]Outside",
+                chunker.events.toString().replaceAll("\\s", ""));
+    }
+
+    private static class RecordingChunker implements TextChunker {
+
+        private final StringBuilder events = new StringBuilder();
+
+        @Override
+        public void append(char[] text, int start, int length) {
+            events.append(text, start, length);
+        }
+
+        @Override
+        public void startPage() {
+            events.append("[page]");
+        }
+
+        @Override
+        public void endPage() {
+            events.append("[/page]");
+        }
+
+        @Override
+        public void finish() {}
+    }
+
+    private static class CountingInputStream extends FilterInputStream {
+
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+    }
+}
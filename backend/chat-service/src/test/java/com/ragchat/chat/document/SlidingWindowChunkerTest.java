@@ -0,0 +1,47 @@
+package com.ragchat.chat.document;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class SlidingWindowChunkerTest {
+
+    @Test
+    void append_emitsOverlappingWindowsIndependentOfHowTextArrives() {
+        String text = "abcdefghij".repeat(25);
+        List<String> chunks = new ArrayList<>();
+        SlidingWindowChunker chunker = new SlidingWindowChunker(100, 20, chunks::add);
+
+        char[] chars = text.toCharArray();
+        for (int start = 0; start < chars.length; start += 7) {
+            chunker.append(chars, start, Math.min(7, chars.length - start));
+        }
+        chunker.finish();
+
+        assertEquals(List.of(text.substring(0, 100), text.substring(80, 180), text.substring(160, 250)), chunks);
+    }
+
+    @Test
+    void finish_doesNotRepeatOverlapWhenTextEndsOnWindowBoundary() {
+        List<String> chunks = new ArrayList<>();
+        SlidingWindowChunker chunker = new SlidingWindowChunker(10, 4, chunks::add);
+
+        chunker.append("0123456789");
+        chunker.finish();
+
+        assertEquals(List.of("0123456789"), chunks);
+    }
+
+    @Test
+    void append_skipsBlankWindowsAndTrimsChunks() {
+        List<String> chunks = new ArrayList<>();
+        SlidingWindowChunker chunker = new SlidingWindowChunker(10, 2, chunks::add);
+
+        chunker.append(" ".repeat(10) + "  hello ");
+        chunker.finish();
+
+        assertEquals(List.of("hello"), chunks);
+    }
+}
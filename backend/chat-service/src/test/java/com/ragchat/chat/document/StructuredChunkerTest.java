@@ -0,0 +1,98 @@
+package com.ragchat.chat.document;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.ragchat.chat.prompt.CharacterRatioTokenEstimator;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class StructuredChunkerTest {
+
+    private static final String SENTENCES = "One two three. Four five six. Seven eight nine.";
+
+    @Test
+    void append_packsWholeSentencesIntoTokenBudget() {
+        assertEquals(List.of("One two three. Four five six.", "Seven eight nine."), chunk(SENTENCES, 30, 0, 0));
+    }
+
+    @Test
+    void finish_repeatsShortLastSentenceAsOverlapWhenItFits() {
+        assertEquals(
+                List.of("One two three. Four five six.", "Four five six. Seven eight nine."),
+                chunk(SENTENCES, 31, 16, 0));
+    }
+
+    @Test
+    void endPage_dropsLinesRepeatedAtPageEdgesFromEveryPage() {
+        String[] bodies = {"Install it.", "Configure it.", "Run it.", "Remove it."};
+        List<String> pages = new ArrayList<>();
+        for (int page = 0; page < bodies.length; page++) {
+            pages.add("ACME Corp Manual\n" + bodies[page] + "\nPage " + (page + 1) + "\n");
+        }
+
+        assertEquals(List.of("Install it.\n\nConfigure it.\n\nRun it.\n\nRemove it."), chunkPages(pages, 1000, 3));
+    }
+
+    @Test
+    void append_keepsRepeatedBodyLines() {
+        String body = "Item A\nTotal: 12.50\n}\nItem B\nTotal: 12.50\n}\nItem C\nTotal: 12.50\n}";
+        List<String> pages = new ArrayList<>();
+        List<String> expected = new ArrayList<>();
+        for (String name : List.of("one", "two", "three")) {
+            String kept = "Chapter " + name + "\nIntro " + name + "\n" + body + "\nSummary " + name + "\nEnd " + name;
+            pages.add("Header\n" + kept + "\nFooter\n");
+            expected.add(kept);
+        }
+
+        assertEquals(List.of(body), chunk(body, 1000, 0, 3));
+        assertEquals(List.of(String.join("\n\n", expected)), chunkPages(pages, 1000, 3));
+    }
+
+    @Test
+    void append_cutsTextWithoutSentenceEndsAtWordsAndOverlongWordsAnywhere() {
+        assertEquals(
+                List.of("alpha beta", "gamma delta", "epsilon zeta"),
+                chunk("alpha beta gamma delta epsilon zeta", 12, 0, 0));
+        assertEquals(List.of("abcdefghij", "klmnopqrst", "uvwxyz"), chunk("abcdefghijklmnopqrstuvwxyz", 10, 0, 0));
+    }
+
+    /** Chunks with one token per character, feeding the text in small pieces as a parser would. */
+    private static List<String> chunk(String text, int maxTokens, int overlapTokens, int boilerplateRepeats) {
+        List<String> chunks = new ArrayList<>();
+        StructuredChunker chunker = chunker(maxTokens, overlapTokens, boilerplateRepeats, chunks);
+        append(chunker, text);
+        chunker.finish();
+        return chunks;
+    }
+
+    private static List<String> chunkPages(List<String> pages, int maxTokens, int boilerplateRepeats) {
+        List<String> chunks = new ArrayList<>();
+        StructuredChunker chunker = chunker(maxTokens, 0, boilerplateRepeats, chunks);
+        for (String page : pages) {
+            chunker.startPage();
+            append(chunker, page);
+            chunker.endPage();
+        }
+        chunker.finish();
+        return chunks;
+    }
+
+    private static StructuredChunker chunker(
+            int maxTokens, int overlapTokens, int boilerplateRepeats, List<String> chunks) {
+        return new StructuredChunker(
+                new CharacterRatioTokenEstimator(1),
+                maxTokens,
+                overlapTokens,
+                boilerplateRepeats,
+                120,
+                chunk -> chunks.add(chunk.toString()));
+    }
+
+    private static void append(StructuredChunker chunker, String text) {
+        char[] chars = text.toCharArray();
+        for (int start = 0; start < chars.length; start += 3) {
+            chunker.append(chars, start, Math.min(3, chars.length - start));
+        }
+    }
+}
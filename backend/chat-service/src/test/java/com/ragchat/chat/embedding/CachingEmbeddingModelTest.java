@@ -0,0 +1,95 @@
+package com.ragchat.chat.embedding;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.ragchat.chat.config.EmbeddingCacheProperties;
+import com.ragchat.chat.repository.EmbeddingCacheRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+
+class CachingEmbeddingModelTest {
+
+    private final List<List<String>> delegateCalls = new ArrayList<>();
+    private final EmbeddingCacheRepository repository = mock(EmbeddingCacheRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private CachingEmbeddingModel model;
+
+    @BeforeEach
+    void setUp() {
+        when(repository.findAll(eq("test-model"), any())).thenReturn(Map.of());
+        model = new CachingEmbeddingModel(
+                new LengthEmbeddingModel(), "test-model", repository, new EmbeddingCacheProperties(), meterRegistry);
+    }
+
+    @Test
+    void call_embedsRepeatedTextOnlyOnce() {
+        List<float[]> first = model.embed(List.of("What is pgvector?", "boilerplate", "boilerplate"));
+        List<float[]> second = model.embed(List.of("  What   is pgvector? "));
+
+        assertEquals(List.of(List.of("What is pgvector?", "boilerplate")), delegateCalls);
+        assertEquals(3, first.size());
+        assertArrayEquals(first.get(1), first.get(2));
+        assertArrayEquals(first.get(0), second.get(0));
+        assertEquals(1.0, lookups("memory"));
+        assertEquals(2.0, lookups("miss"));
+        verify(repository).saveAll(eq("test-model"), anyMap());
+    }
+
+    @Test
+    void call_servesPersistedEmbeddingsWithoutCallingDelegate() {
+        String hash = CachingEmbeddingModel.contentHash("persisted text");
+        when(repository.findAll(eq("test-model"), any())).thenReturn(Map.of(hash, new float[] {42f}));
+
+        float[] embedding = model.embed("persisted text");
+
+        assertArrayEquals(new float[] {42f}, embedding);
+        assertTrue(delegateCalls.isEmpty());
+        assertEquals(1.0, lookups("database"));
+        verify(repository, never()).saveAll(any(), anyMap());
+    }
+
+    private double lookups(String result) {
+        return meterRegistry
+                .get("embedding.cache.lookups")
+                .tag("result", result)
+                .counter()
+                .count();
+    }
+
+    /** Embeds a text as its length and records every request it receives. */
+    private class LengthEmbeddingModel implements EmbeddingModel {
+
+        @Override
+        public EmbeddingResponse call(EmbeddingRequest request) {
+            delegateCalls.add(request.getInstructions());
+            List<Embedding> embeddings = new ArrayList<>();
+            for (int i = 0; i < request.getInstructions().size(); i++) {
+                embeddings.add(new Embedding(
+                        new float[] {request.getInstructions().get(i).length()}, i));
+            }
+            return new EmbeddingResponse(embeddings);
+        }
+
+        @Override
+        public float[] embed(Document document) {
+            return embed(document.getText());
+        }
+    }
+}
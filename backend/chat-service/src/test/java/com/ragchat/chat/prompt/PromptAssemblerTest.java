@@ -0,0 +1,88 @@
+package com.ragchat.chat.prompt;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.ragchat.chat.config.PromptProperties;
+import com.ragchat.chat.model.dto.response.MessageResponse;
+import com.ragchat.chat.model.enums.MessageSender;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.document.Document;
+
+class PromptAssemblerTest {
+
+    private static final int HISTORY_HEADER_LENGTH =
+            "Recent conversation (lines starting with 'User:' are the human, 'Assistant:' are you):\n".length();
+
+    // One token per character keeps the budgets in these tests easy to reason about
+    private final TokenEstimator tokenEstimator = String::length;
+
+    @Test
+    void assemble_keepsStaticPrefixIdenticalAcrossCalls() {
+        PromptAssembler assembler = assembler(new PromptProperties());
+
+        String first = assembler.assemble("First?", List.of(new Document("Chunk")), List.of()).text();
+        String second = assembler.assemble("Second?", List.of(), List.of(message(1, MessageSender.USER, "Hi"))).text();
+
+        assertTrue(first.startsWith(PromptAssembler.SYSTEM_PREFIX));
+        assertTrue(second.startsWith(PromptAssembler.SYSTEM_PREFIX));
+        assertTrue(first.endsWith(PromptAssembler.SYSTEM_SUFFIX));
+    }
+
+    @Test
+    void assemble_dropsChunksThatDoNotFitWhole() {
+        PromptProperties properties = new PromptProperties();
+        properties.setContextTokens(60);
+        PromptAssembler assembler = assembler(properties);
+
+        AssembledPrompt prompt = assembler.assemble(
+                "Question?",
+                List.of(new Document("Short chunk."), new Document("x".repeat(100)), new Document("Another one.")),
+                List.of());
+
+        assertTrue(prompt.text().contains("[1] Short chunk."));
+        assertTrue(prompt.text().contains("[2] Another one."));
+        assertFalse(prompt.text().contains("xxx"));
+        assertEquals(1, prompt.tokens().droppedContextChunks());
+        assertTrue(prompt.tokens().context() <= 60);
+    }
+
+    @Test
+    void assemble_dropsOldestHistoryFirst() {
+        PromptProperties properties = new PromptProperties();
+        properties.setHistoryTokens(HISTORY_HEADER_LENGTH + 40);
+        PromptAssembler assembler = assembler(properties);
+
+        AssembledPrompt prompt = assembler.assemble(
+                "Question?",
+                List.of(),
+                List.of(
+                        message(1, MessageSender.USER, "Oldest question"),
+                        message(2, MessageSender.AI, "Old answer"),
+                        message(3, MessageSender.USER, "Newest")));
+
+        assertFalse(prompt.text().contains("Oldest question"));
+        assertTrue(prompt.text().contains("Assistant: Old answer\nUser: Newest\n"));
+        assertEquals(1, prompt.tokens().droppedHistoryMessages());
+    }
+
+    @Test
+    void truncate_prefersSentenceThenWordBoundary() {
+        PromptAssembler assembler = assembler(new PromptProperties());
+
+        assertEquals("First sentence.", assembler.truncate("First sentence. Second sentence is long.", 25));
+        assertEquals("one two", assembler.truncate("one two three", 10));
+        assertEquals("", assembler.truncate("anything", 0));
+    }
+
+    private PromptAssembler assembler(PromptProperties properties) {
+        return new PromptAssembler(tokenEstimator, properties, new SimpleMeterRegistry());
+    }
+
+    private static MessageResponse message(int order, MessageSender sender, String content) {
+        return new MessageResponse(UUID.randomUUID(), sender, content, order, LocalDateTime.now());
+    }
+}
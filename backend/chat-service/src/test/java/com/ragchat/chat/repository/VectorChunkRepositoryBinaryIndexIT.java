@@ -0,0 +1,74 @@
+package com.ragchat.chat.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.ragchat.chat.config.ChatServicePostgresTestConfig;
+import com.ragchat.chat.model.enums.VectorSource;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.ai.document.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+/** Binary-quantized, Matryoshka-truncated index: candidates come from the bit index and are rescored. */
+@SpringBootTest
+@Import(ChatServicePostgresTestConfig.class)
+@ExtendWith(SpringExtension.class)
+class VectorChunkRepositoryBinaryIndexIT {
+
+    @DynamicPropertySource
+    static void registerProps(DynamicPropertyRegistry registry) {
+        ChatServicePostgresTestConfig.registerProperties(registry);
+        registry.add("chat.vector-index.storage", () -> "BINARY");
+        registry.add("chat.vector-index.dimensions", () -> 256);
+    }
+
+    @Autowired
+    private VectorChunkRepository vectorChunkRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM vector_store");
+    }
+
+    @Test
+    void search_rescoresQuantizedCandidatesAtFullPrecision() {
+        UUID sessionId = UUID.randomUUID();
+        // Identical sign pattern, so the bit index cannot tell them apart; only rescoring orders them correctly
+        insert(sessionId, "closer", vector(1f, 0.1f));
+        insert(sessionId, "further", vector(1f, 0.9f));
+
+        List<Document> results = vectorChunkRepository.search(
+                vector(1f, 0f), VectorChunkRepository.Filter.session(sessionId, VectorSource.SESSION_DOCUMENTS), 2);
+
+        assertEquals(List.of("closer", "further"), results.stream().map(Document::getText).toList());
+        assertTrue(vectorChunkRepository.indexSizeBytes(VectorSource.SESSION_DOCUMENTS) > 0);
+    }
+
+    private void insert(UUID sessionId, String content, float[] embedding) {
+        jdbcTemplate.update(
+                "INSERT INTO vector_store (id, content, metadata, embedding) VALUES (?, ?, ?::json, ?::vector)",
+                UUID.randomUUID(),
+                content,
+                "{\"sessionId\":\"" + sessionId + "\",\"source\":\"session-documents\"}",
+                VectorChunkRepository.toVectorLiteral(embedding));
+    }
+
+    private static float[] vector(float first, float second) {
+        float[] vector = new float[768];
+        vector[0] = first;
+        vector[1] = second;
+        return vector;
+    }
+}
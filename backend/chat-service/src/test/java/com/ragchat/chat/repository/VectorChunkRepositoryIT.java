@@ -0,0 +1,130 @@
+package com.ragchat.chat.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.ragchat.chat.config.ChatServicePostgresTestConfig;
+import com.ragchat.chat.model.enums.VectorSource;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.ai.document.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest
+@Import(ChatServicePostgresTestConfig.class)
+@ExtendWith(SpringExtension.class)
+class VectorChunkRepositoryIT {
+
+    @DynamicPropertySource
+    static void registerProps(DynamicPropertyRegistry registry) {
+        ChatServicePostgresTestConfig.registerProperties(registry);
+    }
+
+    @Autowired
+    private VectorChunkRepository vectorChunkRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM vector_store");
+    }
+
+    @Test
+    void search_preFiltersOnTypedColumnsAndOrdersByDistance() {
+        UUID sessionId = UUID.randomUUID();
+        UUID documentId = UUID.randomUUID();
+        insert(sessionId, documentId, VectorSource.SESSION_DOCUMENTS, "close", axis(0, 1f, 0.1f));
+        insert(sessionId, documentId, VectorSource.SESSION_DOCUMENTS, "far", axis(1, 1f, 0f));
+        insert(sessionId, null, VectorSource.CHAT_MESSAGE, "message", axis(0, 1f, 0f));
+        insert(UUID.randomUUID(), UUID.randomUUID(), VectorSource.SESSION_DOCUMENTS, "other", axis(0, 1f, 0f));
+
+        List<Document> results = vectorChunkRepository.search(
+                axis(0, 1f, 0f), VectorChunkRepository.Filter.session(sessionId, VectorSource.SESSION_DOCUMENTS), 5);
+
+        assertEquals(List.of("close", "far"), results.stream().map(Document::getText).toList());
+        assertTrue(results.get(0).getScore() > results.get(1).getScore());
+        assertEquals(documentId.toString(), results.get(0).getMetadata().get("documentId"));
+    }
+
+    @Test
+    void search_returnsFullTopKForSmallSessionThroughAnnIndex() {
+        // 2000 chunks of other sessions are all closer to the query than any chunk of the small session
+        for (int session = 0; session < 50; session++) {
+            UUID otherSession = UUID.randomUUID();
+            for (int chunk = 0; chunk < 40; chunk++) {
+                insert(otherSession, null, VectorSource.SESSION_DOCUMENTS, "other", axis(0, 1f, chunk * 0.01f));
+            }
+        }
+        UUID sessionId = UUID.randomUUID();
+        for (int chunk = 0; chunk < 8; chunk++) {
+            float[] embedding = axis(2, 1f, 0f);
+            embedding[0] = 0.5f - chunk * 0.05f;
+            insert(sessionId, null, VectorSource.SESSION_DOCUMENTS, "small-" + chunk, embedding);
+        }
+        jdbcTemplate.execute("ANALYZE vector_store");
+
+        // Without the session index the planner can only filter the HNSW scan, as it would for a large session
+        List<Document> results = new TransactionTemplate(transactionManager).execute(status -> {
+            jdbcTemplate.execute("DROP INDEX idx_vector_store_session_source");
+            jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+            List<Document> hits = vectorChunkRepository.search(
+                    axis(0, 1f, 0f),
+                    VectorChunkRepository.Filter.session(sessionId, VectorSource.SESSION_DOCUMENTS),
+                    5);
+            status.setRollbackOnly();
+            return hits;
+        });
+
+        assertEquals(
+                List.of("small-0", "small-1", "small-2", "small-3", "small-4"),
+                results.stream().map(Document::getText).toList());
+    }
+
+    @Test
+    void deleteByDocumentId_removesOnlyThatDocumentsChunks() {
+        UUID sessionId = UUID.randomUUID();
+        UUID documentId = UUID.randomUUID();
+        insert(sessionId, documentId, VectorSource.SESSION_DOCUMENTS, "deleted", axis(0, 1f, 0f));
+        insert(sessionId, UUID.randomUUID(), VectorSource.SESSION_DOCUMENTS, "kept", axis(0, 1f, 0f));
+
+        assertEquals(1, vectorChunkRepository.deleteByDocumentId(documentId));
+
+        List<Document> results = vectorChunkRepository.search(
+                axis(0, 1f, 0f), VectorChunkRepository.Filter.session(sessionId, VectorSource.SESSION_DOCUMENTS), 5);
+        assertEquals(List.of("kept"), results.stream().map(Document::getText).toList());
+    }
+
+    private void insert(UUID sessionId, UUID documentId, VectorSource source, String content, float[] embedding) {
+        String metadata = "{\"sessionId\":\"" + sessionId + "\",\"source\":\"" + source.getValue() + "\""
+                + (documentId != null ? ",\"documentId\":\"" + documentId + "\"" : "") + "}";
+        jdbcTemplate.update(
+                "INSERT INTO vector_store (id, content, metadata, embedding) VALUES (?, ?, ?::json, ?::vector)",
+                UUID.randomUUID(),
+                content,
+                metadata,
+                VectorChunkRepository.toVectorLiteral(embedding));
+    }
+
+    /** A 768-dimensional vector with {@code value} on one axis and {@code rest} on the next. */
+    private static float[] axis(int index, float value, float rest) {
+        float[] vector = new float[768];
+        vector[index] = value;
+        vector[index + 1] = rest;
+        return vector;
+    }
+}
@@ -0,0 +1,118 @@
+package com.ragchat.chat.security;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.ragchat.chat.config.JwtProperties;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import java.util.Date;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+class LocalJwtVerifierTest {
+
+    private static final String CURRENT_SECRET = "mxiRw4s11DY+3hpT07UDzIQAAa7n5b2u5nG4Y4ZyMnE=";
+    private static final String PREVIOUS_SECRET = "q3Jc0yYlq8r3b1x0FZ4z7WbO9yQm5k2H1tV6uN8pR0s=";
+
+    private final LocalJwtVerifier verifier = new LocalJwtVerifier(properties());
+
+    @Test
+    void verify_buildsPrincipalFromClaims() {
+        UUID userId = UUID.randomUUID();
+        String token = token("current", CURRENT_SECRET, userId, null, 60000);
+
+        ChatUserPrincipal principal = verifier.verify(token);
+
+        assertEquals(userId, principal.getUserId());
+        assertEquals("alice", principal.getUsername());
+        assertEquals("alice@example.com", principal.getEmail());
+    }
+
+    @Test
+    void verify_acceptsTokensSignedWithRetiredKey() {
+        UUID userId = UUID.randomUUID();
+        String token = token("previous", PREVIOUS_SECRET, userId, null, 60000);
+
+        assertEquals(userId, verifier.verify(token).getUserId());
+    }
+
+    @Test
+    void verify_acceptsTokensWithoutKeyIdUsingCurrentKey() {
+        UUID userId = UUID.randomUUID();
+        String token = token(null, CURRENT_SECRET, userId, null, 60000);
+
+        assertEquals(userId, verifier.verify(token).getUserId());
+    }
+
+    @Test
+    void verify_rejectsUnknownKeyId() {
+        String token = token("unknown", CURRENT_SECRET, UUID.randomUUID(), null, 60000);
+
+        assertThrows(JwtException.class, () -> verifier.verify(token));
+    }
+
+    @Test
+    void verify_rejectsKeyIdSignedWithWrongSecret() {
+        String token = token("current", PREVIOUS_SECRET, UUID.randomUUID(), null, 60000);
+
+        assertThrows(JwtException.class, () -> verifier.verify(token));
+    }
+
+    @Test
+    void verify_rejectsExpiredToken() {
+        String token = token("current", CURRENT_SECRET, UUID.randomUUID(), null, -120000);
+
+        assertThrows(JwtException.class, () -> verifier.verify(token));
+    }
+
+    @Test
+    void verify_rejectsRefreshTokens() {
+        String token = token("current", CURRENT_SECRET, UUID.randomUUID(), "refresh", 60000);
+
+        assertThrows(JwtException.class, () -> verifier.verify(token));
+    }
+
+    @Test
+    void verify_rejectsRefreshTokensWithoutTypeClaim() {
+        String token = Jwts.builder()
+                .header()
+                .keyId("current")
+                .and()
+                .subject("alice")
+                .claim("userId", UUID.randomUUID().toString())
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + 60000))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(CURRENT_SECRET)))
+                .compact();
+
+        assertThrows(JwtException.class, () -> verifier.verify(token));
+    }
+
+    private static JwtProperties properties() {
+        JwtProperties properties = new JwtProperties();
+        properties.setSecret(CURRENT_SECRET);
+        properties.setKeyId("current");
+        properties.setPreviousKeys(Map.of("previous", PREVIOUS_SECRET));
+        return properties;
+    }
+
+    private static String token(String keyId, String secret, UUID userId, String type, long ttlMs) {
+        var builder = Jwts.builder();
+        if (keyId != null) {
+            builder.header().keyId(keyId).and();
+        }
+        if (type != null) {
+            builder.claim("type", type);
+        }
+        return builder.subject("alice")
+                .claim("userId", userId.toString())
+                .claim("email", "alice@example.com")
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + ttlMs))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret)))
+                .compact();
+    }
+}
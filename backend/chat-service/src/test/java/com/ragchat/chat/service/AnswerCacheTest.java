@@ -0,0 +1,58 @@
+package com.ragchat.chat.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.ragchat.chat.config.AnswerCacheProperties;
+import com.ragchat.chat.model.entity.ChatSession;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+class AnswerCacheTest {
+
+    private final AnswerCache answerCache = new AnswerCache(new AnswerCacheProperties(), new SimpleMeterRegistry());
+
+    @Test
+    void findExact_returnsAnswerForIdenticalPrompt() {
+        ChatSession session = session(UUID.randomUUID(), 0);
+        UUID source = UUID.randomUUID();
+        answerCache.put(session, "prompt", null, "answer", source);
+
+        AnswerCache.Hit hit = answerCache.findExact(session, "prompt").orElseThrow();
+
+        assertEquals(AnswerCache.Tier.EXACT, hit.tier());
+        assertEquals("answer", hit.answer());
+        assertEquals(source, hit.sourceMessageId());
+        assertTrue(answerCache.findExact(session, "other prompt").isEmpty());
+    }
+
+    @Test
+    void findSimilar_matchesOnlyWithinDistance() {
+        ChatSession session = session(UUID.randomUUID(), 0);
+        answerCache.put(session, "prompt", new float[] {1f, 0f}, "answer", UUID.randomUUID());
+
+        assertTrue(answerCache.findSimilar(session, new float[] {1f, 0.01f}, 0.05).isPresent());
+        assertTrue(answerCache.findSimilar(session, new float[] {0f, 1f}, 0.05).isEmpty());
+    }
+
+    @Test
+    void entriesOfPreviousDocumentSetAreNotServed() {
+        UUID sessionId = UUID.randomUUID();
+        ChatSession before = session(sessionId, 0);
+        answerCache.put(before, "prompt", new float[] {1f, 0f}, "stale answer", UUID.randomUUID());
+
+        ChatSession after = session(sessionId, 1);
+
+        assertTrue(answerCache.findExact(after, "prompt").isEmpty());
+        assertTrue(answerCache.findSimilar(after, new float[] {1f, 0f}, 0.05).isEmpty());
+    }
+
+    private static ChatSession session(UUID id, long documentSetVersion) {
+        return ChatSession.builder()
+                .id(id)
+                .userId(UUID.randomUUID())
+                .sessionName("Cache Session")
+                .documentSetVersion(documentSetVersion)
+                .build();
+    }
+}
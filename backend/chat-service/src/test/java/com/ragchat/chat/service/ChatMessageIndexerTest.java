@@ -0,0 +1,142 @@
+package com.ragchat.chat.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.ragchat.chat.config.ChatIndexingProperties;
+import com.ragchat.chat.exception.ServiceOverloadedException;
+import com.ragchat.chat.model.entity.ChatMessage;
+import com.ragchat.chat.model.entity.ChatSession;
+import com.ragchat.chat.model.entity.MessageIndexOutboxEntry;
+import com.ragchat.chat.model.enums.MessageSender;
+import com.ragchat.chat.repository.MessageIndexOutboxRepository;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.web.client.ResourceAccessException;
+
+class ChatMessageIndexerTest {
+
+    private final MessageIndexOutboxRepository outboxRepository = mock(MessageIndexOutboxRepository.class);
+    private final VectorStore vectorStore = mock(VectorStore.class);
+    private final ChatIndexingProperties properties = new ChatIndexingProperties();
+    private final ChatMessageIndexer indexer = new ChatMessageIndexer(outboxRepository, vectorStore, properties);
+
+    @Test
+    void indexNextBatch_retriesFailedBatchPerEntryAndReleasesOnlyTheRejectedMessage() {
+        ChatSession session = ChatSession.builder().id(UUID.randomUUID()).build();
+        MessageIndexOutboxEntry first = entry(session, "first message");
+        MessageIndexOutboxEntry rejected = entry(session, "too long for the model");
+        MessageIndexOutboxEntry last = entry(session, "last message");
+        claim(List.of(first, rejected, last));
+        List<Integer> writes = new ArrayList<>();
+        doAnswer(invocation -> {
+                    List<Document> documents = invocation.getArgument(0);
+                    if (documents.stream().anyMatch(doc -> doc.getText().startsWith("too long"))) {
+                        throw new IllegalArgumentException("input exceeds the context length");
+                    }
+                    writes.add(documents.size());
+                    return null;
+                })
+                .when(vectorStore)
+                .add(anyList());
+
+        assertEquals(3, indexer.indexNextBatch());
+
+        assertEquals(List.of(1, 1), writes);
+        verify(outboxRepository).deleteClaimedEntry(eq(first.getId()), any());
+        verify(outboxRepository).deleteClaimedEntry(eq(last.getId()), any());
+        verify(outboxRepository, never()).deleteClaimedEntry(eq(rejected.getId()), any());
+        verify(outboxRepository)
+                .releaseFailed(
+                        eq(rejected.getId()),
+                        any(),
+                        eq("input exceeds the context length"),
+                        eq(properties.getMaxAttempts()),
+                        anyLong(),
+                        anyLong());
+        verify(outboxRepository, never()).deleteClaimed(any());
+    }
+
+    @Test
+    void indexNextBatch_defersShedBatchWithoutCountingAnAttempt() {
+        ChatSession session = ChatSession.builder().id(UUID.randomUUID()).build();
+        claim(List.of(entry(session, "first message"), entry(session, "second message")));
+        doThrow(new ServiceOverloadedException("Ollama embedding capacity exceeded", Duration.ofSeconds(7)))
+                .when(vectorStore)
+                .add(anyList());
+
+        assertEquals(0, indexer.indexNextBatch());
+
+        verify(vectorStore).add(anyList());
+        verify(outboxRepository).releaseDeferred(any(), eq(7L));
+        verify(outboxRepository, never())
+                .releaseFailed(any(), any(), anyString(), anyInt(), anyLong(), anyLong());
+    }
+
+    @Test
+    void indexNextBatch_defersWholeBatchWhileEmbeddingModelIsUnavailable() {
+        ChatSession session = ChatSession.builder().id(UUID.randomUUID()).build();
+        claim(List.of(entry(session, "first"), entry(session, "second"), entry(session, "third")));
+        doThrow(new ResourceAccessException("I/O error on POST request: Connection refused"))
+                .when(vectorStore)
+                .add(anyList());
+
+        assertEquals(0, indexer.indexNextBatch());
+        assertEquals(0, indexer.indexNextBatch());
+
+        verify(vectorStore, times(2)).add(anyList());
+        verify(outboxRepository).releaseDeferred(any(), eq(properties.getRetryBaseDelaySeconds()));
+        verify(outboxRepository).releaseDeferred(any(), eq(properties.getRetryBaseDelaySeconds() * 2));
+        verify(outboxRepository, never())
+                .releaseFailed(any(), any(), anyString(), anyInt(), anyLong(), anyLong());
+    }
+
+    @Test
+    void indexNextBatch_writesHealthyBatchInOneCall() {
+        ChatSession session = ChatSession.builder().id(UUID.randomUUID()).build();
+        claim(List.of(entry(session, "first message"), entry(session, "second message")));
+
+        indexer.indexNextBatch();
+
+        verify(vectorStore).add(anyList());
+        verify(outboxRepository).deleteClaimed(any());
+        verify(outboxRepository, never())
+                .releaseFailed(any(), any(), anyString(), anyInt(), anyLong(), anyLong());
+    }
+
+    private void claim(List<MessageIndexOutboxEntry> entries) {
+        when(outboxRepository.claimDue(any(), anyLong(), anyInt())).thenReturn(entries.size());
+        when(outboxRepository.findClaimed(any())).thenReturn(entries);
+    }
+
+    private static MessageIndexOutboxEntry entry(ChatSession session, String content) {
+        ChatMessage message = ChatMessage.builder()
+                .id(UUID.randomUUID())
+                .session(session)
+                .sender(MessageSender.USER)
+                .content(content)
+                .messageOrder(1)
+                .build();
+        return MessageIndexOutboxEntry.builder()
+                .id(UUID.randomUUID())
+                .message(message)
+                .build();
+    }
+}
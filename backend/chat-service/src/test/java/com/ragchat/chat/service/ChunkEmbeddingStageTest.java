@@ -0,0 +1,109 @@
+package com.ragchat.chat.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+import com.ragchat.chat.config.DocumentIndexingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.VectorStore;
+
+class ChunkEmbeddingStageTest {
+
+    private final VectorStore vectorStore = mock(VectorStore.class);
+    private final DocumentIndexingProperties properties = new DocumentIndexingProperties();
+    private ChunkEmbeddingStage stage;
+
+    @AfterEach
+    void tearDown() {
+        if (stage != null) {
+            stage.shutdown();
+        }
+    }
+
+    @Test
+    void finish_writesEveryChunkAndGrowsBatchWhileBatchesAreFast() {
+        properties.setBatchSize(4);
+        properties.setMaxBatchSize(16);
+        properties.setBatchLatencyTarget(Duration.ofSeconds(10));
+        List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> batchSizes.add(invocation.<List<Document>>getArgument(0).size()))
+                .when(vectorStore)
+                .add(anyList());
+        stage = new ChunkEmbeddingStage(vectorStore, properties, new SimpleMeterRegistry());
+
+        List<Integer> checkpoints = new CopyOnWriteArrayList<>();
+        int written;
+        try (ChunkEmbeddingStage.Session session = stage.open(UUID.randomUUID(), 0, checkpoints::add)) {
+            for (int i = 0; i < 100; i++) {
+                session.add(new Document("chunk " + i));
+            }
+            written = session.finish();
+        }
+
+        assertEquals(100, written);
+        assertEquals(100, batchSizes.stream().mapToInt(Integer::intValue).sum());
+        assertTrue(stage.currentBatchSize() > 4);
+        assertEquals(100, checkpoints.getLast());
+        for (int i = 1; i < checkpoints.size(); i++) {
+            assertTrue(checkpoints.get(i) > checkpoints.get(i - 1));
+        }
+    }
+
+    @Test
+    void finish_continuesCheckpointFromResumedChunkIndex() {
+        properties.setBatchSize(5);
+        stage = new ChunkEmbeddingStage(vectorStore, properties, new SimpleMeterRegistry());
+
+        List<Integer> checkpoints = new CopyOnWriteArrayList<>();
+        try (ChunkEmbeddingStage.Session session = stage.open(UUID.randomUUID(), 40, checkpoints::add)) {
+            for (int i = 40; i < 50; i++) {
+                session.add(new Document("chunk " + i));
+            }
+            assertEquals(10, session.finish());
+        }
+
+        assertEquals(50, checkpoints.getLast());
+    }
+
+    @Test
+    void finish_halvesBatchSizeWhenBatchesAreSlow() {
+        properties.setBatchSize(8);
+        properties.setMinBatchSize(2);
+        properties.setBatchLatencyTarget(Duration.ofNanos(1));
+        stage = new ChunkEmbeddingStage(vectorStore, properties, new SimpleMeterRegistry());
+
+        try (ChunkEmbeddingStage.Session session = stage.open(UUID.randomUUID(), 0, indexedChunks -> {})) {
+            for (int i = 0; i < 8; i++) {
+                session.add(new Document("chunk " + i));
+            }
+            session.finish();
+        }
+
+        assertEquals(4, stage.currentBatchSize());
+    }
+
+    @Test
+    void finish_rethrowsFailedBatch() {
+        properties.setBatchSize(4);
+        doThrow(new IllegalStateException("ollama unavailable")).when(vectorStore).add(anyList());
+        stage = new ChunkEmbeddingStage(vectorStore, properties, new SimpleMeterRegistry());
+
+        try (ChunkEmbeddingStage.Session session = stage.open(UUID.randomUUID(), 0, indexedChunks -> {})) {
+            for (int i = 0; i < 4; i++) {
+                session.add(new Document("chunk " + i));
+            }
+            IllegalStateException e = assertThrows(IllegalStateException.class, session::finish);
+            assertTrue(e.getMessage().contains("ollama unavailable"));
+        }
+    }
+}
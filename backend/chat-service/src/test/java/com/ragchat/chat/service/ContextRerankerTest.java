@@ -0,0 +1,59 @@
+package com.ragchat.chat.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.ragchat.chat.config.ChatRetrievalProperties;
+import com.ragchat.chat.repository.VectorChunkRepository.Candidate;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.document.Document;
+
+class ContextRerankerTest {
+
+    private static final float[] QUERY = {1, 0, 0};
+
+    @Test
+    void rerank_prefersDiverseChunkOverNearDuplicate() {
+        ChatRetrievalProperties properties = new ChatRetrievalProperties();
+        properties.setTopK(2);
+        properties.setMinScore(0);
+        properties.setMmrLambda(0.3);
+
+        List<Document> result = new ContextReranker(properties)
+                .rerank(
+                        QUERY,
+                        List.of(
+                                candidate("best", 0.9f, 0.1f, 0f),
+                                candidate("duplicate", 0.9f, 0.11f, 0f),
+                                candidate("different", 0.7f, 0f, 0.7f)));
+
+        assertEquals(List.of("best", "different"), result.stream().map(Document::getText).toList());
+    }
+
+    @Test
+    void rerank_dropsCandidatesBelowMinScore() {
+        ChatRetrievalProperties properties = new ChatRetrievalProperties();
+        properties.setMinScore(0.5);
+
+        List<Document> result = new ContextReranker(properties)
+                .rerank(QUERY, List.of(candidate("relevant", 1f, 0.2f, 0f), candidate("unrelated", 0.1f, 1f, 0f)));
+
+        assertEquals(List.of("relevant"), result.stream().map(Document::getText).toList());
+    }
+
+    @Test
+    void dot_handlesLengthsNotDivisibleByFour() {
+        float[] a = {1, 2, 3, 4, 5};
+        float[] b = {2, 2, 2, 2, 2};
+
+        assertEquals(30f, ContextReranker.dot(a, 0, b, 0, 5), 1e-6);
+        assertEquals(18f, ContextReranker.dot(a, 2, b, 0, 3), 1e-6);
+    }
+
+    private static Candidate candidate(String text, float... embedding) {
+        // Cosine similarity to QUERY, as the vector search would report it
+        double score = embedding[0] / Math.sqrt(ContextReranker.dot(embedding, 0, embedding, 0, embedding.length));
+        Document document = Document.builder().text(text).score(score).build();
+        return new Candidate(document, embedding);
+    }
+}
@@ -0,0 +1,236 @@
+package com.ragchat.chat.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import com.ragchat.chat.config.ChatServicePostgresTestConfig;
+import com.ragchat.chat.config.DocumentIndexingProperties;
+import com.ragchat.chat.model.entity.ChatSession;
+import com.ragchat.chat.model.entity.DocumentIndexJob;
+import com.ragchat.chat.model.entity.SessionDocument;
+import com.ragchat.chat.model.enums.SessionDocumentStatus;
+import com.ragchat.chat.repository.ChatSessionRepository;
+import com.ragchat.chat.repository.DocumentIndexJobRepository;
+import com.ragchat.chat.repository.SessionDocumentRepository;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+/**
+ * Drives the document indexing queue directly: claiming order, lease takeover, retry backoff and giving up. The jobs
+ * live in their own schema, so the pollers of other cached test contexts cannot claim them, and this context's poller
+ * only runs once at startup.
+ */
+@SpringBootTest
+@Import(ChatServicePostgresTestConfig.class)
+@ExtendWith(SpringExtension.class)
+class DocumentIndexingWorkerIT {
+
+    private static final String SCHEMA = "document_indexing_it";
+
+    @DynamicPropertySource
+    static void registerProps(DynamicPropertyRegistry registry) {
+        ChatServicePostgresTestConfig.registerProperties(registry);
+        registry.add("CHAT_DB_SCHEMA", () -> SCHEMA);
+        registry.add("chat.document-indexing.poll-interval-ms", () -> 3_600_000);
+    }
+
+    @Autowired
+    private DocumentIndexingWorker worker;
+
+    @Autowired
+    private DocumentIndexJobRepository jobRepository;
+
+    @Autowired
+    private SessionDocumentRepository sessionDocumentRepository;
+
+    @Autowired
+    private ChatSessionRepository chatSessionRepository;
+
+    @Autowired
+    private DocumentIndexingProperties properties;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoBean
+    private VectorStore vectorStore;
+
+    @TempDir
+    Path uploads;
+
+    @AfterEach
+    void tearDown() {
+        chatSessionRepository.deleteAll();
+    }
+
+    @Test
+    void claimNext_prefersSmallDocuments() throws Exception {
+        queue("large", 1_000_000);
+        SessionDocument small = queue("small", 1_000);
+
+        assertEquals(small.getId(), claim().getDocument().getId());
+    }
+
+    @Test
+    void claimNext_agedLargeDocumentOvertakesNewerSmallerOne() throws Exception {
+        SessionDocument large = queue("large", 1_000_000);
+        queue("small", 100_000);
+        // Waited an hour: competes as if it were about 1/61 of its size
+        jdbcTemplate.update(
+                "UPDATE " + SCHEMA + ".document_index_jobs SET created_at = now() - interval '1 hour'"
+                        + " WHERE document_id = ?",
+                large.getId());
+
+        assertEquals(large.getId(), claim().getDocument().getId());
+    }
+
+    @Test
+    void claimNext_takesOverJobOnlyOnceItsLeaseHasExpired() throws Exception {
+        SessionDocument document = queue("leased", 1_000);
+        lease(document, "now() + interval '5 minutes'");
+
+        assertEquals(
+                0,
+                jobRepository.claimNext(
+                        UUID.randomUUID(), properties.getLeaseSeconds(), properties.getAgingSeconds()));
+
+        lease(document, "now() - interval '1 second'");
+
+        assertEquals(document.getId(), claim().getDocument().getId());
+    }
+
+    @Test
+    void process_resumesDocumentLeftProcessingByDeadInstance() throws Exception {
+        SessionDocument document = queue("stuck", 1_000);
+        document.setIndexingStatus(SessionDocumentStatus.PROCESSING);
+        sessionDocumentRepository.save(document);
+        lease(document, "now() - interval '1 second'");
+
+        DocumentIndexJob job = claim();
+        worker.process(job.getLockToken());
+
+        SessionDocument indexed = sessionDocumentRepository.findById(document.getId()).orElseThrow();
+        assertEquals(SessionDocumentStatus.READY, indexed.getIndexingStatus());
+        assertTrue(indexed.getTotalChunks() > 0);
+        assertTrue(jobRepository.findById(job.getId()).isEmpty());
+        verify(vectorStore).add(anyList());
+    }
+
+    @Test
+    void process_releasesFailedAttemptWithExponentialBackoff() throws Exception {
+        doThrow(new IllegalArgumentException("embedding failed")).when(vectorStore).add(anyList());
+        SessionDocument document = queue("failing", 1_000);
+        jdbcTemplate.update(
+                "UPDATE " + SCHEMA + ".document_index_jobs SET attempts = 2 WHERE document_id = ?", document.getId());
+
+        DocumentIndexJob job = claim();
+        worker.process(job.getLockToken());
+
+        Map<String, Object> row = jdbcTemplate.queryForMap(
+                "SELECT attempts, lock_token, last_error,"
+                        + " EXTRACT(EPOCH FROM next_attempt_at - now()) AS delay_seconds"
+                        + " FROM " + SCHEMA + ".document_index_jobs WHERE id = ?",
+                job.getId());
+        assertEquals(3, row.get("attempts"));
+        assertNull(row.get("lock_token"));
+        assertTrue(((String) row.get("last_error")).contains("embedding failed"));
+        // Third failure: base delay doubled twice
+        double delay = ((Number) row.get("delay_seconds")).doubleValue();
+        double expected = properties.getRetryBaseDelaySeconds() * 4;
+        assertTrue(delay > expected - 5 && delay <= expected, "delay " + delay);
+        assertEquals(
+                SessionDocumentStatus.PENDING,
+                sessionDocumentRepository.findById(document.getId()).orElseThrow().getIndexingStatus());
+    }
+
+    @Test
+    void process_marksDocumentFailedAfterMaxAttempts() throws Exception {
+        doThrow(new IllegalArgumentException("embedding failed")).when(vectorStore).add(anyList());
+        SessionDocument document = queue("hopeless", 1_000);
+        jdbcTemplate.update(
+                "UPDATE " + SCHEMA + ".document_index_jobs SET attempts = ? WHERE document_id = ?",
+                properties.getMaxAttempts() - 1,
+                document.getId());
+
+        DocumentIndexJob job = claim();
+        worker.process(job.getLockToken());
+
+        SessionDocument failed = sessionDocumentRepository.findById(document.getId()).orElseThrow();
+        assertEquals(SessionDocumentStatus.FAILED, failed.getIndexingStatus());
+        assertTrue(failed.getErrorMessage().contains("embedding failed"));
+        assertTrue(jobRepository.findById(job.getId()).isEmpty());
+    }
+
+    @Test
+    void process_skipsJobClaimedByAnotherWorker() {
+        worker.process(UUID.randomUUID());
+
+        verify(vectorStore, never()).add(anyList());
+    }
+
+    /** Claims the next due job and returns it with its lease token. */
+    private DocumentIndexJob claim() {
+        UUID lockToken = UUID.randomUUID();
+        assertEquals(
+                1, jobRepository.claimNext(lockToken, properties.getLeaseSeconds(), properties.getAgingSeconds()));
+        return jobRepository.findClaimed(lockToken).orElseThrow();
+    }
+
+    private void lease(SessionDocument document, String lockedUntil) {
+        jdbcTemplate.update(
+                "UPDATE " + SCHEMA + ".document_index_jobs SET lock_token = ?, locked_until = " + lockedUntil
+                        + " WHERE document_id = ?",
+                UUID.randomUUID(),
+                document.getId());
+    }
+
+    /** Stores an uploaded text document and queues it like an upload does. */
+    private SessionDocument queue(String name, long sizeBytes) throws Exception {
+        ChatSession session = chatSessionRepository.save(ChatSession.builder()
+                .userId(UUID.randomUUID())
+                .sessionName("Indexing " + name)
+                .favorite(false)
+                .build());
+        Path file = Files.writeString(uploads.resolve(name + ".txt"), "The " + name + " document. It has two lines.");
+        SessionDocument document = sessionDocumentRepository.save(SessionDocument.builder()
+                .session(session)
+                .originalFilename(name + ".txt")
+                .contentType("text/plain")
+                .sizeBytes(sizeBytes)
+                .storagePath(file.toString())
+                .indexingStatus(SessionDocumentStatus.PENDING)
+                .build());
+        LocalDateTime now = LocalDateTime.now();
+        jobRepository.save(DocumentIndexJob.builder()
+                .document(document)
+                .sizeBytes(sizeBytes)
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .build());
+        // Claiming compares against the database clock
+        jdbcTemplate.update(
+                "UPDATE " + SCHEMA + ".document_index_jobs SET next_attempt_at = now(), created_at = now()"
+                        + " WHERE document_id = ?",
+                document.getId());
+        return document;
+    }
+}
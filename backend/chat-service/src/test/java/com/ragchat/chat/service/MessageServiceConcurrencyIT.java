@@ -0,0 +1,228 @@
+package com.ragchat.chat.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+import com.ragchat.chat.config.ChatServicePostgresTestConfig;
+import com.ragchat.chat.model.dto.request.CreateMessageRequest;
+import com.ragchat.chat.model.entity.ChatMessage;
+import com.ragchat.chat.model.entity.ChatSession;
+import com.ragchat.chat.model.enums.MessageSender;
+import com.ragchat.chat.repository.ChatMessageRepository;
+import com.ragchat.chat.repository.ChatSessionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+/**
+ * Load test for the message pipeline: with a connection pool of {@value #POOL_SIZE}, {@value #CONCURRENT_CHATS}
+ * chats must be able to wait on the LLM at the same time. When the whole pipeline ran in one transaction the number of
+ * concurrent generations was capped at the pool size.
+ */
+@SpringBootTest
+@Import(ChatServicePostgresTestConfig.class)
+@ExtendWith(SpringExtension.class)
+class MessageServiceConcurrencyIT {
+
+    private static final int POOL_SIZE = 2;
+    private static final int CONCURRENT_CHATS = 8;
+
+    @DynamicPropertySource
+    static void registerProps(DynamicPropertyRegistry registry) {
+        ChatServicePostgresTestConfig.registerProperties(registry);
+        registry.add("spring.datasource.hikari.maximum-pool-size", () -> POOL_SIZE);
+        // The admission limit is not what these tests are about; let every chat reach the LLM at once
+        registry.add("chat.admission.chat.initial-limit", () -> CONCURRENT_CHATS);
+    }
+
+    @Autowired
+    private MessageService messageService;
+
+    @Autowired
+    private ChatSessionRepository chatSessionRepository;
+
+    @Autowired
+    private ChatMessageRepository chatMessageRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockitoBean(answers = Answers.RETURNS_DEEP_STUBS)
+    private ChatClient chatClient;
+
+    @BeforeEach
+    void setUp() {
+        chatSessionRepository.deleteAll();
+        chatMessageRepository.deleteAll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        chatSessionRepository.deleteAll();
+        chatMessageRepository.deleteAll();
+    }
+
+    @Test
+    void createMessage_generationsAreNotBoundByConnectionPool() throws Exception {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger peakInFlight = new AtomicInteger();
+        CountDownLatch allGenerating = new CountDownLatch(CONCURRENT_CHATS);
+
+        when(chatClient.prompt().user(anyString()).call().content()).thenAnswer(invocation -> {
+            peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            allGenerating.countDown();
+            // Simulates a slow LLM: every generation waits until all chats are generating at once
+            allGenerating.await(10, TimeUnit.SECONDS);
+            inFlight.decrementAndGet();
+            return "Generated answer";
+        });
+
+        List<ChatSession> sessions = new ArrayList<>();
+        UUID userId = UUID.randomUUID();
+        for (int i = 0; i < CONCURRENT_CHATS; i++) {
+            sessions.add(chatSessionRepository.save(ChatSession.builder()
+                    .userId(userId)
+                    .sessionName("Load Session " + i)
+                    .favorite(false)
+                    .build()));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT_CHATS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (ChatSession session : sessions) {
+                futures.add(executor.submit(() -> messageService.createMessage(
+                        userId, session.getId(), new CreateMessageRequest(MessageSender.USER, "Question"))));
+            }
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(CONCURRENT_CHATS, peakInFlight.get());
+
+        for (ChatSession session : sessions) {
+            List<ChatMessage> stored = chatMessageRepository.findBySessionOrderByMessageOrderAsc(session);
+            assertEquals(2, stored.size());
+            assertEquals("Generated answer", stored.get(1).getContent());
+        }
+    }
+
+    @Test
+    void createMessage_identicalConcurrentQuestionsShareOneGeneration() throws Exception {
+        AtomicInteger generations = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        when(chatClient.prompt().user(anyString()).call().content()).thenAnswer(invocation -> {
+            generations.incrementAndGet();
+            release.await(10, TimeUnit.SECONDS);
+            return "Shared answer";
+        });
+
+        UUID userId = UUID.randomUUID();
+        ChatSession session = chatSessionRepository.save(ChatSession.builder()
+                .userId(userId)
+                .sessionName("Retried Session")
+                .favorite(false)
+                .build());
+        Counter coalesced = meterRegistry.counter("chat.generation.coalesced");
+        double coalescedBefore = coalesced.count();
+        double chatSlotsInUse;
+
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT_CHATS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < CONCURRENT_CHATS; i++) {
+                // Same question up to case and whitespace, as sent by retrying clients or several tabs
+                String question = i % 2 == 0 ? "What is RAG?" : "  what is  rag? ";
+                futures.add(executor.submit(() -> messageService.createMessage(
+                        userId, session.getId(), new CreateMessageRequest(MessageSender.USER, question))));
+            }
+            // Release the leader only once every other request is waiting for it
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (coalesced.count() - coalescedBefore < CONCURRENT_CHATS - 1 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            // Followers wait without holding an Ollama slot; only the leader's LLM call does
+            chatSlotsInUse = meterRegistry
+                    .get("ollama.admission.in-flight")
+                    .tag("limiter", "chat")
+                    .gauge()
+                    .value();
+            release.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, generations.get());
+        assertEquals(1, chatSlotsInUse);
+        List<ChatMessage> stored = chatMessageRepository.findBySessionOrderByMessageOrderAsc(session);
+        assertEquals(CONCURRENT_CHATS * 2, stored.size());
+        for (int i = 1; i < stored.size(); i += 2) {
+            assertEquals("Shared answer", stored.get(i).getContent());
+        }
+    }
+
+    @Test
+    void createMessage_concurrentPostsToOneSessionGetDistinctOrders() throws Exception {
+        when(chatClient.prompt().user(anyString()).call().content()).thenReturn("Generated answer");
+
+        UUID userId = UUID.randomUUID();
+        ChatSession session = chatSessionRepository.save(ChatSession.builder()
+                .userId(userId)
+                .sessionName("Shared Session")
+                .favorite(false)
+                .build());
+
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT_CHATS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < CONCURRENT_CHATS; i++) {
+                String question = "Question " + i;
+                futures.add(executor.submit(() -> messageService.createMessage(
+                        userId, session.getId(), new CreateMessageRequest(MessageSender.USER, question))));
+            }
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<ChatMessage> stored = chatMessageRepository.findBySessionOrderByMessageOrderAsc(session);
+        assertEquals(CONCURRENT_CHATS * 2, stored.size());
+        for (int i = 0; i < stored.size(); i += 2) {
+            // Each user message is immediately followed by its own reply
+            assertEquals(i + 1, stored.get(i).getMessageOrder());
+            assertEquals(MessageSender.USER, stored.get(i).getSender());
+            assertEquals(i + 2, stored.get(i + 1).getMessageOrder());
+            assertEquals(MessageSender.AI, stored.get(i + 1).getSender());
+        }
+    }
+}
@@ -20,6 +20,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
@@ -43,6 +44,9 @@ class MessageServiceIT {
     @Autowired
     private ChatMessageRepository chatMessageRepository;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @BeforeEach
     void setUp() {
         chatSessionRepository.deleteAll();
@@ -106,4 +110,74 @@ class MessageServiceIT {
         assertEquals("First", responses.content().get(3).content());
         assertEquals(1, responses.content().get(3).messageOrder());
     }
+
+    @Test
+    void getMessagesPage_firstPageFromRecentWindowMatchesDatabasePaging() {
+        UUID userId = UUID.randomUUID();
+        ChatSession session = chatSessionRepository.save(ChatSession.builder()
+                .userId(userId)
+                .sessionName("Paged Session")
+                .favorite(false)
+                .build());
+
+        messageService.createMessage(userId, session.getId(), new CreateMessageRequest(MessageSender.USER, "First"));
+        messageService.createMessage(userId, session.getId(), new CreateMessageRequest(MessageSender.USER, "Second"));
+
+        PageResponse<MessageResponse> first = messageService.getMessagesPage(userId, session.getId(), 0, 3);
+        PageResponse<MessageResponse> second = messageService.getMessagesPage(userId, session.getId(), 1, 3);
+
+        assertEquals(List.of(4, 3, 2), first.content().stream().map(MessageResponse::messageOrder).toList());
+        assertEquals(4, first.totalElements());
+        assertEquals(2, first.totalPages());
+        assertTrue(first.hasNext());
+        assertFalse(first.hasPrevious());
+        assertEquals(List.of(1), second.content().stream().map(MessageResponse::messageOrder).toList());
+        assertEquals(4, second.totalElements());
+    }
+
+    @Test
+    void getMessagesPage_firstPageShowsMessagesWrittenBehindTheRecentWindow() {
+        UUID userId = UUID.randomUUID();
+        ChatSession session = chatSessionRepository.save(ChatSession.builder()
+                .userId(userId)
+                .sessionName("Polled Session")
+                .favorite(false)
+                .build());
+        messageService.createMessage(userId, session.getId(), new CreateMessageRequest(MessageSender.USER, "First"));
+        messageService.getMessagesPage(userId, session.getId(), 0, 10);
+
+        // Written without going through this instance's window, as another instance would
+        chatMessageRepository.save(ChatMessage.builder()
+                .session(session)
+                .sender(MessageSender.AI)
+                .content("From another instance")
+                .messageOrder(3)
+                .build());
+
+        PageResponse<MessageResponse> page = messageService.getMessagesPage(userId, session.getId(), 0, 10);
+
+        assertEquals(List.of(3, 2, 1), page.content().stream().map(MessageResponse::messageOrder).toList());
+        assertEquals("From another instance", page.content().getFirst().content());
+        assertEquals(3, page.totalElements());
+    }
+
+    @Test
+    void createMessage_queuesOnlyIndexableMessagesInOutbox() {
+        UUID userId = UUID.randomUUID();
+        ChatSession session = chatSessionRepository.save(ChatSession.builder()
+                .userId(userId)
+                .sessionName("Outbox Session")
+                .favorite(false)
+                .build());
+
+        MessageResponse indexed = messageService.createMessage(
+                userId,
+                session.getId(),
+                new CreateMessageRequest(MessageSender.USER, "How do I rotate the signing keys for tokens?"));
+        messageService.createMessage(userId, session.getId(), new CreateMessageRequest(MessageSender.USER, "ok"));
+
+        // The failed AI replies and the short message are skipped by the indexing policy
+        List<UUID> queued = jdbcTemplate.queryForList("SELECT message_id FROM message_index_outbox", UUID.class);
+        assertEquals(List.of(indexed.id()), queued);
+    }
 }
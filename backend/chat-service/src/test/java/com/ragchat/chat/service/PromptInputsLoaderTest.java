@@ -0,0 +1,93 @@
+package com.ragchat.chat.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.ragchat.chat.config.ChatRetrievalProperties;
+import com.ragchat.chat.logging.MdcTaskDecorator;
+import com.ragchat.chat.model.dto.response.MessageResponse;
+import com.ragchat.chat.model.enums.MessageSender;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.document.Document;
+
+class PromptInputsLoaderTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void load_runsBranchesConcurrently() {
+        PromptInputsLoader loader = loader(Duration.ofSeconds(5), Duration.ofSeconds(5));
+        CountDownLatch bothStarted = new CountDownLatch(2);
+
+        PromptInputsLoader.PromptInputs inputs = loader.load(
+                () -> {
+                    bothStarted.countDown();
+                    assertTrue(bothStarted.await(2, TimeUnit.SECONDS));
+                    return new PromptInputsLoader.Retrieval(new float[] {1f}, List.of(new Document("chunk")));
+                },
+                () -> {
+                    bothStarted.countDown();
+                    assertTrue(bothStarted.await(2, TimeUnit.SECONDS));
+                    return List.of(message());
+                });
+
+        assertArrayEquals(new float[] {1f}, inputs.question());
+        assertEquals(1, inputs.contextDocuments().size());
+        assertEquals(1, inputs.recentMessages().size());
+    }
+
+    @Test
+    void load_slowVectorSearchDegradesToNoContext() {
+        PromptInputsLoader loader = loader(Duration.ofMillis(100), Duration.ofSeconds(5));
+        CountDownLatch interrupted = new CountDownLatch(1);
+
+        long start = System.nanoTime();
+        PromptInputsLoader.PromptInputs inputs = loader.load(
+                () -> {
+                    try {
+                        Thread.sleep(10_000);
+                    } catch (InterruptedException e) {
+                        interrupted.countDown();
+                        throw e;
+                    }
+                    return new PromptInputsLoader.Retrieval(new float[] {1f}, List.of(new Document("too late")));
+                },
+                () -> List.of(message()));
+
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+        assertNull(inputs.question());
+        assertTrue(inputs.contextDocuments().isEmpty());
+        assertEquals(1, inputs.recentMessages().size());
+        assertDoesNotThrow(() -> assertTrue(interrupted.await(2, TimeUnit.SECONDS)));
+        assertEquals(
+                1,
+                meterRegistry
+                        .get("chat.pregeneration.branch")
+                        .tag("branch", "retrieval")
+                        .tag("outcome", "timeout")
+                        .timer()
+                        .count());
+        assertNull(meterRegistry
+                .find("chat.pregeneration.branch")
+                .tag("branch", "retrieval")
+                .tag("outcome", "error")
+                .timer());
+    }
+
+    private PromptInputsLoader loader(Duration vectorSearchTimeout, Duration historyTimeout) {
+        ChatRetrievalProperties properties = new ChatRetrievalProperties();
+        properties.setVectorSearchTimeout(vectorSearchTimeout);
+        properties.setHistoryTimeout(historyTimeout);
+        return new PromptInputsLoader(new MdcTaskDecorator(), properties, meterRegistry);
+    }
+
+    private static MessageResponse message() {
+        return new MessageResponse(UUID.randomUUID(), MessageSender.USER, "Hi", 1, LocalDateTime.now());
+    }
+}
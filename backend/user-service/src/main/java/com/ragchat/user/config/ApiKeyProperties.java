@@ -0,0 +1,20 @@
+package com.ragchat.user.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "api-key")
+public class ApiKeyProperties {
+
+    /** Server-side secret for the HMAC under which API keys are looked up; never leaves the service. */
+    private String hashSecret;
+
+    public String getHashSecret() {
+        return hashSecret;
+    }
+
+    public void setHashSecret(String hashSecret) {
+        this.hashSecret = hashSecret;
+    }
+}
@@ -0,0 +1,44 @@
+package com.ragchat.user.config;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "jwt")
+public class JwtProperties {
+
+    /** Base64-encoded HMAC secret used to sign new tokens. */
+    private String secret;
+
+    /** Key id written to the {@code kid} header of new tokens. */
+    private String keyId = "primary";
+
+    /** Retired signing keys (kid to base64 secret) that are still accepted for verification during rotation. */
+    private Map<String, String> previousKeys = new HashMap<>();
+
+    public String getSecret() {
+        return secret;
+    }
+
+    public void setSecret(String secret) {
+        this.secret = secret;
+    }
+
+    public String getKeyId() {
+        return keyId;
+    }
+
+    public void setKeyId(String keyId) {
+        this.keyId = keyId;
+    }
+
+    public Map<String, String> getPreviousKeys() {
+        return previousKeys;
+    }
+
+    public void setPreviousKeys(Map<String, String> previousKeys) {
+        this.previousKeys = previousKeys;
+    }
+}
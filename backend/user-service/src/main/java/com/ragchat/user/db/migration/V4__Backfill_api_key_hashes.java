@@ -0,0 +1,36 @@
+package com.ragchat.user.db.migration;
+
+import com.ragchat.user.util.ApiKeyHasher;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import lombok.RequiredArgsConstructor;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.stereotype.Component;
+
+/**
+ * Computes {@code api_key_hash} for users created before the column existed. The hash is keyed with a secret from the
+ * application configuration, so it cannot be written as a SQL migration.
+ */
+@Component
+@RequiredArgsConstructor
+public class V4__Backfill_api_key_hashes extends BaseJavaMigration {
+
+    private final ApiKeyHasher apiKeyHasher;
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        try (Statement select = context.getConnection().createStatement();
+                ResultSet rows = select.executeQuery("SELECT id, api_key FROM users WHERE api_key_hash IS NULL");
+                PreparedStatement update = context.getConnection()
+                        .prepareStatement("UPDATE users SET api_key_hash = ? WHERE id = ?")) {
+            while (rows.next()) {
+                update.setString(1, apiKeyHasher.hash(rows.getString("api_key")));
+                update.setObject(2, rows.getObject("id"));
+                update.addBatch();
+            }
+            update.executeBatch();
+        }
+    }
+}
@@ -1,10 +1,12 @@
 package com.ragchat.user.model.entity;
 
+import com.ragchat.user.model.listener.ApiKeyHashListener;
 import jakarta.persistence.*;
 import java.util.UUID;
 import lombok.*;
 
 @Entity
+@EntityListeners(ApiKeyHashListener.class)
 @Table(name = "users")
 @Getter
 @Setter
@@ -29,6 +31,9 @@ public class User extends AuditableEntity {
     @Column(name = "api_key", nullable = false, unique = true, length = 64)
     private String apiKey;
 
+    @Column(name = "api_key_hash", nullable = false, unique = true, length = 64)
+    private String apiKeyHash;
+
     @Column(name = "is_active", nullable = false)
     @Builder.Default
     private Boolean isActive = true;
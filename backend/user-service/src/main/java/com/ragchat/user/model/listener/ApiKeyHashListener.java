@@ -0,0 +1,24 @@
+package com.ragchat.user.model.listener;
+
+import com.ragchat.user.model.entity.User;
+import com.ragchat.user.util.ApiKeyHasher;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/** Keeps {@code users.api_key_hash} in step with the API key whenever a user is written. */
+@Component
+@RequiredArgsConstructor
+public class ApiKeyHashListener {
+
+    private final ApiKeyHasher apiKeyHasher;
+
+    @PrePersist
+    @PreUpdate
+    public void hashApiKey(User user) {
+        if (user.getApiKey() != null) {
+            user.setApiKeyHash(apiKeyHasher.hash(user.getApiKey()));
+        }
+    }
+}
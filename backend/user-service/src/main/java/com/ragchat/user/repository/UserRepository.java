@@ -15,7 +15,7 @@ public interface UserRepository extends JpaRepository<User, UUID> {
 
     Optional<User> findByUsernameOrEmail(String username, String email);
 
-    Optional<User> findByApiKey(String apiKey);
+    Optional<User> findByApiKeyHash(String apiKeyHash);
 
     boolean existsByUsername(String username);
 
@@ -9,6 +9,8 @@ import com.ragchat.user.model.entity.User;
 import com.ragchat.user.repository.UserRepository;
 import com.ragchat.user.security.UserPrincipal;
 import com.ragchat.user.util.ApiKeyGenerator;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -82,11 +84,17 @@ public class AuthService {
     }
 
     public AuthResponse refreshToken(String refreshToken) {
-        if (!jwtService.validateToken(refreshToken)) {
+        Claims claims;
+        try {
+            claims = jwtService.parseClaims(refreshToken);
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new BadCredentialsException("Invalid refresh token");
+        }
+        if (!jwtService.isRefreshToken(claims)) {
             throw new BadCredentialsException("Invalid refresh token");
         }
 
-        String username = jwtService.extractUsername(refreshToken);
+        String username = claims.getSubject();
         User user = userRepository
                 .findByUsername(username)
                 .orElseThrow(() -> new BadCredentialsException("User not found"));
@@ -1,11 +1,20 @@
 package com.ragchat.user.service;
 
+import com.ragchat.user.config.JwtProperties;
 import com.ragchat.user.security.UserPrincipal;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.UnsupportedJwtException;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import java.security.Key;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.UUID;
 import javax.crypto.SecretKey;
 import org.springframework.beans.factory.annotation.Value;
@@ -14,8 +23,11 @@ import org.springframework.stereotype.Service;
 @Service
 public class JwtService {
 
-    @Value("${jwt.secret}")
-    private String secret;
+    private final JwtProperties jwtProperties;
+
+    // Decoding the secret and building the parser are comparatively expensive, so both are done once
+    private final SecretKey signingKey;
+    private final JwtParser parser;
 
     @Value("${jwt.expiration-ms}")
     private long expirationMs;
@@ -23,30 +35,99 @@ public class JwtService {
     @Value("${jwt.refresh-expiration-ms}")
     private long refreshExpirationMs;
 
+    public JwtService(JwtProperties jwtProperties) {
+        this.jwtProperties = jwtProperties;
+        this.signingKey = toKey(jwtProperties.getSecret());
+
+        Map<String, SecretKey> verificationKeys = new HashMap<>();
+        jwtProperties.getPreviousKeys().forEach((kid, secret) -> verificationKeys.put(kid, toKey(secret)));
+        verificationKeys.put(jwtProperties.getKeyId(), signingKey);
+
+        this.parser = Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(JwsHeader header) {
+                        String keyId = header.getKeyId();
+                        // Tokens without a kid were issued before key ids were introduced and use the current key
+                        if (keyId == null) {
+                            return signingKey;
+                        }
+                        SecretKey key = verificationKeys.get(keyId);
+                        if (key == null) {
+                            throw new UnsupportedJwtException("Unknown signing key id: " + keyId);
+                        }
+                        return key;
+                    }
+                })
+                .build();
+    }
+
     public String generateToken(UserPrincipal userPrincipal) {
         return Jwts.builder()
+                .header()
+                .keyId(jwtProperties.getKeyId())
+                .and()
                 .subject(userPrincipal.getUsername())
                 .claim("userId", userPrincipal.getUserId().toString())
                 .claim("email", userPrincipal.getEmail())
                 .issuedAt(new Date())
                 .expiration(new Date(System.currentTimeMillis() + expirationMs))
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
     public String generateRefreshToken(UserPrincipal userPrincipal) {
         return Jwts.builder()
+                .header()
+                .keyId(jwtProperties.getKeyId())
+                .and()
                 .subject(userPrincipal.getUsername())
                 .claim("userId", userPrincipal.getUserId().toString())
+                .claim("type", "refresh")
                 .issuedAt(new Date())
                 .expiration(new Date(System.currentTimeMillis() + refreshExpirationMs))
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
+    /**
+     * Verifies an access token with a single parse and builds the principal from its claims. The account is assumed
+     * active; callers check status separately.
+     */
+    public UserPrincipal parseAccessToken(String token) {
+        Claims claims = parseClaims(token);
+        if (isRefreshToken(claims)) {
+            throw new UnsupportedJwtException("Refresh tokens cannot be used for authentication");
+        }
+        return new UserPrincipal(
+                extractUserId(claims), claims.getSubject(), claims.get("email", String.class), null, true);
+    }
+
+    /** Verifies a token and returns its claims; throws a {@link io.jsonwebtoken.JwtException} if it is invalid. */
+    public Claims parseClaims(String token) {
+        return parser.parseSignedClaims(token).getPayload();
+    }
+
+    /**
+     * Refresh tokens carry {@code type=refresh}. Those issued before the type claim existed are told apart by having
+     * no email claim, which every access token carries; chat-service's local verifier draws the same line.
+     */
+    public boolean isRefreshToken(Claims claims) {
+        String type = claims.get("type", String.class);
+        return "refresh".equals(type) || (type == null && claims.get("email", String.class) == null);
+    }
+
+    public UUID extractUserId(Claims claims) {
+        String userId = claims.get("userId", String.class);
+        if (userId == null) {
+            throw new MalformedJwtException("Token is missing the userId claim");
+        }
+        return UUID.fromString(userId);
+    }
+
     public boolean validateToken(String token) {
         try {
-            Jwts.parser().verifyWith(getSigningKey()).build().parseSignedClaims(token);
+            parseClaims(token);
             return true;
         } catch (Exception e) {
             return false;
@@ -54,31 +135,22 @@ public class JwtService {
     }
 
     public String extractUsername(String token) {
-        return extractAllClaims(token).getSubject();
+        return parseClaims(token).getSubject();
     }
 
     public UUID extractUserId(String token) {
-        return UUID.fromString(extractAllClaims(token).get("userId", String.class));
+        return extractUserId(parseClaims(token));
     }
 
     public String extractEmail(String token) {
-        return extractAllClaims(token).get("email", String.class);
+        return parseClaims(token).get("email", String.class);
     }
 
     public long getExpirationMs() {
         return expirationMs;
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-    }
-
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secret);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private static SecretKey toKey(String secret) {
+        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
     }
 }
@@ -0,0 +1,108 @@
+package com.ragchat.user.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ragchat.user.config.UserCacheProperties;
+import com.ragchat.user.model.dto.response.UserResponse;
+import com.ragchat.user.model.entity.User;
+import com.ragchat.user.repository.UserRepository;
+import com.ragchat.user.security.UserPrincipal;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.Optional;
+import java.util.UUID;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Bounded, TTL-limited caches of account state consulted on every authenticated request. Entries are evicted as soon
+ * as a user is modified (see {@link #invalidate(UUID)}); the TTL only bounds staleness for changes made outside this
+ * service. API-key entries are keyed by the keyed hash, never by the raw key.
+ */
+@Component
+public class UserCache {
+
+    private final UserRepository userRepository;
+    private final Cache<UUID, Boolean> activeById;
+    private final Cache<UUID, UserResponse> usersById;
+    private final Cache<String, UserPrincipal> principalsByLogin;
+    private final Cache<String, UserPrincipal> principalsByApiKeyHash;
+
+    public UserCache(UserRepository userRepository, UserCacheProperties properties, MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.activeById = newCache(properties, meterRegistry, "users.active");
+        this.usersById = newCache(properties, meterRegistry, "users.by-id");
+        this.principalsByLogin = newCache(properties, meterRegistry, "users.principals.by-login");
+        this.principalsByApiKeyHash = newCache(properties, meterRegistry, "users.principals.by-api-key");
+    }
+
+    /** Returns whether the account exists and is active; unknown users are cached as inactive. */
+    public boolean isActive(UUID userId) {
+        return activeById.get(userId, id -> userRepository.findById(id).map(User::getIsActive).orElse(false));
+    }
+
+    public Optional<UserResponse> getUser(UUID userId) {
+        return Optional.ofNullable(usersById.get(
+                userId, id -> userRepository.findById(id).map(UserCache::toResponse).orElse(null)));
+    }
+
+    /** Looks a principal up by username or email. Misses are not cached. */
+    public Optional<UserPrincipal> getPrincipalByLogin(String usernameOrEmail) {
+        return Optional.ofNullable(principalsByLogin.get(usernameOrEmail, login -> userRepository
+                .findByUsernameOrEmail(login, login)
+                .map(UserCache::toPrincipal)
+                .orElse(null)));
+    }
+
+    /** Looks a principal up by API key hash. Misses are not cached, so invalid keys cannot evict valid entries. */
+    public Optional<UserPrincipal> getPrincipalByApiKeyHash(String apiKeyHash) {
+        return Optional.ofNullable(principalsByApiKeyHash.get(apiKeyHash, hash -> userRepository
+                .findByApiKeyHash(hash)
+                .map(user -> new UserPrincipal(user.getId(), user.getUsername(), user.getEmail(), null, user.getIsActive()))
+                .orElse(null)));
+    }
+
+    /**
+     * Evicts every entry of the given user. When called inside a transaction the eviction is repeated after commit, so
+     * a concurrent request cannot re-populate the cache with the pre-commit state.
+     */
+    public void invalidate(UUID userId) {
+        evict(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(userId);
+                }
+            });
+        }
+    }
+
+    private void evict(UUID userId) {
+        activeById.invalidate(userId);
+        usersById.invalidate(userId);
+        // Principals are keyed by login or key hash; user modifications are rare enough for a scan
+        principalsByLogin.asMap().values().removeIf(p -> p.getUserId().equals(userId));
+        principalsByApiKeyHash.asMap().values().removeIf(p -> p.getUserId().equals(userId));
+    }
+
+    private static <K, V> Cache<K, V> newCache(
+            UserCacheProperties properties, MeterRegistry meterRegistry, String name) {
+        Cache<K, V> cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxSize())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+    }
+
+    private static UserPrincipal toPrincipal(User user) {
+        return new UserPrincipal(
+                user.getId(), user.getUsername(), user.getEmail(), user.getPasswordHash(), user.getIsActive());
+    }
+
+    private static UserResponse toResponse(User user) {
+        return new UserResponse(user.getId(), user.getUsername(), user.getEmail(), user.getCreatedAt());
+    }
+}
@@ -6,8 +6,8 @@ import com.ragchat.user.model.dto.response.ApiKeyResponse;
 import com.ragchat.user.model.dto.response.UserResponse;
 import com.ragchat.user.model.entity.User;
 import com.ragchat.user.repository.UserRepository;
-import com.ragchat.user.security.UserPrincipal;
 import com.ragchat.user.util.ApiKeyGenerator;
+import com.ragchat.user.util.ApiKeyHasher;
 import java.util.UUID;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -22,29 +22,24 @@ public class UserService implements UserDetailsService {
 
     private final UserRepository userRepository;
     private final ApiKeyGenerator apiKeyGenerator;
+    private final ApiKeyHasher apiKeyHasher;
+    private final UserCache userCache;
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userRepository
-                .findByUsernameOrEmail(username, username)
+        return userCache
+                .getPrincipalByLogin(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
-
-        return new UserPrincipal(
-                user.getId(), user.getUsername(), user.getEmail(), user.getPasswordHash(), user.getIsActive());
     }
 
     public UserDetails loadUserByApiKey(String apiKey) {
-        User user =
-                userRepository.findByApiKey(apiKey).orElseThrow(() -> new UsernameNotFoundException("Invalid API key"));
-
-        return new UserPrincipal(
-                user.getId(), user.getUsername(), user.getEmail(), user.getPasswordHash(), user.getIsActive());
+        return userCache
+                .getPrincipalByApiKeyHash(apiKeyHasher.hash(apiKey))
+                .orElseThrow(() -> new UsernameNotFoundException("Invalid API key"));
     }
 
     public UserResponse getUserById(UUID userId) {
-        User user = userRepository.findById(userId).orElseThrow(() -> new ResourceNotFoundException("User not found"));
-
-        return new UserResponse(user.getId(), user.getUsername(), user.getEmail(), user.getCreatedAt());
+        return userCache.getUser(userId).orElseThrow(() -> new ResourceNotFoundException("User not found"));
     }
 
     @Transactional
@@ -66,6 +61,7 @@ public class UserService implements UserDetailsService {
         }
 
         user = userRepository.save(user);
+        userCache.invalidate(userId);
         return new UserResponse(user.getId(), user.getUsername(), user.getEmail(), user.getCreatedAt());
     }
 
@@ -76,6 +72,8 @@ public class UserService implements UserDetailsService {
         String newApiKey = apiKeyGenerator.generateApiKey();
         user.setApiKey(newApiKey);
         userRepository.save(user);
+        // The previous key must stop authenticating immediately, not when its cache entry expires
+        userCache.invalidate(userId);
 
         return new ApiKeyResponse(newApiKey);
     }
@@ -0,0 +1,38 @@
+package com.ragchat.user.util;
+
+import com.ragchat.user.config.ApiKeyProperties;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.HexFormat;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+
+/**
+ * Keyed hash (HMAC-SHA256) of API keys. Lookups and caches work on the hash, so a leaked database index or heap dump
+ * does not reveal usable keys without the server-side secret.
+ */
+@Component
+public class ApiKeyHasher {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final SecretKeySpec key;
+
+    public ApiKeyHasher(ApiKeyProperties properties) {
+        Assert.hasText(properties.getHashSecret(), "api-key.hash-secret must be set");
+        this.key = new SecretKeySpec(properties.getHashSecret().getBytes(StandardCharsets.UTF_8), ALGORITHM);
+    }
+
+    public String hash(String apiKey) {
+        try {
+            // Mac instances are not thread-safe; creating one per call is cheap compared to the lookup it replaces
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return HexFormat.of().formatHex(mac.doFinal(apiKey.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to hash API key", e);
+        }
+    }
+}
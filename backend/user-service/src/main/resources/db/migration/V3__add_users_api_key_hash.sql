@@ -0,0 +1,3 @@
+ALTER TABLE users ADD COLUMN api_key_hash VARCHAR(64);
+
+COMMENT ON COLUMN users.api_key_hash IS 'HMAC-SHA256 of api_key, used for API key authentication lookups';
@@ -0,0 +1,5 @@
+ALTER TABLE users ALTER COLUMN api_key_hash SET NOT NULL;
+
+CREATE UNIQUE INDEX idx_users_api_key_hash ON users(api_key_hash);
+
+COMMENT ON INDEX idx_users_api_key_hash IS 'Fast lookup for API key authentication';
@@ -24,5 +24,6 @@ public class UserServicePostgresTestConfig {
         registry.add("USER_DB_SCHEMA", () -> "public");
         // Test JWT secret generated via `openssl rand -base64 32`
         registry.add("JWT_SECRET", () -> "mxiRw4s11DY+3hpT07UDzIQAAa7n5b2u5nG4Y4ZyMnE=");
+        registry.add("API_KEY_HASH_SECRET", () -> "test-api-key-hash-secret");
     }
 }
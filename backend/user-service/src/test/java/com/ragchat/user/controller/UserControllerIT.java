@@ -123,6 +123,33 @@ class UserControllerIT {
         assertNotEquals("old-key-" + suffix, reloaded.getApiKey());
     }
 
+    @Test
+    void regenerateApiKey_previousKeyStopsWorkingImmediately() throws Exception {
+        String suffix = UUID.randomUUID().toString();
+        User user = User.builder()
+                .username("rotate-user-" + suffix)
+                .email("rotate-" + suffix + "@example.com")
+                .passwordHash("hash")
+                .apiKey("rotated-key-" + suffix)
+                .isActive(true)
+                .build();
+
+        user = userRepository.save(user);
+
+        // Warm the principal cache with the old key
+        mockMvc.perform(get("/api/users/me").header("X-API-KEY", user.getApiKey()))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/users/me/regenerate-api-key").header("X-API-KEY", user.getApiKey()))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/users/me").header("X-API-KEY", user.getApiKey()))
+                .andExpect(status().is4xxClientError());
+
+        User reloaded = userRepository.findById(user.getId()).orElseThrow();
+        mockMvc.perform(get("/api/users/me").header("X-API-KEY", reloaded.getApiKey()))
+                .andExpect(status().isOk());
+    }
+
     @Test
     void getApiKey_returnsCurrentKey() throws Exception {
         String suffix = UUID.randomUUID().toString();
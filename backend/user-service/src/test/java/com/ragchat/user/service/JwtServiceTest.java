@@ -0,0 +1,63 @@
+package com.ragchat.user.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.ragchat.user.config.JwtProperties;
+import com.ragchat.user.security.UserPrincipal;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import java.util.Date;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class JwtServiceTest {
+
+    private static final String SECRET = "mxiRw4s11DY+3hpT07UDzIQAAa7n5b2u5nG4Y4ZyMnE=";
+
+    private final JwtService jwtService = jwtService();
+    private final UserPrincipal alice =
+            new UserPrincipal(UUID.randomUUID(), "alice", "alice@example.com", null, true);
+
+    @Test
+    void parseAccessToken_buildsPrincipalFromAccessToken() {
+        String token = jwtService.generateToken(alice);
+
+        assertFalse(jwtService.isRefreshToken(jwtService.parseClaims(token)));
+        assertEquals(alice.getUserId(), jwtService.parseAccessToken(token).getUserId());
+    }
+
+    @Test
+    void refreshTokens_areRejectedAsAccessTokens() {
+        String token = jwtService.generateRefreshToken(alice);
+
+        assertTrue(jwtService.isRefreshToken(jwtService.parseClaims(token)));
+        assertThrows(JwtException.class, () -> jwtService.parseAccessToken(token));
+    }
+
+    @Test
+    void legacyRefreshTokenWithoutTypeClaim_isStillARefreshToken() {
+        // Refresh tokens issued before the type claim carried neither type nor email
+        String token = Jwts.builder()
+                .subject("alice")
+                .claim("userId", alice.getUserId().toString())
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + 60000))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)))
+                .compact();
+
+        assertTrue(jwtService.isRefreshToken(jwtService.parseClaims(token)));
+        assertThrows(JwtException.class, () -> jwtService.parseAccessToken(token));
+    }
+
+    private static JwtService jwtService() {
+        JwtProperties properties = new JwtProperties();
+        properties.setSecret(SECRET);
+        JwtService service = new JwtService(properties);
+        ReflectionTestUtils.setField(service, "expirationMs", 60000L);
+        ReflectionTestUtils.setField(service, "refreshExpirationMs", 60000L);
+        return service;
+    }
+}
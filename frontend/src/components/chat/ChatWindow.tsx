@@ -132,7 +132,12 @@ export function ChatWindow({ sessionId, sessionName }: ChatWindowProps) {
               className="flex items-center gap-1 rounded-full border border-slate-700 px-2 py-0.5 hover:bg-slate-800"
             >
               <span className="max-w-[160px] truncate">{doc.filename}</span>
-              <span className="text-[10px] uppercase text-slate-500">{doc.status.toLowerCase()}</span>
+              <span className="text-[10px] uppercase text-slate-500">
+                {doc.status.toLowerCase()}
+                {doc.status !== 'READY' &&
+                  doc.indexedChunks > 0 &&
+                  ` ${doc.indexedChunks}${doc.totalChunks != null ? `/${doc.totalChunks}` : ''}`}
+              </span>
               <span className="text-slate-500">×</span>
             </button>
           ))}
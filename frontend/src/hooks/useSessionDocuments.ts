@@ -6,6 +6,13 @@ import {
   deleteSessionDocument,
 } from '../services/documents'
 
+// Documents are indexed in the background after upload; refresh their status and progress until they settle
+const INDEXING_POLL_INTERVAL_MS = 2000
+
+function isIndexing(document: SessionDocument): boolean {
+  return document.status === 'PENDING' || document.status === 'PROCESSING'
+}
+
 interface UseSessionDocumentsResult {
   documents: SessionDocument[]
   loading: boolean
@@ -46,6 +53,34 @@ export function useSessionDocuments(sessionId: string | null): UseSessionDocumen
     void load()
   }, [load])
 
+  const indexing = documents.some(isIndexing)
+
+  useEffect(() => {
+    if (!sessionId || !indexing) return
+    let cancelled = false
+    let timer: ReturnType<typeof setTimeout> | undefined
+
+    const poll = async () => {
+      try {
+        const response = await fetchSessionDocuments(sessionId)
+        if (!cancelled && response.success && response.data) {
+          setDocuments(response.data)
+        }
+      } catch {
+        // Keep showing the last known status; the next poll tries again
+      }
+      if (!cancelled) {
+        timer = setTimeout(poll, INDEXING_POLL_INTERVAL_MS)
+      }
+    }
+
+    timer = setTimeout(poll, INDEXING_POLL_INTERVAL_MS)
+    return () => {
+      cancelled = true
+      clearTimeout(timer)
+    }
+  }, [sessionId, indexing])
+
   const upload = useCallback(
     async (file: File) => {
       if (!sessionId) return
@@ -6,6 +6,8 @@ export interface SessionDocument {
   contentType: string
   sizeBytes: number
   status: SessionDocumentStatus
+  indexedChunks: number
+  totalChunks?: number | null
   errorMessage?: string | null
   createdAt: string
   updatedAt?: string | null